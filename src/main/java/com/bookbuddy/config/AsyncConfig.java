@@ -0,0 +1,57 @@
+package com.bookbuddy.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Spring Boot's default executor (used for MVC async requests and general background
+     * work). Boot backs off from creating it once any other executor bean exists, so it is
+     * declared here explicitly from the auto-configured builder.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Bounded pool for background catalog imports. Work beyond the queue capacity is
+     * rejected rather than piling up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importTaskExecutor(ImportJobConfig importJobConfig) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importJobConfig.getWorkers());
+        executor.setMaxPoolSize(importJobConfig.getWorkers());
+        executor.setQueueCapacity(importJobConfig.getQueueCapacity());
+        executor.setThreadNamePrefix("import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Bounded pool for the book page's parallel reads, kept apart from the application
+     * executor that also waits on Google Books. When it is saturated a read runs on the
+     * calling request thread, so the page degrades to sequential reads instead of queueing.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor bookDetailsTaskExecutor(BookApiConfig bookApiConfig) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(bookApiConfig.getDetails().getWorkers());
+        executor.setMaxPoolSize(bookApiConfig.getDetails().getWorkers());
+        executor.setQueueCapacity(bookApiConfig.getDetails().getQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("book-details-");
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.books")
+@Data
+public class BookApiConfig {
+
+    // Most ids accepted by one GET/POST /api/books/batch request
+    private int batchMaxIds = 100;
+
+    // Most category values returned in the GET /api/books/browse facet counts
+    private int browseCategoryFacets = 20;
+
+    // Pre-serialized GET /api/books/{id} responses (BookPayloadCache)
+    private PayloadCache payloadCache = new PayloadCache();
+
+    // Pool for the parallel reads of GET /api/books/{id}/details (BookDetailsService)
+    private Details details = new Details();
+
+    @Data
+    public static class PayloadCache {
+
+        private boolean enabled = true;
+
+        // Books kept; Caffeine's frequency-based eviction keeps the most viewed ones
+        private int maximumSize = 2_000;
+
+        // Upper bound on staleness for writes that bypass the invalidation hooks
+        private Duration timeToLive = Duration.ofMinutes(30);
+
+        // Also keep a gzip copy, served to clients that accept it
+        private boolean gzip = true;
+
+        // Smaller payloads are only kept uncompressed; gzip would barely shrink them
+        private int gzipMinBytes = 512;
+    }
+
+    @Data
+    public static class Details {
+
+        // Reads running at the same time, across all requests
+        private int workers = 8;
+
+        // Reads waiting for a worker; beyond that a read runs on the request thread
+        private int queueCapacity = 100;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bookbuddy.config;
+
+import com.bookbuddy.dto.IngestReportDTO;
+import com.bookbuddy.service.CatalogIngestService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command-line catalog ingest. Started with {@code --ingest.file=<path>} the application
+ * ingests the file, logs the report and exits (status 1 if the input was malformed).
+ * The format comes from {@code --ingest.format=ndjson|csv} or the file extension; a
+ * trailing {@code .gz} is decompressed on the fly. Without the option this runner does
+ * nothing.
+ */
+@Component
+@Slf4j
+public class CatalogIngestRunner implements ApplicationRunner {
+
+    private final CatalogIngestService catalogIngestService;
+    private final ConfigurableApplicationContext context;
+
+    public CatalogIngestRunner(CatalogIngestService catalogIngestService, ConfigurableApplicationContext context) {
+        this.catalogIngestService = catalogIngestService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String file = firstValue(args, "ingest.file");
+        if (file == null) {
+            return;
+        }
+        Path path = Path.of(file);
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - 3);
+        }
+        String format = firstValue(args, "ingest.format");
+        CatalogIngestService.Format ingestFormat = CatalogIngestService.Format.of(
+                format != null ? format : (name.endsWith(".csv") ? "csv" : "ndjson"));
+
+        log.info("Ingesting {} as {}", path, ingestFormat);
+        IngestReportDTO report;
+        try (InputStream in = open(path, gzip)) {
+            report = catalogIngestService.ingest(in, ingestFormat);
+        }
+        int exitCode = report.getError() == null ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static InputStream open(Path path, boolean gzip) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+        return gzip ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    private static String firstValue(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
@@ -0,0 +1,28 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "external.api.google-books.resilience")
+@Data
+public class GoogleBooksResilienceConfig {
+
+    // Upper bound for a single Google Books call before it counts as a failure
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+    // Consecutive failures (timeouts, 429, 5xx) that open the circuit
+    private int failureThreshold = 5;
+
+    // How long the circuit stays open before a half-open probe is allowed
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    // Requests per day granted by our Google Books quota
+    private long dailyQuota = 1000;
+
+    // Burst size the token bucket may accumulate
+    private long burstCapacity = 20;
+}
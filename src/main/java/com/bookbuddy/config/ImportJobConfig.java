@@ -0,0 +1,28 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.import")
+@Data
+public class ImportJobConfig {
+
+    // Import jobs running at the same time
+    private int workers = 2;
+
+    // Jobs allowed to wait for a worker before new submissions are rejected
+    private int queueCapacity = 20;
+
+    // Books persisted per transaction
+    private int batchSize = 50;
+
+    // Upper bound for maxResults on a single import job
+    private int maxResults = 400;
+
+    // How long finished jobs stay visible on the status endpoint
+    private Duration retention = Duration.ofHours(1);
+}
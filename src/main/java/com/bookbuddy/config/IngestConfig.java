@@ -0,0 +1,17 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.ingest")
+@Data
+public class IngestConfig {
+
+    // Rows written per JDBC batch and transaction
+    private int batchSize = 1000;
+
+    // Separator between categories in the CSV "categories" column
+    private String csvCategorySeparator = "|";
+}
@@ -0,0 +1,22 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.progress")
+@Data
+public class ProgressConfig {
+
+    // Longest a buffered progress update waits before it is written (the staleness bound)
+    private Duration flushInterval = Duration.ofSeconds(2);
+
+    // Pending (user, book) entries that make the writing request flush before returning
+    private int maxPending = 50_000;
+
+    // Rows per batched UPDATE statement
+    private int batchSize = 500;
+}
@@ -0,0 +1,47 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.recommendations")
+@Data
+public class RecommendationConfig {
+
+    // Neighbours kept per book; a row may grow to twice this between prunes
+    private int neighbours = 50;
+
+    // Readers two books must share before one is suggested for the other
+    private int minCoOccurrence = 2;
+
+    // Books of a user's library used as seeds for GET /api/recommendations/me
+    private int maxSeedBooks = 100;
+
+    // Most results one similar/recommendation request may ask for
+    private int maxResults = 50;
+
+    // Full rebuild from user_books and favourites; corrects the drift left by pruning
+    private Duration rebuildInterval = Duration.ofHours(6);
+
+    // Fork/join workers for the rebuild; 0 means one per available core
+    private int rebuildParallelism = 0;
+
+    // Content similarity for books without readers (ContentIndex)
+    private Content content = new Content();
+
+    @Data
+    public static class Content {
+
+        // Width of the hashed TF-IDF vectors; each one takes 4 bytes per dimension off-heap
+        private int dimensions = 256;
+
+        // Score with the JDK Vector API when the JVM runs with --add-modules jdk.incubator.vector
+        private boolean vectorApi = true;
+
+        // Cosine similarity a book must exceed to be listed
+        private double minScore = 0.05;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bookbuddy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Enables the periodic maintenance jobs (@Scheduled), run on Boot's auto-configured scheduler. */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,16 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.shelf-counts")
+@Data
+public class ShelfCountsConfig {
+
+    // How often the counters are compared with user_books and favourites, and corrected
+    private Duration reconcileInterval = Duration.ofHours(6);
+}
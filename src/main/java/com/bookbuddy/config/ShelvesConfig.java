@@ -0,0 +1,14 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.shelves")
+@Data
+public class ShelvesConfig {
+
+    // Most book ids accepted by one bulk add/move/remove/rate request
+    private int bulkMaxIds = 500;
+}
@@ -0,0 +1,52 @@
+package com.bookbuddy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.trending")
+@Data
+public class TrendingConfig {
+
+    // Time after which an activity counts half as much
+    private Duration halfLife = Duration.ofHours(24);
+
+    // How often the trending lists are recomputed from the counters
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    // Activity read back from the database on startup
+    private Duration warmupWindow = Duration.ofDays(7);
+
+    // Books kept per list (overall and per category)
+    private int topK = 100;
+
+    // Most results one GET /api/books/trending request may ask for
+    private int maxResults = 50;
+
+    // Counters that decayed below this are dropped at the next refresh
+    private double minScore = 0.01;
+
+    // A reader's progress on one book counts once per window, however often they report
+    private Duration progressWindow = Duration.ofHours(24);
+
+    // (reader, book) pairs remembered for the progress window; evicted pairs may count again early
+    private int progressPairsTracked = 200_000;
+
+    // Score each activity adds at the moment it happens
+    private Weights weights = new Weights();
+
+    @Data
+    public static class Weights {
+
+        private double shelfAdd = 3;
+
+        private double progress = 1;
+
+        private double review = 4;
+
+        private double favourite = 5;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bookbuddy.controller;
+
+import com.bookbuddy.dto.IngestReportDTO;
+import com.bookbuddy.service.CatalogIngestService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@RequestMapping("/api/admin/books")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCatalogController {
+
+    private final CatalogIngestService catalogIngestService;
+
+    /**
+     * Streams a partner dump (NDJSON or CSV, optionally gzip-encoded) straight from the
+     * request body into the catalog. Responds 422 with the partial report if the input
+     * turned out to be malformed part-way through.
+     */
+    @PostMapping("/ingest")
+    public ResponseEntity<IngestReportDTO> ingest(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request) throws IOException {
+
+        CatalogIngestService.Format ingestFormat = CatalogIngestService.Format.of(format);
+        InputStream body = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            body = new GZIPInputStream(body);
+        }
+        IngestReportDTO report = catalogIngestService.ingest(body, ingestFormat);
+        HttpStatus status = report.getError() == null ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(report);
+    }
+}
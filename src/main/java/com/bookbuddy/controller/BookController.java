@@ -1,15 +1,42 @@
 package com.bookbuddy.controller;
 
+import com.bookbuddy.dto.BookBatchRequest;
+import com.bookbuddy.dto.BookBrowseDTO;
 import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.BookDetailsDTO;
+import com.bookbuddy.dto.BookSearchCriteria;
+import com.bookbuddy.dto.BookSummaryDTO;
+import com.bookbuddy.dto.ImportJobDTO;
+import com.bookbuddy.repository.VersionStampRow;
+import com.bookbuddy.service.BookBrowseService;
+import com.bookbuddy.service.BookDetailsService;
+import com.bookbuddy.service.BookPayloadCache;
 import com.bookbuddy.service.BookService;
+import com.bookbuddy.service.HybridSearchService;
+import com.bookbuddy.service.ImportJobService;
+import com.bookbuddy.service.RecommendationService;
+import com.bookbuddy.service.ResourceVersionService;
+import com.bookbuddy.service.TrendingService;
+import com.bookbuddy.util.AuthUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/books")
@@ -17,9 +44,19 @@ import java.util.List;
 public class BookController {
     
     private final BookService bookService;
+    private final BookBrowseService bookBrowseService;
+    private final BookDetailsService bookDetailsService;
+    private final BookPayloadCache bookPayloadCache;
+    private final ResourceVersionService resourceVersionService;
+    private final AuthUtil authUtil;
+    private final HybridSearchService hybridSearchService;
+    private final ImportJobService importJobService;
+    private final RecommendationService recommendationService;
+    private final TrendingService trendingService;
+    private final ObjectMapper objectMapper;
     
     @GetMapping
-    public ResponseEntity<Page<BookDTO>> getAllBooks(
+    public ResponseEntity<Page<BookSummaryDTO>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "false") boolean external) {
@@ -27,76 +64,242 @@ public class BookController {
         
         if (external) {
             // Fetch popular books from Google Books API
-            Page<BookDTO> books = bookService.getPopularBooksFromAPI(pageable);
+            Page<BookSummaryDTO> books = bookService.getPopularBooksFromAPI(pageable);
             return ResponseEntity.ok(books);
         } else {
-            // Fetch books from local database (default behavior)
-            Page<BookDTO> books = bookService.getAllBooks(pageable);
+            // Fetch books from local database (default behavior). No ETag: a catalog-wide
+            // stamp would scan the whole books table on every list request
+            Page<BookSummaryDTO> books = bookService.getAllBooks(pageable);
             return ResponseEntity.ok(books);
         }
     }
     
+    /**
+     * Books our readers are shelving, reading, reviewing and favouriting right now, overall
+     * or within one category. Served from in-memory decayed counters.
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<BookSummaryDTO>> getTrendingBooks(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(trendingService.getTrending(category, limit));
+    }
+    
+    /**
+     * Full books for up to app.books.batch-max-ids ids, e.g. GET /api/books/batch?ids=3,1,2.
+     * Results are in request order; unknown ids are left out.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<BookDTO>> getBooksByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(bookService.getBooksByIds(ids));
+    }
+    
+    /** Same as GET /api/books/batch, for id lists too long for a query string. */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookDTO>> getBooksByIds(@Valid @RequestBody BookBatchRequest request) {
+        return ResponseEntity.ok(bookService.getBooksByIds(request.getIds()));
+    }
+    
+    /**
+     * Served from pre-serialized bytes (BookPayloadCache); gzip-encoded when the client
+     * accepts it and a compressed copy exists. X-Cache tells whether the cache answered.
+     * A matching If-None-Match/If-Modified-Since is answered with 304 from the book's
+     * version alone.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
-        BookDTO book = bookService.getBookById(id);
-        return ResponseEntity.ok(book);
+    public ResponseEntity<byte[]> getBookById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        VersionStampRow stamp = resourceVersionService.book(id);
+        // Unknown ids fall through to the 404 below
+        if (stamp.count() > 0 && webRequest.checkNotModified(stamp.etag("book-" + id), stamp.lastModified())) {
+            return null;
+        }
+        BookPayloadCache.Lookup lookup = bookPayloadCache.get(id, () -> bookService.getBookById(id));
+        BookPayloadCache.Payload payload = lookup.payload();
+        boolean gzip = payload.gzip() != null && acceptEncoding != null
+                && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        byte[] body = gzip ? payload.gzip() : payload.json();
+        if (lookup.hit()) {
+            bookPayloadCache.recordServed(body.length);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Cache", lookup.hit() ? "HIT" : "MISS");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
+    /**
+     * Book page aggregate: the book, its newest reviews, the rating histogram and whether
+     * the caller has favourited or shelved it. Replaces four separate calls.
+     */
+    @GetMapping("/{id}/details")
+    public ResponseEntity<BookDetailsDTO> getBookDetails(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int reviews,
+            Authentication authentication) {
+        Long userId = authUtil.getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(bookDetailsService.getBookDetails(id, userId, reviews));
+    }
+    
+    /** Books most often shelved or favourited by readers of this book, best first. */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<BookSummaryDTO>> getSimilarBooks(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.getSimilarBooks(id, limit));
+    }
+    
+    /** Books whose description, categories and author are closest to this book's. */
+    @GetMapping("/{id}/more-like-this")
+    public ResponseEntity<List<BookSummaryDTO>> getMoreLikeThis(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.getMoreLikeThis(id, limit));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<Page<BookDTO>> searchBooksInDatabase(
+    public ResponseEntity<Page<BookSummaryDTO>> searchBooksInDatabase(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> books = bookService.searchBooksInDatabase(query, pageable);
+        Page<BookSummaryDTO> books = bookService.searchBooksInDatabase(query, pageable);
         return ResponseEntity.ok(books);
     }
     
+    /**
+     * Structured search, e.g. GET /api/books/advanced-search?language=en&yearFrom=1900&yearTo=1950&minRating=4&sort=newest.
+     * All filters are optional and ANDed; ranges are inclusive.
+     */
+    @GetMapping("/advanced-search")
+    public ResponseEntity<Page<BookSummaryDTO>> advancedSearch(
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) Integer minPages,
+            @RequestParam(required = false) Integer maxPages,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "title") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        BookSearchCriteria criteria = BookSearchCriteria.builder()
+                .language(language)
+                .yearFrom(yearFrom)
+                .yearTo(yearTo)
+                .minPages(minPages)
+                .maxPages(maxPages)
+                .minRating(minRating)
+                .sortBy(BookSearchCriteria.SortBy.of(sort))
+                .build();
+        return ResponseEntity.ok(bookService.advancedSearch(criteria, PageRequest.of(page, size)));
+    }
+    
     @GetMapping("/search/external")
-    public ResponseEntity<List<BookDTO>> searchBooksFromExternalAPI(
+    public ResponseEntity<List<BookSummaryDTO>> searchBooksFromExternalAPI(
             @RequestParam String query,
             @RequestParam(defaultValue = "20") int maxResults) {
         
-        List<BookDTO> books = bookService.searchBooksFromExternalAPI(query, maxResults);
+        List<BookSummaryDTO> books = bookService.searchBooksFromExternalAPI(query, maxResults);
         return ResponseEntity.ok(books);
     }
     
+    /**
+     * Local and Google Books results in one response, streamed as NDJSON: one
+     * {"source": ..., "book": ...} object per line, local hits first.
+     */
+    @GetMapping(value = "/search/hybrid", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> hybridSearch(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "20") int maxResults) {
+
+        StreamingResponseBody body = out -> hybridSearchService.search(query, size, maxResults, hit -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(hit));
+                out.write('\n');
+                // Push each hit to the client as soon as it is available
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     @PostMapping("/import/{googleBooksId}")
     public ResponseEntity<BookDTO> importBookFromExternalAPI(@PathVariable String googleBooksId) {
         BookDTO book = bookService.saveBookFromExternalAPI(googleBooksId);
         return ResponseEntity.ok(book);
     }
 
+    /**
+     * Queues a background job importing the top Google Books results for a query.
+     * Poll the returned job via GET /api/books/import/jobs/{jobId}.
+     */
     @PostMapping("/import/top")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<BookDTO>> importTopFromExternalAPI(
+    public ResponseEntity<ImportJobDTO> importTopFromExternalAPI(
             @RequestParam String query,
             @RequestParam(defaultValue = "10") int maxResults) {
 
-        List<BookDTO> books = bookService.saveTopFromExternalAPI(query, maxResults);
-        return ResponseEntity.ok(books);
+        ImportJobDTO job = importJobService.submitTopImport(query, maxResults);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/books/import/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/import/jobs/{jobId}")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportJobDTO> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getJob(jobId));
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<Page<BookDTO>> getBooksByCategory(
+    public ResponseEntity<Page<BookSummaryDTO>> getBooksByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> books = bookService.getBooksByCategory(category, pageable);
+        Page<BookSummaryDTO> books = bookService.getBooksByCategory(category, pageable);
         return ResponseEntity.ok(books);
     }
     
+    /**
+     * Faceted browse, e.g. GET /api/books/browse?category=Fantasy&category=Classic&language=en&minRating=4&pages=200-299.
+     * Repeated parameters are alternatives; different parameters must all match.
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<BookBrowseDTO> browseBooks(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> language,
+            @RequestParam(required = false) Integer minRating,
+            @RequestParam(required = false) List<String> pages,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(bookBrowseService.browse(category, language, minRating, pages, pageable));
+    }
+    
     @GetMapping("/author/{author}")
-    public ResponseEntity<Page<BookDTO>> getBooksByAuthor(
+    public ResponseEntity<Page<BookSummaryDTO>> getBooksByAuthor(
             @PathVariable String author,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> books = bookService.getBooksByAuthor(author, pageable);
+        Page<BookSummaryDTO> books = bookService.getBooksByAuthor(author, pageable);
         return ResponseEntity.ok(books);
     }
 }
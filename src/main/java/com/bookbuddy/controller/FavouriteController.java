@@ -1,6 +1,6 @@
 package com.bookbuddy.controller;
 
-import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.BookSummaryDTO;
 import com.bookbuddy.service.FavouriteService;
 import com.bookbuddy.util.AuthUtil;
 import lombok.RequiredArgsConstructor;
@@ -43,21 +43,21 @@ public class FavouriteController {
     }
     
     @GetMapping
-    public ResponseEntity<List<BookDTO>> getFavouriteBooks(Authentication authentication) {
+    public ResponseEntity<List<BookSummaryDTO>> getFavouriteBooks(Authentication authentication) {
         Long userId = getUserIdFromAuth(authentication);
-        List<BookDTO> books = favouriteService.getFavouriteBooks(userId);
+        List<BookSummaryDTO> books = favouriteService.getFavouriteBooks(userId);
         return ResponseEntity.ok(books);
     }
     
     @GetMapping("/paginated")
-    public ResponseEntity<Page<BookDTO>> getFavouriteBooksPaginated(
+    public ResponseEntity<Page<BookSummaryDTO>> getFavouriteBooksPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             Authentication authentication) {
         
         Long userId = getUserIdFromAuth(authentication);
         Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> books = favouriteService.getFavouriteBooks(userId, pageable);
+        Page<BookSummaryDTO> books = favouriteService.getFavouriteBooks(userId, pageable);
         return ResponseEntity.ok(books);
     }
     
@@ -0,0 +1,33 @@
+package com.bookbuddy.controller;
+
+import com.bookbuddy.dto.BookSummaryDTO;
+import com.bookbuddy.service.RecommendationService;
+import com.bookbuddy.util.AuthUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recommendations")
+@RequiredArgsConstructor
+public class RecommendationController {
+
+    private final RecommendationService recommendationService;
+    private final AuthUtil authUtil;
+
+    /** Books that readers with similar libraries have, best first. */
+    @GetMapping("/me")
+    public ResponseEntity<List<BookSummaryDTO>> getMyRecommendations(
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+
+        Long userId = authUtil.getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(recommendationService.getRecommendations(userId, limit));
+    }
+}
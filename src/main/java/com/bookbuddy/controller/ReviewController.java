@@ -2,6 +2,8 @@ package com.bookbuddy.controller;
 
 import com.bookbuddy.dto.CreateReviewRequest;
 import com.bookbuddy.dto.ReviewDTO;
+import com.bookbuddy.repository.VersionStampRow;
+import com.bookbuddy.service.ResourceVersionService;
 import com.bookbuddy.service.ReviewService;
 import com.bookbuddy.util.AuthUtil;
 import jakarta.validation.Valid;
@@ -13,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/reviews")
@@ -21,6 +24,7 @@ public class ReviewController {
 
     private final ReviewService reviewService;
     private final AuthUtil authUtil;
+    private final ResourceVersionService resourceVersionService;
     
     @PostMapping
     public ResponseEntity<ReviewDTO> createReview(
@@ -65,8 +69,12 @@ public class ReviewController {
     public ResponseEntity<Page<ReviewDTO>> getReviewsForBook(
             @PathVariable Long bookId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
         
+        if (notModified(webRequest, resourceVersionService.bookReviews(bookId), "book-reviews-" + bookId)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<ReviewDTO> reviews = reviewService.getReviewsForBook(bookId, pageable);
         return ResponseEntity.ok(reviews);
@@ -76,8 +84,12 @@ public class ReviewController {
     public ResponseEntity<Page<ReviewDTO>> getReviewsByUser(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
         
+        if (notModified(webRequest, resourceVersionService.userReviews(userId), "user-reviews-" + userId)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<ReviewDTO> reviews = reviewService.getReviewsByUser(userId, pageable);
         return ResponseEntity.ok(reviews);
@@ -87,9 +99,13 @@ public class ReviewController {
     public ResponseEntity<Page<ReviewDTO>> getMyReviews(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            Authentication authentication) {
+            Authentication authentication,
+            WebRequest webRequest) {
         
         Long userId = getUserIdFromAuth(authentication);
+        if (notModified(webRequest, resourceVersionService.userReviews(userId), "user-reviews-" + userId)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<ReviewDTO> reviews = reviewService.getReviewsByUser(userId, pageable);
         return ResponseEntity.ok(reviews);
@@ -107,5 +123,10 @@ public class ReviewController {
     private Long getUserIdFromAuth(Authentication authentication) {
         return authUtil.getUserIdFromAuthentication(authentication);
     }
+    
+    // Sets ETag/Last-Modified and reports whether the client's copy is still current (304)
+    private boolean notModified(WebRequest webRequest, VersionStampRow stamp, String scope) {
+        return webRequest.checkNotModified(stamp.etag(scope), stamp.lastModified());
+    }
 }
 
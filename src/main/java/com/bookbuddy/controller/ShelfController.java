@@ -1,9 +1,16 @@
 package com.bookbuddy.controller;
 
 import com.bookbuddy.dto.AddBookToShelfRequest;
+import com.bookbuddy.dto.BulkShelfRequest;
+import com.bookbuddy.dto.BulkShelfResultDTO;
+import com.bookbuddy.dto.ShelfCountsDTO;
 import com.bookbuddy.dto.UpdateProgressRequest;
 import com.bookbuddy.dto.UserBookDTO;
 import com.bookbuddy.model.UserBook.ShelfType;
+import com.bookbuddy.repository.VersionStampRow;
+import com.bookbuddy.service.ResourceVersionService;
+import com.bookbuddy.service.ShelfBulkService;
+import com.bookbuddy.service.ShelfCountService;
 import com.bookbuddy.service.UserBookService;
 import com.bookbuddy.util.AuthUtil;
 import jakarta.validation.Valid;
@@ -15,6 +22,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,6 +33,9 @@ public class ShelfController {
 
     private final UserBookService userBookService;
     private final AuthUtil authUtil;
+    private final ResourceVersionService resourceVersionService;
+    private final ShelfCountService shelfCountService;
+    private final ShelfBulkService shelfBulkService;
     
     @PostMapping("/add")
     public ResponseEntity<UserBookDTO> addBookToShelf(
@@ -48,6 +59,44 @@ public class ShelfController {
         return ResponseEntity.ok(userBook);
     }
     
+    /** Adds every book to one shelf; the response has an outcome per book. */
+    @PostMapping("/bulk/add")
+    public ResponseEntity<BulkShelfResultDTO> addBooksToShelf(
+            @Valid @RequestBody BulkShelfRequest request,
+            Authentication authentication) {
+
+        Long userId = getUserIdFromAuth(authentication);
+        return ResponseEntity.ok(shelfBulkService.addBooks(userId, request.getBookIds(), request.getShelf()));
+    }
+    
+    @PutMapping("/bulk/move")
+    public ResponseEntity<BulkShelfResultDTO> moveBooksToShelf(
+            @Valid @RequestBody BulkShelfRequest request,
+            Authentication authentication) {
+
+        Long userId = getUserIdFromAuth(authentication);
+        return ResponseEntity.ok(shelfBulkService.moveBooks(userId, request.getBookIds(), request.getShelf()));
+    }
+    
+    // POST rather than DELETE, as the ids travel in the body
+    @PostMapping("/bulk/remove")
+    public ResponseEntity<BulkShelfResultDTO> removeBooksFromLibrary(
+            @Valid @RequestBody BulkShelfRequest request,
+            Authentication authentication) {
+
+        Long userId = getUserIdFromAuth(authentication);
+        return ResponseEntity.ok(shelfBulkService.removeBooks(userId, request.getBookIds()));
+    }
+    
+    @PutMapping("/bulk/rate")
+    public ResponseEntity<BulkShelfResultDTO> rateBooks(
+            @Valid @RequestBody BulkShelfRequest request,
+            Authentication authentication) {
+
+        Long userId = getUserIdFromAuth(authentication);
+        return ResponseEntity.ok(shelfBulkService.rateBooks(userId, request.getBookIds(), request.getRating()));
+    }
+    
     @DeleteMapping("/remove/{bookId}")
     public ResponseEntity<Void> removeBookFromLibrary(
             @PathVariable Long bookId,
@@ -58,12 +107,23 @@ public class ShelfController {
         return ResponseEntity.noContent().build();
     }
     
+    /** Books per shelf and in favourites, from the per-user counters. */
+    @GetMapping("/counts")
+    public ResponseEntity<ShelfCountsDTO> getShelfCounts(Authentication authentication) {
+        Long userId = getUserIdFromAuth(authentication);
+        return ResponseEntity.ok(shelfCountService.getCounts(userId));
+    }
+    
     @GetMapping("/{shelf}")
     public ResponseEntity<List<UserBookDTO>> getBooksByShelf(
             @PathVariable ShelfType shelf,
-            Authentication authentication) {
+            Authentication authentication,
+            WebRequest webRequest) {
         
         Long userId = getUserIdFromAuth(authentication);
+        if (notModified(webRequest, resourceVersionService.shelf(userId, shelf), "shelf-" + userId + "-" + shelf)) {
+            return null;
+        }
         List<UserBookDTO> books = userBookService.getBooksByShelf(userId, shelf);
         return ResponseEntity.ok(books);
     }
@@ -73,9 +133,13 @@ public class ShelfController {
             @PathVariable ShelfType shelf,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            Authentication authentication) {
+            Authentication authentication,
+            WebRequest webRequest) {
         
         Long userId = getUserIdFromAuth(authentication);
+        if (notModified(webRequest, resourceVersionService.shelf(userId, shelf), "shelf-" + userId + "-" + shelf)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<UserBookDTO> books = userBookService.getBooksByShelf(userId, shelf, pageable);
         return ResponseEntity.ok(books);
@@ -85,28 +149,45 @@ public class ShelfController {
     public ResponseEntity<Page<UserBookDTO>> getReadingTimeline(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            Authentication authentication) {
+            Authentication authentication,
+            WebRequest webRequest) {
         
         Long userId = getUserIdFromAuth(authentication);
+        if (notModified(webRequest, resourceVersionService.library(userId), "library-" + userId)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<UserBookDTO> timeline = userBookService.getReadingTimeline(userId, pageable);
         return ResponseEntity.ok(timeline);
     }
     
     @GetMapping("/currently-reading")
-    public ResponseEntity<List<UserBookDTO>> getCurrentlyReading(Authentication authentication) {
+    public ResponseEntity<List<UserBookDTO>> getCurrentlyReading(Authentication authentication, WebRequest webRequest) {
         Long userId = getUserIdFromAuth(authentication);
+        if (notModified(webRequest, resourceVersionService.shelf(userId, ShelfType.CURRENTLY_READING),
+                "shelf-" + userId + "-" + ShelfType.CURRENTLY_READING)) {
+            return null;
+        }
         List<UserBookDTO> books = userBookService.getCurrentlyReading(userId);
         return ResponseEntity.ok(books);
     }
     
+    /**
+     * With buffered=true the report is acknowledged with 202 and no body, and written
+     * within app.progress.flush-interval; meant for e-readers reporting every page turn.
+     */
     @PutMapping("/progress/{bookId}")
     public ResponseEntity<UserBookDTO> updateReadingProgress(
             @PathVariable Long bookId,
             @Valid @RequestBody UpdateProgressRequest request,
+            @RequestParam(defaultValue = "false") boolean buffered,
             Authentication authentication) {
         
         Long userId = getUserIdFromAuth(authentication);
+        if (buffered) {
+            userBookService.bufferReadingProgress(userId, bookId, request.getCurrentPage(), request.getProgressPercentage());
+            return ResponseEntity.accepted().build();
+        }
         UserBookDTO userBook = userBookService.updateReadingProgress(
                 userId, bookId, request.getCurrentPage(), request.getProgressPercentage());
         return ResponseEntity.ok(userBook);
@@ -126,5 +207,10 @@ public class ShelfController {
     private Long getUserIdFromAuth(Authentication authentication) {
         return authUtil.getUserIdFromAuthentication(authentication);
     }
+    
+    // Sets ETag/Last-Modified and reports whether the client's copy is still current (304)
+    private boolean notModified(WebRequest webRequest, VersionStampRow stamp, String scope) {
+        return webRequest.checkNotModified(stamp.etag(scope), stamp.lastModified());
+    }
 }
 
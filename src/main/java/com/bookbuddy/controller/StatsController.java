@@ -0,0 +1,31 @@
+package com.bookbuddy.controller;
+
+import com.bookbuddy.dto.ReadingStatsDTO;
+import com.bookbuddy.service.ReadingStatsService;
+import com.bookbuddy.util.AuthUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final ReadingStatsService readingStatsService;
+    private final AuthUtil authUtil;
+
+    /** Pages per day, streaks and finished books, from the daily rollups. */
+    @GetMapping("/me")
+    public ResponseEntity<ReadingStatsDTO> getMyStats(
+            @RequestParam(defaultValue = "30") int days,
+            Authentication authentication) {
+
+        Long userId = authUtil.getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(readingStatsService.getStats(userId, days));
+    }
+}
@@ -0,0 +1,17 @@
+package com.bookbuddy.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchRequest {
+
+    @NotNull(message = "ids are required")
+    private List<Long> ids;
+}
@@ -0,0 +1,31 @@
+package com.bookbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of GET /api/books/browse: the matching books plus a count per facet value.
+ * Each facet group counts the books matching every filter except the group's own, so
+ * the numbers say how many books a click on that value would add or leave.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookBrowseDTO {
+
+    private List<BookSummaryDTO> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    // Group ("category", "language", "rating", "pages") -> value -> matching books.
+    // Categories and languages are ordered by count; "rating" is cumulative ("4" = 4 stars and up)
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -10,7 +10,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class BookDTO {
     
     private Long id;
@@ -20,6 +20,8 @@ public class BookDTO {
     private String description;
     private String publisher;
     private String publishedDate;
+    // Derived from publishedDate; ignored on writes
+    private Integer publishedYear;
     private Integer pageCount;
     private String coverImageUrl;
     private List<String> categories;
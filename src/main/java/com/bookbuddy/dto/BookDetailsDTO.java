@@ -0,0 +1,37 @@
+package com.bookbuddy.dto;
+
+import com.bookbuddy.model.UserBook.ShelfType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a book page shows, from GET /api/books/{id}/details: the book, its newest
+ * reviews and rating histogram, and the caller's own state for the book.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookDetailsDTO {
+
+    private BookDTO book;
+
+    // Newest reviews first; reviewCount is the total
+    private List<ReviewDTO> reviews;
+    private long reviewCount;
+
+    // Star rating (1-5) -> number of reviews; every rating is present
+    private Map<Integer, Long> ratingHistogram;
+
+    // Caller's state; shelf fields are null when the book is not on a shelf
+    private boolean favourite;
+    private ShelfType shelf;
+    private Integer currentPage;
+    private Double progressPercentage;
+    private Integer userRating;
+}
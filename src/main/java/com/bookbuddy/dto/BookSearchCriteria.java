@@ -0,0 +1,47 @@
+package com.bookbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filters and sort order of GET /api/books/advanced-search. Every filter is optional;
+ * ranges are inclusive and may be open on either side.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSearchCriteria {
+
+    private String language;
+    private Integer yearFrom;
+    private Integer yearTo;
+    private Integer minPages;
+    private Integer maxPages;
+    private Double minRating;
+
+    @Builder.Default
+    private SortBy sortBy = SortBy.TITLE;
+
+    /** Sort orders, each backed by an index. Year and page sorts leave out books without one. */
+    public enum SortBy {
+        TITLE,
+        NEWEST,
+        OLDEST,
+        RATING,
+        SHORTEST,
+        LONGEST;
+
+        public static SortBy of(String value) {
+            for (SortBy sortBy : values()) {
+                if (sortBy.name().equalsIgnoreCase(value)) {
+                    return sortBy;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort: " + value
+                    + " (expected title, newest, oldest, rating, shortest or longest)");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.bookbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Book as shown in lists and embedded in shelf, review, favourite and search results:
+ * everything a card needs, without the description. GET /api/books/{id} returns the
+ * full {@link BookDTO}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSummaryDTO {
+
+    private Long id;
+    private String title;
+    private String author;
+    private String isbn;
+    private String publishedDate;
+    private Integer pageCount;
+    private String coverImageUrl;
+    private List<String> categories;
+    private String language;
+    private String googleBooksId;
+    private Double averageRating;
+    private Integer ratingsCount;
+}
@@ -0,0 +1,27 @@
+package com.bookbuddy.dto;
+
+import com.bookbuddy.model.UserBook.ShelfType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Body of the /api/shelves/bulk/... requests; shelf is used by add and move, rating by rate. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkShelfRequest {
+
+    @NotEmpty(message = "bookIds are required")
+    private List<Long> bookIds;
+
+    private ShelfType shelf;
+
+    @Min(value = 1, message = "Rating must be between 1 and 5")
+    @Max(value = 5, message = "Rating must be between 1 and 5")
+    private Integer rating;
+}
@@ -0,0 +1,46 @@
+package com.bookbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Per-book outcomes of a bulk shelf request, in request order (duplicate ids once).
+ * UNCHANGED counts as a success: the book already was where the request put it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkShelfResultDTO {
+
+    private int succeeded;
+    private int failed;
+    private List<Item> results;
+
+    public enum Outcome {
+        ADDED,
+        MOVED,
+        REMOVED,
+        RATED,
+        UNCHANGED,
+        ALREADY_IN_LIBRARY,
+        NOT_IN_LIBRARY,
+        BOOK_NOT_FOUND;
+
+        public boolean isSuccess() {
+            return this != ALREADY_IN_LIBRARY && this != NOT_IN_LIBRARY && this != BOOK_NOT_FOUND;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long bookId;
+        private Outcome outcome;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bookbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestReportDTO {
+
+    private String format;
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    // Rows without a googleBooksId or ISBN, or with unparseable values
+    private long skipped;
+    // Rows rejected by the database (e.g. an ISBN already owned by another book)
+    private long failed;
+    private long batches;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    // Set when ingest stopped early on malformed input; counts cover the rows before it
+    private String error;
+}
@@ -0,0 +1,46 @@
+package com.bookbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /api/stats/me: reading statistics computed from the user's daily rollups.
+ * A day is active when the user reported progress or finished a book on it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReadingStatsDTO {
+
+    private long totalPagesRead;
+    private int activeDays;
+    private double averagePagesPerActiveDay;
+
+    // Consecutive active days; the current streak is still alive if it ended yesterday
+    private int currentStreak;
+    private int longestStreak;
+
+    private int booksFinished;
+    private Map<Integer, Integer> booksFinishedByYear;
+
+    // From moving to CURRENTLY_READING to finishing; null until a book was finished that way
+    private Double averageDaysToFinish;
+
+    // The last `days` days, oldest first, including days without reading
+    private List<DailyPages> pagesPerDay;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyPages {
+        private LocalDate date;
+        private int pagesRead;
+    }
+}
@@ -15,7 +15,7 @@ public class ReviewDTO {
     
     private Long id;
     private UserDTO user;
-    private BookDTO book;
+    private BookSummaryDTO book;
     private String content;
     private Integer rating;
     private LocalDateTime createdAt;
@@ -0,0 +1,21 @@
+package com.bookbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchHitDTO {
+
+    private Source source;
+    private BookSummaryDTO book;
+
+    public enum Source {
+        LOCAL,
+        EXTERNAL
+    }
+}
@@ -0,0 +1,19 @@
+package com.bookbuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** GET /api/shelves/counts: the number of books on each shelf and in favourites. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShelfCountsDTO {
+
+    private int wantToRead;
+    private int currentlyReading;
+    private int read;
+    private int favourites;
+}
@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 public class UserBookDTO {
 
     private Long id;
-    private BookDTO book;
+    private BookSummaryDTO book;
     private ShelfType shelf;
     private Integer currentPage;
     private Double progressPercentage;
@@ -0,0 +1,8 @@
+package com.bookbuddy.exception;
+
+public class ExternalServiceUnavailableException extends RuntimeException {
+
+    public ExternalServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,352 @@
+package com.bookbuddy.facet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index over the local catalog. It keeps an {@link IdBitmap} of book
+ * ids for each category, language, rating bucket and page-count bucket. Browse filters
+ * are intersections of those bitmaps, and facet counts are intersection cardinalities.
+ * Neither touches the database; only the page of matching books is loaded afterwards.
+ *
+ * The index is loaded on startup. BookService and catalog ingest call
+ * {@link #refresh(Collection)} for the books they write. Those books are re-read after
+ * the writing transaction commits, so the index never shows uncommitted rows.
+ */
+@Component
+@Slf4j
+public class BookFacetIndex implements SmartInitializingSingleton {
+
+    private static final int RELOAD_CHUNK = 1_000;
+
+    /** Page-count ranges offered as a facet; a book without a page count is in none. */
+    public enum PageBucket {
+        UNDER_100("0-99", 0, 99),
+        FROM_100("100-199", 100, 199),
+        FROM_200("200-299", 200, 299),
+        FROM_300("300-499", 300, 499),
+        FROM_500("500+", 500, Integer.MAX_VALUE);
+
+        private final String label;
+        private final int min;
+        private final int max;
+
+        PageBucket(String label, int min, int max) {
+            this.label = label;
+            this.min = min;
+            this.max = max;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static PageBucket of(Integer pageCount) {
+            if (pageCount == null || pageCount <= 0) {
+                return null;
+            }
+            for (PageBucket bucket : values()) {
+                if (pageCount >= bucket.min && pageCount <= bucket.max) {
+                    return bucket;
+                }
+            }
+            return null;
+        }
+
+        public static PageBucket fromLabel(String label) {
+            for (PageBucket bucket : values()) {
+                if (bucket.label.equals(label)) {
+                    return bucket;
+                }
+            }
+            throw new IllegalArgumentException("Unknown page range: " + label + " (expected one of 0-99, 100-199, "
+                    + "200-299, 300-499, 500+)");
+        }
+    }
+
+    /**
+     * Browse filter. Values within one dimension are alternatives (OR) and dimensions
+     * are combined with AND. A null dimension is not filtered; an empty one matches
+     * nothing (e.g. only unknown category names were asked for).
+     */
+    public record Filter(Set<Integer> categoryIds, Set<String> languages, Integer minRating, Set<PageBucket> pages) {}
+
+    /**
+     * Matching ids for one page plus facet counts. Each dimension's counts apply every
+     * filter except that dimension's own, so the client can show the alternatives.
+     * Rating counts are cumulative: the "4" entry counts books rated 4 or higher.
+     */
+    public record Result(List<Long> bookIds, long total,
+                         Map<Integer, Integer> categoryCounts,
+                         Map<String, Integer> languageCounts,
+                         Map<Integer, Integer> ratingCounts,
+                         Map<PageBucket, Integer> pageCounts) {}
+
+    private record Entry(int[] categoryIds, String language, int rating, PageBucket pages) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IdBitmap all = new IdBitmap();
+    private final Map<Integer, IdBitmap> byCategory = new HashMap<>();
+    private final Map<String, IdBitmap> byLanguage = new HashMap<>();
+    // floor(average rating), 0..5
+    private final IdBitmap[] byRating = new IdBitmap[6];
+    private final Map<PageBucket, IdBitmap> byPages = new EnumMap<>(PageBucket.class);
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    public BookFacetIndex(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (int i = 0; i < byRating.length; i++) {
+            byRating[i] = new IdBitmap();
+        }
+        for (PageBucket bucket : PageBucket.values()) {
+            byPages.put(bucket, new IdBitmap());
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Long, Entry> loaded = load(null);
+        lock.writeLock().lock();
+        try {
+            loaded.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Facet index loaded: {} books, {} categories, {} languages",
+                loaded.size(), byCategory.size(), byLanguage.size());
+    }
+
+    /** Re-reads the books into the index, after the current transaction commits if there is one. */
+    public void refresh(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(bookIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(ids);
+                }
+            });
+        } else {
+            reload(ids);
+        }
+    }
+
+    public Result browse(Filter filter, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            IdBitmap categories = filter.categoryIds() == null ? null
+                    : union(filter.categoryIds().stream().map(byCategory::get).toList());
+            IdBitmap languages = filter.languages() == null ? null
+                    : union(filter.languages().stream().map(language -> byLanguage.get(normalizeLanguage(language))).toList());
+            IdBitmap rating = filter.minRating() == null ? null : atLeast(filter.minRating());
+            IdBitmap pages = filter.pages() == null ? null
+                    : union(filter.pages().stream().map(byPages::get).toList());
+
+            IdBitmap matches = intersect(all, categories, languages, rating, pages);
+
+            Map<Integer, Integer> categoryCounts = new HashMap<>();
+            IdBitmap withoutCategory = intersect(all, languages, rating, pages);
+            byCategory.forEach((id, bitmap) -> putIfPositive(categoryCounts, id, withoutCategory.andCardinality(bitmap)));
+
+            Map<String, Integer> languageCounts = new HashMap<>();
+            IdBitmap withoutLanguage = intersect(all, categories, rating, pages);
+            byLanguage.forEach((language, bitmap) ->
+                    putIfPositive(languageCounts, language, withoutLanguage.andCardinality(bitmap)));
+
+            Map<Integer, Integer> ratingCounts = new LinkedHashMap<>();
+            IdBitmap withoutRating = intersect(all, categories, languages, pages);
+            for (int min = 1; min < byRating.length; min++) {
+                ratingCounts.put(min, withoutRating.andCardinality(atLeast(min)));
+            }
+
+            Map<PageBucket, Integer> pageCounts = new EnumMap<>(PageBucket.class);
+            IdBitmap withoutPages = intersect(all, categories, languages, rating);
+            byPages.forEach((bucket, bitmap) -> pageCounts.put(bucket, withoutPages.andCardinality(bitmap)));
+
+            List<Long> bookIds = matches.slice(offset, limit).stream().map(Integer::longValue).toList();
+            return new Result(bookIds, matches.cardinality(), categoryCounts, languageCounts, ratingCounts, pageCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Category ids of an indexed book; empty for books the index does not hold. */
+    public int[] categoryIds(Long bookId) {
+        if (!fitsInt(bookId)) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(bookId.intValue());
+            return entry == null ? new int[0] : entry.categoryIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reload(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += RELOAD_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK, ids.size()));
+            Map<Long, Entry> loaded = load(chunk);
+            lock.writeLock().lock();
+            try {
+                for (Long id : chunk) {
+                    if (fitsInt(id)) {
+                        remove(id.intValue());
+                        Entry entry = loaded.get(id);
+                        if (entry != null) {
+                            put(id, entry);
+                        }
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // ids == null loads the whole catalog
+    private Map<Long, Entry> load(List<Long> ids) {
+        String where = ids == null ? "" : " WHERE id IN (:ids)";
+        Map<String, Object> params = ids == null ? Map.of() : Map.of("ids", ids);
+
+        Map<Long, List<Integer>> categoriesByBook = new HashMap<>();
+        jdbcTemplate.query("SELECT book_id, category_id FROM book_category"
+                        + (ids == null ? "" : " WHERE book_id IN (:ids)"), params,
+                rs -> {
+                    categoriesByBook.computeIfAbsent(rs.getLong("book_id"), id -> new ArrayList<>())
+                            .add(rs.getInt("category_id"));
+                });
+
+        Map<Long, Entry> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT id, language, average_rating, page_count FROM books" + where, params,
+                rs -> {
+                    long id = rs.getLong("id");
+                    int pageCount = rs.getInt("page_count");
+                    PageBucket pages = rs.wasNull() ? null : PageBucket.of(pageCount);
+                    loaded.put(id, new Entry(
+                            categoriesByBook.getOrDefault(id, List.of()).stream().mapToInt(Integer::intValue).toArray(),
+                            normalizeLanguage(rs.getString("language")),
+                            ratingBucket(rs.getDouble("average_rating")),
+                            pages));
+                });
+        return loaded;
+    }
+
+    private void put(Long bookId, Entry entry) {
+        if (!fitsInt(bookId)) {
+            log.warn("Book id {} is outside the facet index range and is not browsable", bookId);
+            return;
+        }
+        int id = bookId.intValue();
+        all.add(id);
+        for (int categoryId : entry.categoryIds()) {
+            byCategory.computeIfAbsent(categoryId, key -> new IdBitmap()).add(id);
+        }
+        if (entry.language() != null) {
+            byLanguage.computeIfAbsent(entry.language(), key -> new IdBitmap()).add(id);
+        }
+        byRating[entry.rating()].add(id);
+        if (entry.pages() != null) {
+            byPages.get(entry.pages()).add(id);
+        }
+        entries.put(id, entry);
+    }
+
+    private void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        all.remove(id);
+        for (int categoryId : entry.categoryIds()) {
+            removeFrom(byCategory, categoryId, id);
+        }
+        if (entry.language() != null) {
+            removeFrom(byLanguage, entry.language(), id);
+        }
+        byRating[entry.rating()].remove(id);
+        if (entry.pages() != null) {
+            byPages.get(entry.pages()).remove(id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, IdBitmap> bitmaps, K key, int id) {
+        IdBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private IdBitmap atLeast(int minRating) {
+        List<IdBitmap> buckets = new ArrayList<>();
+        for (int rating = Math.max(0, minRating); rating < byRating.length; rating++) {
+            buckets.add(byRating[rating]);
+        }
+        return union(buckets);
+    }
+
+    private static IdBitmap union(List<IdBitmap> bitmaps) {
+        return IdBitmap.orAll(bitmaps.stream().filter(bitmap -> bitmap != null).toList());
+    }
+
+    private static IdBitmap intersect(IdBitmap first, IdBitmap... others) {
+        IdBitmap result = first;
+        for (IdBitmap other : others) {
+            if (other != null) {
+                result = result.and(other);
+            }
+        }
+        return result;
+    }
+
+    private static <K> void putIfPositive(Map<K, Integer> counts, K key, int count) {
+        if (count > 0) {
+            counts.put(key, count);
+        }
+    }
+
+    private static int ratingBucket(double averageRating) {
+        return (int) Math.max(0, Math.min(5, Math.floor(averageRating)));
+    }
+
+    private static String normalizeLanguage(String language) {
+        return language == null || language.isBlank() ? null : language.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean fitsInt(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+}
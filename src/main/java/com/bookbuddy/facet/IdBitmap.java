@@ -0,0 +1,413 @@
+package com.bookbuddy.facet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative int ids in the Roaring layout. Ids are split into
+ * chunks of 2^16 by their high 16 bits. A chunk keeps a sorted char[] while it holds at
+ * most 4096 ids and switches to a 1024-word bitmap above that, so a niche category costs
+ * two bytes per book and a dense facet (a common language) one bit.
+ *
+ * Not thread-safe; {@link BookFacetIndex} guards its bitmaps with a read/write lock.
+ * {@link #and} and {@link #or} return new bitmaps and leave their inputs untouched.
+ */
+public final class IdBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final TreeMap<Integer, Container> chunks = new TreeMap<>();
+
+    public void add(int id) {
+        checkId(id);
+        int high = id >>> 16;
+        Container chunk = chunks.get(high);
+        chunks.put(high, chunk == null ? new ArrayContainer().add(low(id)) : chunk.add(low(id)));
+    }
+
+    public void remove(int id) {
+        checkId(id);
+        int high = id >>> 16;
+        Container chunk = chunks.get(high);
+        if (chunk == null) {
+            return;
+        }
+        chunk = chunk.remove(low(id));
+        if (chunk.cardinality() == 0) {
+            chunks.remove(high);
+        } else {
+            chunks.put(high, chunk);
+        }
+    }
+
+    public boolean contains(int id) {
+        Container chunk = id < 0 ? null : chunks.get(id >>> 16);
+        return chunk != null && chunk.contains(low(id));
+    }
+
+    public boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (Container chunk : chunks.values()) {
+            cardinality += chunk.cardinality();
+        }
+        return cardinality;
+    }
+
+    public IdBitmap and(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        for (Map.Entry<Integer, Container> entry : chunks.entrySet()) {
+            Container theirs = other.chunks.get(entry.getKey());
+            if (theirs != null) {
+                Container both = entry.getValue().and(theirs);
+                if (both.cardinality() > 0) {
+                    result.chunks.put(entry.getKey(), both);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Size of the intersection, without building it. */
+    public int andCardinality(IdBitmap other) {
+        int cardinality = 0;
+        for (Map.Entry<Integer, Container> entry : chunks.entrySet()) {
+            Container theirs = other.chunks.get(entry.getKey());
+            if (theirs != null) {
+                cardinality += entry.getValue().andCardinality(theirs);
+            }
+        }
+        return cardinality;
+    }
+
+    public IdBitmap or(IdBitmap other) {
+        IdBitmap result = copy();
+        for (Map.Entry<Integer, Container> entry : other.chunks.entrySet()) {
+            Container ours = result.chunks.get(entry.getKey());
+            result.chunks.put(entry.getKey(), ours == null ? entry.getValue().copy() : ours.or(entry.getValue()));
+        }
+        return result;
+    }
+
+    public static IdBitmap orAll(Collection<IdBitmap> bitmaps) {
+        IdBitmap result = new IdBitmap();
+        for (IdBitmap bitmap : bitmaps) {
+            result = result.or(bitmap);
+        }
+        return result;
+    }
+
+    public IdBitmap copy() {
+        IdBitmap copy = new IdBitmap();
+        chunks.forEach((high, chunk) -> copy.chunks.put(high, chunk.copy()));
+        return copy;
+    }
+
+    /** Ids in ascending order. */
+    public void forEach(IntConsumer consumer) {
+        chunks.forEach((high, chunk) -> chunk.forEach(high << 16, consumer));
+    }
+
+    /** Up to {@code limit} ids in ascending order, skipping the first {@code offset}. */
+    public List<Integer> slice(long offset, int limit) {
+        List<Integer> ids = new ArrayList<>(Math.max(0, Math.min(limit, cardinality())));
+        long skip = offset;
+        for (Map.Entry<Integer, Container> entry : chunks.entrySet()) {
+            int chunkSize = entry.getValue().cardinality();
+            if (skip >= chunkSize) {
+                skip -= chunkSize;
+                continue;
+            }
+            long[] toSkip = {skip};
+            entry.getValue().forEach(entry.getKey() << 16, id -> {
+                if (toSkip[0] > 0) {
+                    toSkip[0]--;
+                } else if (ids.size() < limit) {
+                    ids.add(id);
+                }
+            });
+            skip = 0;
+            if (ids.size() >= limit) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    private static char low(int id) {
+        return (char) (id & 0xFFFF);
+    }
+
+    private static void checkId(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id: " + id);
+        }
+    }
+
+    private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int base, IntConsumer consumer);
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            int insertAt = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, values.length * 2)));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(size, other.cardinality())];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.or(this);
+            }
+            ArrayContainer theirs = (ArrayContainer) other;
+            char[] merged = new char[size + theirs.size];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < size || j < theirs.size) {
+                char next;
+                if (j == theirs.size || (i < size && values[i] < theirs.values[j])) {
+                    next = values[i++];
+                } else if (i == size || theirs.values[j] < values[i]) {
+                    next = theirs.values[j++];
+                } else {
+                    next = values[i++];
+                    j++;
+                }
+                merged[count++] = next;
+            }
+            ArrayContainer result = new ArrayContainer(merged, count);
+            return count > ARRAY_MAX ? result.toBitmap() : result;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) == 0) {
+                words[value >>> 6] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) != 0) {
+                words[value >>> 6] &= ~mask;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.and(this);
+            }
+            long[] theirs = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & theirs[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitmapContainer bitmap = new BitmapContainer(result, count);
+            return count <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.andCardinality(this);
+            }
+            long[] theirs = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                count += Long.bitCount(words[i] & theirs[i]);
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer array) {
+                array.forEach(0, value -> result.add((char) value));
+                return result;
+            }
+            long[] theirs = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result.words[i] |= theirs[i];
+                count += Long.bitCount(result.words[i]);
+            }
+            result.cardinality = count;
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int[] count = {0};
+            forEach(0, value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
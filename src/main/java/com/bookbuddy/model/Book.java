@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -20,7 +21,8 @@ import java.util.List;
 public class Book {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false)
@@ -39,15 +41,20 @@ public class Book {
     
     private String publishedDate;
     
+    // Parsed from publishedDate on every write; backs the year filters and sort
+    private Integer publishedYear;
+    
     private Integer pageCount;
     
     private String coverImageUrl;
     
+    // Ids into the categories table; names come from CategoryDictionary
     @ElementCollection
-    @CollectionTable(name = "book_categories", joinColumns = @JoinColumn(name = "book_id"))
-    @Column(name = "category")
+    @CollectionTable(name = "book_category", joinColumns = @JoinColumn(name = "book_id"))
+    @OrderColumn(name = "sort_order")
+    @Column(name = "category_id")
     @Builder.Default
-    private List<String> categories = new ArrayList<>();
+    private List<Integer> categoryIds = new ArrayList<>();
     
     private String language;
     
@@ -68,6 +75,14 @@ public class Book {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Optimistic lock; also bumped by catalog ingest and read by the ETag queries
+    @Version
+    private Long version;
+    
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<UserBook> userBooks = new ArrayList<>();
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class Favourite {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favourites_seq")
+    @SequenceGenerator(name = "favourites_seq", sequenceName = "favourites_seq", allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
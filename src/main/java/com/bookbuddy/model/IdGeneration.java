@@ -0,0 +1,15 @@
+package com.bookbuddy.model;
+
+/**
+ * Id generation shared by all entities. Each table draws its ids from its own sequence
+ * through Hibernate's pooled optimizer: one sequence call hands out a block of
+ * {@link #ALLOCATION_SIZE} ids, so inserts no longer need a round trip per row to learn
+ * their key and can be grouped into JDBC batches.
+ */
+public final class IdGeneration {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGeneration() {
+    }
+}
@@ -0,0 +1,390 @@
+package com.bookbuddy.recommendation;
+
+import com.bookbuddy.config.RecommendationConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory item-to-item co-occurrence matrix: for each book, how many readers also
+ * have each other book in their library (on a shelf or favourited). Similar books are
+ * a book's neighbours ranked by cosine similarity,
+ * {@code shared / sqrt(readers(a) * readers(b))}, so a book everyone owns does not top
+ * every list. Recommendations sum those scores over a user's own books.
+ *
+ * Shelf and favourite writes update the matrix after their transaction commits. Each
+ * row keeps at most {@code 2 * neighbours} entries and is pruned back to the top
+ * {@code neighbours} when it overflows, which bounds memory and read latency. A pruned
+ * pair restarts from zero if it comes back, so counts drift low; the periodic full
+ * rebuild, which computes rows in parallel with fork/join, makes them exact again.
+ */
+@Component
+@Slf4j
+public class CoOccurrenceIndex implements SmartInitializingSingleton {
+
+    /** Why a book is in a user's library. A book stays in it while either applies. */
+    public enum Signal {
+        SHELF(1),
+        FAVOURITE(2);
+
+        private final int flag;
+
+        Signal(int flag) {
+            this.flag = flag;
+        }
+    }
+
+    private record Event(long userId, int bookId, Signal signal, boolean added) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final RecommendationConfig config;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // userId -> bookId -> Signal flags
+    private Map<Long, IntIntHashMap> baskets = new HashMap<>();
+    // bookId -> libraries holding it
+    private IntIntHashMap readers = new IntIntHashMap();
+    // bookId -> neighbour -> libraries holding both
+    private Map<Integer, IntIntHashMap> rows = new HashMap<>();
+
+    // Writes committed while a rebuild reads its snapshot; replayed onto the new matrix
+    private boolean rebuilding;
+    private final List<Event> missedByRebuild = new ArrayList<>();
+
+    public CoOccurrenceIndex(NamedParameterJdbcTemplate jdbcTemplate, RecommendationConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /** Reloads every library and recomputes the matrix; readers keep the old one meanwhile. */
+    @Scheduled(fixedDelayString = "${app.recommendations.rebuild-interval:6h}",
+            initialDelayString = "${app.recommendations.rebuild-interval:6h}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            missedByRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            rebuild(loadBaskets());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                missedByRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void added(Long userId, Long bookId, Signal signal) {
+        afterCommit(userId, bookId, signal, true);
+    }
+
+    public void removed(Long userId, Long bookId, Signal signal) {
+        afterCommit(userId, bookId, signal, false);
+    }
+
+    /** Up to {@code limit} book ids most similar to the book, best first. */
+    public List<Long> similar(Long bookId, int limit) {
+        if (!fitsInt(bookId)) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = new HashMap<>();
+            addNeighbourScores(bookId.intValue(), null, scores);
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Up to {@code limit} book ids for the user, best first, leaving out their own books. */
+    public List<Long> recommend(Long userId, int limit) {
+        lock.readLock().lock();
+        try {
+            IntIntHashMap basket = baskets.get(userId);
+            if (basket == null) {
+                return List.of();
+            }
+            int[] seeds = basket.keys();
+            Map<Integer, Double> scores = new HashMap<>();
+            for (int i = 0; i < Math.min(seeds.length, config.getMaxSeedBooks()); i++) {
+                addNeighbourScores(seeds[i], basket, scores);
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Books with at least one neighbour. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Package-private for tests: builds the matrix from the given libraries
+    void rebuild(Map<Long, IntIntHashMap> loaded) {
+        long started = System.currentTimeMillis();
+
+        IntIntHashMap newReaders = new IntIntHashMap(loaded.size());
+        List<int[]> libraries = new ArrayList<>(loaded.size());
+        for (IntIntHashMap basket : loaded.values()) {
+            int[] books = basket.keys();
+            libraries.add(books);
+            for (int book : books) {
+                newReaders.addTo(book, 1);
+            }
+        }
+
+        // Inverted index: the libraries (by position) holding each book
+        int[] bookIds = newReaders.keys();
+        IntIntHashMap positionOf = new IntIntHashMap(bookIds.length);
+        int[][] librariesByBook = new int[bookIds.length][];
+        for (int i = 0; i < bookIds.length; i++) {
+            positionOf.put(bookIds[i], i);
+            librariesByBook[i] = new int[newReaders.get(bookIds[i])];
+        }
+        int[] filled = new int[bookIds.length];
+        for (int library = 0; library < libraries.size(); library++) {
+            for (int book : libraries.get(library)) {
+                int position = positionOf.get(book);
+                librariesByBook[position][filled[position]++] = library;
+            }
+        }
+
+        IntIntHashMap[] newRows = new IntIntHashMap[bookIds.length];
+        int parallelism = config.getRebuildParallelism() > 0
+                ? config.getRebuildParallelism() : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RowTask(bookIds, librariesByBook, libraries, newRows, config.getNeighbours(), 0, bookIds.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<Integer, IntIntHashMap> rowsByBook = new HashMap<>();
+        for (int i = 0; i < bookIds.length; i++) {
+            if (!newRows[i].isEmpty()) {
+                rowsByBook.put(bookIds[i], newRows[i]);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            baskets = loaded;
+            readers = newReaders;
+            rows = rowsByBook;
+            rebuilding = false;
+            missedByRebuild.forEach(this::apply);
+            log.info("Co-occurrence index rebuilt: {} libraries, {} books with neighbours in {} ms ({} workers, {} writes replayed)",
+                    loaded.size(), rowsByBook.size(), System.currentTimeMillis() - started, parallelism, missedByRebuild.size());
+            missedByRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Computes the rows of a range of books; each leaf writes only its own slots of {@code rows}. */
+    private static final class RowTask extends RecursiveAction {
+
+        private static final int LEAF_BOOKS = 64;
+
+        private final int[] bookIds;
+        private final int[][] librariesByBook;
+        private final List<int[]> libraries;
+        private final IntIntHashMap[] rows;
+        private final int neighbours;
+        private final int from;
+        private final int to;
+
+        RowTask(int[] bookIds, int[][] librariesByBook, List<int[]> libraries, IntIntHashMap[] rows,
+                int neighbours, int from, int to) {
+            this.bookIds = bookIds;
+            this.librariesByBook = librariesByBook;
+            this.libraries = libraries;
+            this.rows = rows;
+            this.neighbours = neighbours;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_BOOKS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(bookIds, librariesByBook, libraries, rows, neighbours, from, middle),
+                        new RowTask(bookIds, librariesByBook, libraries, rows, neighbours, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                int book = bookIds[i];
+                IntIntHashMap row = new IntIntHashMap();
+                for (int library : librariesByBook[i]) {
+                    for (int other : libraries.get(library)) {
+                        if (other != book) {
+                            row.addTo(other, 1);
+                        }
+                    }
+                }
+                row.retainTop(neighbours);
+                rows[i] = row;
+            }
+        }
+    }
+
+    private Map<Long, IntIntHashMap> loadBaskets() {
+        Map<Long, IntIntHashMap> loaded = new HashMap<>();
+        for (Signal signal : Signal.values()) {
+            String table = signal == Signal.SHELF ? "user_books" : "favourites";
+            jdbcTemplate.query("SELECT user_id, book_id FROM " + table, Map.of(), rs -> {
+                long bookId = rs.getLong("book_id");
+                if (fitsInt(bookId)) {
+                    IntIntHashMap basket = loaded.computeIfAbsent(rs.getLong("user_id"), id -> new IntIntHashMap());
+                    basket.put((int) bookId, basket.get((int) bookId) | signal.flag);
+                }
+            });
+        }
+        return loaded;
+    }
+
+    private void afterCommit(Long userId, Long bookId, Signal signal, boolean added) {
+        if (!fitsInt(bookId)) {
+            return;
+        }
+        Event event = new Event(userId, bookId.intValue(), signal, added);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(event);
+                }
+            });
+        } else {
+            record(event);
+        }
+    }
+
+    private void record(Event event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (rebuilding) {
+                missedByRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Idempotent, so replaying a write the rebuild already saw changes nothing
+    private void apply(Event event) {
+        IntIntHashMap basket = baskets.computeIfAbsent(event.userId(), id -> new IntIntHashMap());
+        int book = event.bookId();
+        int before = basket.get(book);
+        int after = event.added() ? before | event.signal().flag : before & ~event.signal().flag;
+        if (after == before) {
+            return;
+        }
+        if (after != 0) {
+            basket.put(book, after);
+        } else {
+            basket.remove(book);
+        }
+        if (before == 0) {
+            readers.addTo(book, 1);
+            basket.forEach((other, flags) -> {
+                if (other != book) {
+                    link(book, other, 1);
+                    link(other, book, 1);
+                }
+            });
+        } else if (after == 0) {
+            readers.addTo(book, -1);
+            basket.forEach((other, flags) -> {
+                link(book, other, -1);
+                link(other, book, -1);
+            });
+            if (basket.isEmpty()) {
+                baskets.remove(event.userId());
+            }
+        }
+    }
+
+    private void link(int book, int other, int delta) {
+        IntIntHashMap row = rows.get(book);
+        if (row == null) {
+            if (delta < 0) {
+                return;
+            }
+            row = new IntIntHashMap();
+            rows.put(book, row);
+        }
+        // A pruned pair is gone: there is nothing to decrement
+        if (delta < 0 && !row.containsKey(other)) {
+            return;
+        }
+        row.addTo(other, delta);
+        if (row.size() > 2 * config.getNeighbours()) {
+            row.retainTop(config.getNeighbours());
+        }
+        if (row.isEmpty()) {
+            rows.remove(book);
+        }
+    }
+
+    private void addNeighbourScores(int book, IntIntHashMap exclude, Map<Integer, Double> scores) {
+        IntIntHashMap row = rows.get(book);
+        if (row == null) {
+            return;
+        }
+        double bookReaders = Math.max(1, readers.get(book));
+        row.forEach((other, shared) -> {
+            if (shared >= config.getMinCoOccurrence() && (exclude == null || !exclude.containsKey(other))) {
+                double score = shared / Math.sqrt(bookReaders * Math.max(1, readers.get(other)));
+                scores.merge(other, score, Double::sum);
+            }
+        });
+    }
+
+    private static List<Long> top(Map<Integer, Double> scores, int limit) {
+        List<Map.Entry<Integer, Double>> entries = new ArrayList<>(scores.entrySet());
+        // Highest score first; equal scores by id, so results are stable
+        entries.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        return entries.stream()
+                .limit(limit)
+                .map(entry -> entry.getKey().longValue())
+                .toList();
+    }
+
+    private static boolean fitsInt(Long id) {
+        return id != null && id > 0 && id <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,355 @@
+package com.bookbuddy.recommendation;
+
+import com.bookbuddy.config.RecommendationConfig;
+import com.bookbuddy.recommendation.ContentVectorizer.Document;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "More like this" over book content, for books no reader has shelved yet. Every book
+ * gets a normalized TF-IDF vector of its description, categories and author (see
+ * {@link ContentVectorizer}), stored off-heap in a {@link VectorStore}. A query is an
+ * exact scan: the book's vector is scored against every other one with a
+ * {@link VectorScorer}, the Vector API kernel when the JVM has the incubator module.
+ *
+ * BookService and catalog ingest call {@link #refresh(Collection)} for the books they
+ * write; those are re-read and re-vectorized after the transaction commits, against
+ * the current document frequencies. The scheduled full rebuild recounts the
+ * frequencies, so weights of words that became common are corrected there. It reads
+ * the catalog twice in id-ordered pages, counting frequencies first and vectorizing
+ * second, so only one page of descriptions is on the heap at a time. It fills a new
+ * store while queries keep using the old one, so it needs direct memory for both:
+ * about 2 GB at a million books and 256 dimensions (see the Dockerfile's JAVA_OPTS).
+ * The first build runs in the background; until it finishes, nothing is similar.
+ */
+@Component
+@Slf4j
+public class ContentIndex implements SmartInitializingSingleton {
+
+    private static final int RELOAD_CHUNK = 1_000;
+    private static final int REBUILD_PAGE = 1_000;
+
+    /** Up to {@code limit} books with ids above {@code afterId}, in id order. */
+    @FunctionalInterface
+    interface DocumentPages {
+        Map<Long, Document> after(long afterId, int limit);
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final RecommendationConfig.Content config;
+    private final VectorScorer scorer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ContentVectorizer vectorizer;
+    private VectorStore store;
+    // bookId -> row + 1 (a missing key reads as 0)
+    private IntIntHashMap rowOf = new IntIntHashMap();
+    // row -> bookId, 0 once the book is gone
+    private int[] bookIdOf = new int[0];
+
+    // Books refreshed while a rebuild reads its snapshot; re-read into the new store
+    private boolean rebuilding;
+    private final Set<Long> missedByRebuild = new LinkedHashSet<>();
+
+    public ContentIndex(NamedParameterJdbcTemplate jdbcTemplate, RecommendationConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config.getContent();
+        this.scorer = VectorScorer.select(this.config.isVectorApi());
+        this.vectorizer = new ContentVectorizer(this.config.getDimensions());
+        this.store = new VectorStore(this.config.getDimensions());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Off the startup thread: a large catalog takes a while to vectorize
+        Thread.ofPlatform().name("content-index-rebuild").daemon().start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Initial content index build failed: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    /** Reloads the catalog, recounts document frequencies and re-vectorizes every book. */
+    @Scheduled(fixedDelayString = "${app.recommendations.rebuild-interval:6h}",
+            initialDelayString = "${app.recommendations.rebuild-interval:6h}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            missedByRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            rebuild(this::loadPage);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                missedByRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** Re-reads the books into the index, after the current transaction commits if there is one. */
+    public void refresh(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(bookIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(ids);
+                }
+            });
+        } else {
+            reload(ids);
+        }
+    }
+
+    /** Up to {@code limit} book ids whose content is closest to the book's, best first. */
+    public List<Long> similar(Long bookId, int limit) {
+        if (!fitsInt(bookId)) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int row = rowOf.get(bookId.intValue()) - 1;
+            if (row < 0) {
+                return List.of();
+            }
+            float[] query = new float[store.dimensions()];
+            store.get(row, query);
+            // Min-heap of (score bits, inverted id): the weakest kept candidate on top
+            PriorityQueue<Long> best = new PriorityQueue<>(limit + 1);
+            float minScore = (float) config.getMinScore();
+            store.scan(query, scorer, (candidate, score) -> {
+                int candidateId = bookIdOf[candidate];
+                if (candidate == row || candidateId == 0 || score <= minScore) {
+                    return;
+                }
+                long packed = ((long) Float.floatToIntBits(score) << 32) | (~candidateId & 0xFFFFFFFFL);
+                if (best.size() < limit) {
+                    best.add(packed);
+                } else if (packed > best.peek()) {
+                    best.poll();
+                    best.add(packed);
+                }
+            });
+            Long[] ranked = best.toArray(Long[]::new);
+            Arrays.sort(ranked, (a, b) -> Long.compare(b, a));
+            return Arrays.stream(ranked).map(packed -> (long) ~packed.intValue()).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Books with a vector. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String scorerName() {
+        return scorer.name();
+    }
+
+    // Package-private for tests: builds the index from the given documents
+    void rebuild(Map<Long, Document> documents) {
+        TreeMap<Long, Document> sorted = new TreeMap<>(documents);
+        rebuild((afterId, limit) -> {
+            Map<Long, Document> page = new LinkedHashMap<>();
+            for (Map.Entry<Long, Document> entry : sorted.tailMap(afterId, false).entrySet()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.put(entry.getKey(), entry.getValue());
+            }
+            return page;
+        });
+    }
+
+    private void rebuild(DocumentPages pages) {
+        long started = System.currentTimeMillis();
+        ContentVectorizer newVectorizer = new ContentVectorizer(config.getDimensions());
+        int books = 0;
+        long lastCountedId = 0;
+        for (Map<Long, Document> page = pages.after(0, REBUILD_PAGE); !page.isEmpty();
+                page = pages.after(lastCountedId, REBUILD_PAGE)) {
+            for (Map.Entry<Long, Document> entry : page.entrySet()) {
+                newVectorizer.count(entry.getValue());
+                lastCountedId = entry.getKey();
+                books++;
+            }
+        }
+
+        // Both stores are live until the swap below
+        long peakBytes = 2 * VectorStore.bytesFor(books, config.getDimensions());
+        long maxDirectBytes = maxDirectMemory();
+        if (peakBytes > maxDirectBytes) {
+            log.warn("Content index rebuild needs about {} MB of direct memory, the JVM allows {} MB;"
+                    + " raise -XX:MaxDirectMemorySize", peakBytes >> 20, maxDirectBytes >> 20);
+        }
+
+        VectorStore newStore = new VectorStore(config.getDimensions());
+        IntIntHashMap newRowOf = new IntIntHashMap(books);
+        int[] newBookIdOf = new int[Math.max(16, books)];
+        long lastVectorizedId = 0;
+        for (Map<Long, Document> page = pages.after(0, REBUILD_PAGE); !page.isEmpty();
+                page = pages.after(lastVectorizedId, REBUILD_PAGE)) {
+            for (Map.Entry<Long, Document> entry : page.entrySet()) {
+                lastVectorizedId = entry.getKey();
+                if (lastVectorizedId > lastCountedId) {
+                    // Added since the first pass
+                    newVectorizer.count(entry.getValue());
+                }
+                if (fitsInt(entry.getKey())) {
+                    int row = newStore.add(newVectorizer.vectorize(entry.getValue()));
+                    newRowOf.put(entry.getKey().intValue(), row + 1);
+                    if (row >= newBookIdOf.length) {
+                        newBookIdOf = Arrays.copyOf(newBookIdOf, newBookIdOf.length * 2);
+                    }
+                    newBookIdOf[row] = entry.getKey().intValue();
+                }
+            }
+        }
+
+        List<Long> missed;
+        lock.writeLock().lock();
+        try {
+            vectorizer = newVectorizer;
+            store = newStore;
+            rowOf = newRowOf;
+            bookIdOf = newBookIdOf;
+            rebuilding = false;
+            missed = new ArrayList<>(missedByRebuild);
+            missedByRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reload(missed);
+        log.info("Content index rebuilt: {} books, {} dimensions, {} scoring, {} ms ({} writes replayed)",
+                newRowOf.size(), config.getDimensions(), scorer.name(), System.currentTimeMillis() - started, missed.size());
+    }
+
+    // -XX:MaxDirectMemorySize, which defaults to the maximum heap size
+    private static long maxDirectMemory() {
+        try {
+            long configured = Long.parseLong(ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+                    .getVMOption("MaxDirectMemorySize").getValue());
+            return configured > 0 ? configured : Runtime.getRuntime().maxMemory();
+        } catch (RuntimeException e) {
+            return Runtime.getRuntime().maxMemory();
+        }
+    }
+
+    // Package-private for tests: applies documents as the after-commit refresh would
+    void put(Map<Long, Document> documents, Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                if (!fitsInt(id)) {
+                    continue;
+                }
+                Document document = documents.get(id);
+                int row = rowOf.get(id.intValue()) - 1;
+                if (document == null) {
+                    if (row >= 0) {
+                        rowOf.remove(id.intValue());
+                        bookIdOf[row] = 0;
+                    }
+                    continue;
+                }
+                if (row < 0) {
+                    // New book: it counts towards the frequencies; an edited one was counted already
+                    vectorizer.count(document);
+                    row = store.add(vectorizer.vectorize(document));
+                    rowOf.put(id.intValue(), row + 1);
+                    if (row >= bookIdOf.length) {
+                        bookIdOf = Arrays.copyOf(bookIdOf, Math.max(16, bookIdOf.length * 2));
+                    }
+                    bookIdOf[row] = id.intValue();
+                } else {
+                    store.set(row, vectorizer.vectorize(document));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reload(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += RELOAD_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK, ids.size()));
+            // Noted before reading: the rebuild's snapshot may predate this read
+            lock.writeLock().lock();
+            try {
+                if (rebuilding) {
+                    missedByRebuild.addAll(chunk);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            put(load(chunk), chunk);
+        }
+    }
+
+    private Map<Long, Document> load(List<Long> ids) {
+        return load("SELECT id, author, description FROM books WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+
+    private Map<Long, Document> loadPage(long afterId, int limit) {
+        return load("SELECT id, author, description FROM books WHERE id > :afterId ORDER BY id LIMIT :limit",
+                Map.of("afterId", afterId, "limit", limit));
+    }
+
+    // Books in the order the query returns them, then their categories
+    private Map<Long, Document> load(String booksSql, Map<String, Object> params) {
+        Map<Long, Document> loaded = new LinkedHashMap<>();
+        jdbcTemplate.query(booksSql, params, rs -> {
+            loaded.put(rs.getLong("id"),
+                    new Document(rs.getString("author"), rs.getString("description"), new ArrayList<>()));
+        });
+        if (loaded.isEmpty()) {
+            return loaded;
+        }
+        jdbcTemplate.query("SELECT book_id, category_id FROM book_category WHERE book_id IN (:ids)",
+                Map.of("ids", loaded.keySet()), rs -> {
+                    loaded.get(rs.getLong("book_id")).categoryIds().add(rs.getInt("category_id"));
+                });
+        return loaded;
+    }
+
+    private static boolean fitsInt(Long id) {
+        return id != null && id > 0 && id <= Integer.MAX_VALUE;
+    }
+}
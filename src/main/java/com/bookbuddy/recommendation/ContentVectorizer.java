@@ -0,0 +1,104 @@
+package com.bookbuddy.recommendation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a book's description, categories and author into a fixed-width TF-IDF vector
+ * using the hashing trick: each term is hashed to one of {@code dimensions} slots with a
+ * hash-derived sign, so colliding terms tend to cancel rather than pile up, and no
+ * vocabulary has to be kept. Document frequencies are counted in a hashed table as
+ * well. Categories and the author are single terms weighted above description words,
+ * since sharing them says more about a book than sharing a word does.
+ *
+ * Not thread-safe; {@link ContentIndex} guards it.
+ */
+final class ContentVectorizer {
+
+    static final float CATEGORY_WEIGHT = 3f;
+    static final float AUTHOR_WEIGHT = 2f;
+
+    private static final int FREQUENCY_SLOTS = 1 << 20;
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "her", "was", "one",
+            "our", "out", "his", "has", "have", "had", "him", "who", "its", "into", "than", "then",
+            "them", "they", "this", "that", "with", "from", "what", "when", "where", "which", "will",
+            "would", "there", "their", "about", "been", "were", "more", "also", "book", "books");
+
+    /** The text of one book that the vector is built from. */
+    record Document(String author, String description, List<Integer> categoryIds) {}
+
+    private final int dimensions;
+    private final int[] documentFrequencies = new int[FREQUENCY_SLOTS];
+    private int documents;
+
+    ContentVectorizer(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    /** Counts the document's terms towards their document frequencies. */
+    void count(Document document) {
+        terms(document).keySet().forEach(hash -> documentFrequencies[hash & (FREQUENCY_SLOTS - 1)]++);
+        documents++;
+    }
+
+    /** The L2-normalized vector; all zeros when the document has no terms. */
+    float[] vectorize(Document document) {
+        float[] vector = new float[dimensions];
+        terms(document).forEach((hash, weight) -> {
+            int df = documentFrequencies[hash & (FREQUENCY_SLOTS - 1)];
+            double idf = Math.log((1.0 + documents) / (1.0 + df)) + 1.0;
+            int slot = Math.floorMod(hash >>> 1, dimensions);
+            float sign = (hash & 1) == 0 ? 1f : -1f;
+            vector[slot] += sign * (float) (weight * idf);
+        });
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    // term hash -> weighted term frequency; words count log-scaled so one repeated word cannot dominate
+    private static Map<Integer, Float> terms(Document document) {
+        Map<Integer, Float> counts = new HashMap<>();
+        if (document.description() != null) {
+            for (String word : NON_WORD.split(document.description().toLowerCase(Locale.ROOT))) {
+                if (word.length() >= MIN_WORD_LENGTH && !STOP_WORDS.contains(word)) {
+                    counts.merge(hash("w:" + word), 1f, Float::sum);
+                }
+            }
+            counts.replaceAll((hash, count) -> (float) (1 + Math.log(count)));
+        }
+        for (Integer categoryId : document.categoryIds()) {
+            counts.put(hash("c:" + categoryId), CATEGORY_WEIGHT);
+        }
+        if (document.author() != null && !document.author().isBlank()) {
+            counts.put(hash("a:" + document.author().trim().toLowerCase(Locale.ROOT)), AUTHOR_WEIGHT);
+        }
+        return counts;
+    }
+
+    // String.hashCode spread with the murmur3 finalizer, so low bits are usable as slots
+    private static int hash(String term) {
+        int h = term.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
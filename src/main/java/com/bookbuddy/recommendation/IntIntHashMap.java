@@ -0,0 +1,204 @@
+package com.bookbuddy.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int to int map with linear probing. Keys and values live in two
+ * parallel int arrays, so an entry costs 8 bytes (at the load factor, about 13) instead
+ * of a HashMap node with two boxed Integers. Key 0 marks a free slot and is stored
+ * beside the table. Removal shifts the following entries back, so there are no
+ * tombstones and lookups never slow down after many removals.
+ *
+ * A missing key reads as 0, which suits the counters kept here. Not thread-safe;
+ * {@link CoOccurrenceIndex} guards its maps with a read/write lock.
+ */
+public final class IntIntHashMap {
+
+    private static final double LOAD_FACTOR = 0.6;
+
+    /** Receives each entry of {@link #forEach}. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int assigned;
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntHashMap() {
+        this(4);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int get(int key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : 0;
+        }
+        for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(int key, int value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = slot(key);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++assigned > resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /** Adds delta to the key's value and returns the result; an entry reaching 0 is removed. */
+    public int addTo(int key, int delta) {
+        int value = get(key) + delta;
+        if (value == 0) {
+            remove(key);
+        } else {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void remove(int key) {
+        if (key == 0) {
+            hasZeroKey = false;
+            zeroValue = 0;
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == 0) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Backward shift: move later entries of the probe run into the gap when their
+        // home slot does not lie between the gap and their current slot
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        assigned--;
+    }
+
+    public int size() {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public int[] keys() {
+        int[] result = new int[size()];
+        int[] count = {0};
+        forEach((key, value) -> result[count[0]++] = key);
+        return result;
+    }
+
+    /** Keeps the {@code limit} entries with the highest values; ties keep the smaller key. */
+    public void retainTop(int limit) {
+        if (size() <= limit) {
+            return;
+        }
+        // value in the high half, inverted key in the low half: one sort orders both
+        long[] packed = new long[size()];
+        int[] count = {0};
+        forEach((key, value) -> packed[count[0]++] = ((long) value << 32) | (~key & 0xFFFFFFFFL));
+        Arrays.sort(packed);
+        allocate(capacityFor(limit));
+        hasZeroKey = false;
+        zeroValue = 0;
+        for (int i = packed.length - 1; i >= packed.length - limit; i--) {
+            put(~(int) packed[i], (int) (packed[i] >> 32));
+        }
+    }
+
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                assigned++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        assigned = 0;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR) + 1;
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookbuddy.recommendation;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Dot product on the JDK Vector API: one fused multiply-add per lane group at the
+ * widest species the CPU supports (8 floats with AVX2, 16 with AVX-512). Only loaded
+ * through {@link VectorScorer#select}, after the incubator module was found.
+ */
+final class SimdVectorScorer implements VectorScorer {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] a, int aFrom, float[] b, int bFrom, int length) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, a, aFrom + i);
+            FloatVector y = FloatVector.fromArray(SPECIES, b, bFrom + i);
+            sum = x.fma(y, sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[aFrom + i] * b[bFrom + i];
+        }
+        return result;
+    }
+
+    @Override
+    public String name() {
+        return "vector-api (" + SPECIES.length() + " lanes)";
+    }
+}
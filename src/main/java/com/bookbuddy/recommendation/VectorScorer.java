@@ -0,0 +1,28 @@
+package com.bookbuddy.recommendation;
+
+/**
+ * Dot product kernel used by {@link ContentIndex}. Vectors are L2-normalized, so the
+ * dot product is their cosine similarity.
+ */
+public interface VectorScorer {
+
+    /** Sum of a[aFrom + i] * b[bFrom + i] for i in [0, length). */
+    float dot(float[] a, int aFrom, float[] b, int bFrom, int length);
+
+    String name();
+
+    /**
+     * The SIMD kernel when it is allowed and the JVM was started with
+     * {@code --add-modules jdk.incubator.vector}, otherwise the scalar one.
+     */
+    static VectorScorer select(boolean useVectorApi) {
+        if (useVectorApi && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new SimdVectorScorer();
+            } catch (LinkageError e) {
+                // module present but not readable from here; the scalar kernel gives the same scores
+            }
+        }
+        return new ScalarVectorScorer();
+    }
+}
@@ -0,0 +1,78 @@
+package com.bookbuddy.recommendation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-width float vectors in direct (off-heap) buffers, one buffer per chunk of rows.
+ * A million 256-dimension vectors take 1 GB; kept off the heap they add nothing to GC
+ * marking or copying. Scans copy a tile of rows at a time into a heap array, a bulk
+ * memory copy, and score it there. Not thread-safe; {@link ContentIndex} guards it.
+ */
+final class VectorStore {
+
+    static final int ROWS_PER_CHUNK = 16_384;
+    private static final int TILE_ROWS = 256;
+
+    /** Receives each row's score from {@link #scan}. */
+    @FunctionalInterface
+    interface RowScoreConsumer {
+        void accept(int row, float score);
+    }
+
+    private final int dimensions;
+    private final List<FloatBuffer> chunks = new ArrayList<>();
+    private int rows;
+
+    VectorStore(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    /** Direct memory taken by {@code rows} vectors, whole chunks included. */
+    static long bytesFor(int rows, int dimensions) {
+        long chunks = (rows + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+        return chunks * ROWS_PER_CHUNK * dimensions * Float.BYTES;
+    }
+
+    /** Appends a vector and returns its row. */
+    int add(float[] vector) {
+        if (rows == chunks.size() * ROWS_PER_CHUNK) {
+            chunks.add(ByteBuffer.allocateDirect(ROWS_PER_CHUNK * dimensions * Float.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer());
+        }
+        set(rows, vector);
+        return rows++;
+    }
+
+    void set(int row, float[] vector) {
+        chunks.get(row / ROWS_PER_CHUNK).put((row % ROWS_PER_CHUNK) * dimensions, vector, 0, dimensions);
+    }
+
+    void get(int row, float[] target) {
+        chunks.get(row / ROWS_PER_CHUNK).get((row % ROWS_PER_CHUNK) * dimensions, target, 0, dimensions);
+    }
+
+    /** Scores every row against the query vector. */
+    void scan(float[] query, VectorScorer scorer, RowScoreConsumer consumer) {
+        float[] tile = new float[TILE_ROWS * dimensions];
+        for (int first = 0; first < rows; first += TILE_ROWS) {
+            int count = Math.min(TILE_ROWS, Math.min(rows - first, ROWS_PER_CHUNK - first % ROWS_PER_CHUNK));
+            chunks.get(first / ROWS_PER_CHUNK).get((first % ROWS_PER_CHUNK) * dimensions, tile, 0, count * dimensions);
+            for (int i = 0; i < count; i++) {
+                consumer.accept(first + i, scorer.dot(query, 0, tile, i * dimensions, dimensions));
+            }
+        }
+    }
+}
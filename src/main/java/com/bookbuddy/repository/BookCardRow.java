@@ -0,0 +1,21 @@
+package com.bookbuddy.repository;
+
+/**
+ * The columns a book list (card) needs, selected with a JPQL constructor expression
+ * instead of loading managed Book entities. Leaves out the description and the
+ * collections; categories are fetched separately for the whole page
+ * ({@link BookRepository#findCategoriesByBookIdIn}).
+ */
+public record BookCardRow(
+        Long id,
+        String title,
+        String author,
+        String isbn,
+        String publishedDate,
+        Integer pageCount,
+        String coverImageUrl,
+        String language,
+        String googleBooksId,
+        Double averageRating,
+        Integer ratingsCount) {
+}
@@ -0,0 +1,5 @@
+package com.bookbuddy.repository;
+
+/** One book_category row, as returned by {@link BookRepository#findCategoriesByBookIdIn}. */
+public record BookCategoryRow(Long bookId, Integer categoryId) {
+}
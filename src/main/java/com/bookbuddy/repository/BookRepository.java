@@ -1,31 +1,92 @@
 package com.bookbuddy.repository;
 
 import com.bookbuddy.model.Book;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookSearchRepository {
     
     Optional<Book> findByIsbn(String isbn);
     
     Optional<Book> findByGoogleBooksId(String googleBooksId);
     
+    List<Book> findByGoogleBooksIdIn(Collection<String> googleBooksIds);
+    
+    List<Book> findByIsbnIn(Collection<String> isbns);
+    
     Optional<Book> findByOpenLibraryId(String openLibraryId);
     
     @Query("SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
            "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<Book> searchBooks(@Param("query") String query, Pageable pageable);
     
-    Page<Book> findByAuthorContainingIgnoreCase(String author, Pageable pageable);
+    // Conditional GETs (see VersionStampRow): cheap aggregates instead of loading the payload
+    String BOOK_VERSION_STAMP = "new com.bookbuddy.repository.VersionStampRow(COUNT(b), " +
+            "COALESCE(SUM(b.version), 0L), MAX(b.updatedAt), MAX(b.updatedAt))";
+    
+    @Query("SELECT " + BOOK_VERSION_STAMP + " FROM Book b WHERE b.id = :id")
+    VersionStampRow findVersionStampById(@Param("id") Long id);
+    
+    // Review writes take this first: the rating recount that follows then sees every
+    // review committed before it, without failing the optimistic lock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForRatingUpdate(@Param("id") Long id);
+    
+    // Set-based rather than through the entity; bumps version so the book's ETag changes
+    @Modifying
+    @Query("UPDATE Book b SET " +
+           "b.averageRating = COALESCE((SELECT AVG(r.rating) FROM Review r WHERE r.book.id = :id), 0.0), " +
+           "b.ratingsCount = (SELECT COUNT(r) FROM Review r WHERE r.book.id = :id), " +
+           "b.version = b.version + 1, b.updatedAt = :now WHERE b.id = :id")
+    int updateRatingFromReviews(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    // Card projections for the list endpoints: scalar columns only, no managed entities
+    String CARD_COLUMNS = "new com.bookbuddy.repository.BookCardRow(b.id, b.title, b.author, b.isbn, " +
+            "b.publishedDate, b.pageCount, b.coverImageUrl, b.language, b.googleBooksId, " +
+            "b.averageRating, b.ratingsCount)";
+    
+    @Query(value = "SELECT " + CARD_COLUMNS + " FROM Book b",
+           countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<BookCardRow> findAllCards(Pageable pageable);
+    
+    @Query(value = "SELECT " + CARD_COLUMNS + " FROM Book b " +
+                   "WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
+                   "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%'))",
+           countQuery = "SELECT COUNT(b) FROM Book b " +
+                        "WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
+                        "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%'))")
+    Page<BookCardRow> searchBookCards(@Param("query") String query, Pageable pageable);
+    
+    @Query(value = "SELECT " + CARD_COLUMNS + " FROM Book b " +
+                   "WHERE LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%'))",
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%'))")
+    Page<BookCardRow> findCardsByAuthor(@Param("author") String author, Pageable pageable);
+    
+    // Category ids come from CategoryDictionary; served by idx_book_category_category
+    @Query(value = "SELECT " + CARD_COLUMNS + " FROM Book b JOIN b.categoryIds c WHERE c = :categoryId",
+           countQuery = "SELECT COUNT(b) FROM Book b JOIN b.categoryIds c WHERE c = :categoryId")
+    Page<BookCardRow> findCardsByCategoryId(@Param("categoryId") Integer categoryId, Pageable pageable);
+    
+    @Query("SELECT " + CARD_COLUMNS + " FROM Book b WHERE b.id IN :ids")
+    List<BookCardRow> findCardsByIdIn(@Param("ids") Collection<Long> ids);
     
-    @Query("SELECT b FROM Book b JOIN b.categories c WHERE LOWER(c) = LOWER(:category)")
-    Page<Book> findByCategory(@Param("category") String category, Pageable pageable);
+    /** Categories of a whole page of books in one query (instead of one lazy load per book). */
+    @Query("SELECT new com.bookbuddy.repository.BookCategoryRow(b.id, c) FROM Book b JOIN b.categoryIds c " +
+           "WHERE b.id IN :bookIds ORDER BY b.id, index(c)")
+    List<BookCategoryRow> findCategoriesByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
 }
 
@@ -0,0 +1,17 @@
+package com.bookbuddy.repository;
+
+import com.bookbuddy.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/** Criteria queries for {@link BookRepository} that Spring Data cannot derive. */
+public interface BookSearchRepository {
+
+    /**
+     * Ids of one page of the books matching the specification, in the pageable's sort.
+     * Only the id column is selected, so index-only plans stay possible; callers load the
+     * page's summaries with {@link BookRepository#findCardsByIdIn}.
+     */
+    Page<Long> findIds(Specification<Book> specification, Pageable pageable);
+}
@@ -0,0 +1,54 @@
+package com.bookbuddy.repository;
+
+import com.bookbuddy.model.Book;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filters for the advanced search. Each one is a single-column predicate that the
+ * composite indexes from V6 can serve; a null bound leaves that side of a range open.
+ */
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> language(String language) {
+        return (book, query, cb) -> cb.equal(book.get("language"), language);
+    }
+
+    public static Specification<Book> publishedBetween(Integer fromYear, Integer toYear) {
+        return (book, query, cb) -> between(cb, book.get("publishedYear"), fromYear, toYear);
+    }
+
+    public static Specification<Book> pageCountBetween(Integer minPages, Integer maxPages) {
+        return (book, query, cb) -> between(cb, book.get("pageCount"), minPages, maxPages);
+    }
+
+    public static Specification<Book> ratingAtLeast(Double minRating) {
+        return (book, query, cb) -> cb.greaterThanOrEqualTo(book.get("averageRating"), minRating);
+    }
+
+    public static Specification<Book> hasPublishedYear() {
+        return (book, query, cb) -> cb.isNotNull(book.get("publishedYear"));
+    }
+
+    public static Specification<Book> hasPageCount() {
+        return (book, query, cb) -> cb.isNotNull(book.get("pageCount"));
+    }
+
+    private static Predicate between(CriteriaBuilder cb, Path<Integer> column, Integer min, Integer max) {
+        if (min != null && max != null) {
+            return cb.between(column, min, max);
+        }
+        if (min != null) {
+            return cb.greaterThanOrEqualTo(column, min);
+        }
+        if (max != null) {
+            return cb.lessThanOrEqualTo(column, max);
+        }
+        return cb.isNotNull(column);
+    }
+}
@@ -4,22 +4,35 @@ import com.bookbuddy.model.Favourite;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Favourites per user, listed newest first off idx_favourites_user_created. Queries filter
+ * on the foreign key columns for the reason given on {@link UserBookRepository}.
+ */
 @Repository
 public interface FavouriteRepository extends JpaRepository<Favourite, Long> {
     
-    Optional<Favourite> findByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT f FROM Favourite f WHERE f.user.id = :userId AND f.book.id = :bookId")
+    Optional<Favourite> findByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
     
-    List<Favourite> findByUserId(Long userId);
+    @Query("SELECT f FROM Favourite f WHERE f.user.id = :userId")
+    List<Favourite> findByUserId(@Param("userId") Long userId);
     
-    Page<Favourite> findByUserId(Long userId, Pageable pageable);
+    @Query("SELECT f FROM Favourite f WHERE f.user.id = :userId")
+    Page<Favourite> findByUserId(@Param("userId") Long userId, Pageable pageable);
     
-    boolean existsByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT COUNT(f) > 0 FROM Favourite f WHERE f.user.id = :userId AND f.book.id = :bookId")
+    boolean existsByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
     
-    void deleteByUserIdAndBookId(Long userId, Long bookId);
+    @Modifying
+    @Query("DELETE FROM Favourite f WHERE f.user.id = :userId AND f.book.id = :bookId")
+    void deleteByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
 }
 
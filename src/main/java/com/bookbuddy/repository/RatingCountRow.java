@@ -0,0 +1,5 @@
+package com.bookbuddy.repository;
+
+/** Number of reviews with one star rating, as returned by {@link ReviewRepository#countByRatingForBook}. */
+public record RatingCountRow(Integer rating, Long count) {
+}
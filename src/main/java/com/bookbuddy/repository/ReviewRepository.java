@@ -4,6 +4,7 @@ import com.bookbuddy.model.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,18 +12,28 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Reviews per book and per user, plus the rating aggregates behind the book stats. Book
+ * listings rely on idx_reviews_book_created; see {@link UserBookRepository} for why the
+ * queries filter on the foreign key columns.
+ */
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     
-    Optional<Review> findByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT r FROM Review r WHERE r.user.id = :userId AND r.book.id = :bookId")
+    Optional<Review> findByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
     
-    List<Review> findByBookId(Long bookId);
+    @Query("SELECT r FROM Review r WHERE r.book.id = :bookId")
+    List<Review> findByBookId(@Param("bookId") Long bookId);
     
-    Page<Review> findByBookId(Long bookId, Pageable pageable);
+    @Query("SELECT r FROM Review r WHERE r.book.id = :bookId")
+    Page<Review> findByBookId(@Param("bookId") Long bookId, Pageable pageable);
     
-    List<Review> findByUserId(Long userId);
+    @Query("SELECT r FROM Review r WHERE r.user.id = :userId")
+    List<Review> findByUserId(@Param("userId") Long userId);
     
-    Page<Review> findByUserId(Long userId, Pageable pageable);
+    @Query("SELECT r FROM Review r WHERE r.user.id = :userId")
+    Page<Review> findByUserId(@Param("userId") Long userId, Pageable pageable);
     
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.book.id = :bookId")
     Double calculateAverageRatingForBook(@Param("bookId") Long bookId);
@@ -30,8 +41,23 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.book.id = :bookId")
     Integer countReviewsForBook(@Param("bookId") Long bookId);
     
-    boolean existsByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT new com.bookbuddy.repository.RatingCountRow(r.rating, COUNT(r)) FROM Review r " +
+           "WHERE r.book.id = :bookId GROUP BY r.rating")
+    List<RatingCountRow> countByRatingForBook(@Param("bookId") Long bookId);
     
-    void deleteByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT new com.bookbuddy.repository.VersionStampRow(COUNT(r), COALESCE(SUM(b.version), 0L), " +
+           "MAX(r.updatedAt), MAX(b.updatedAt)) FROM Review r JOIN r.book b WHERE b.id = :bookId")
+    VersionStampRow findVersionStampByBookId(@Param("bookId") Long bookId);
+    
+    @Query("SELECT new com.bookbuddy.repository.VersionStampRow(COUNT(r), COALESCE(SUM(b.version), 0L), " +
+           "MAX(r.updatedAt), MAX(b.updatedAt)) FROM Review r JOIN r.book b WHERE r.user.id = :userId")
+    VersionStampRow findVersionStampByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(r) > 0 FROM Review r WHERE r.user.id = :userId AND r.book.id = :bookId")
+    boolean existsByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.user.id = :userId AND r.book.id = :bookId")
+    void deleteByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
 }
 
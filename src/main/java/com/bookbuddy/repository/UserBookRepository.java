@@ -5,6 +5,7 @@ import com.bookbuddy.model.UserBook.ShelfType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,16 +13,26 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Shelf entries per user. User/book lookups here and in the favourite and review
+ * repositories use explicit JPQL on the foreign key columns: the equivalent derived
+ * queries outer-join users/books and filter on the joined id, which keeps the planner off
+ * the (user_id, ...) and (book_id, ...) indexes.
+ */
 @Repository
 public interface UserBookRepository extends JpaRepository<UserBook, Long> {
     
-    Optional<UserBook> findByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT ub FROM UserBook ub WHERE ub.user.id = :userId AND ub.book.id = :bookId")
+    Optional<UserBook> findByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
     
-    List<UserBook> findByUserIdAndShelf(Long userId, ShelfType shelf);
+    @Query("SELECT ub FROM UserBook ub WHERE ub.user.id = :userId AND ub.shelf = :shelf")
+    List<UserBook> findByUserIdAndShelf(@Param("userId") Long userId, @Param("shelf") ShelfType shelf);
     
-    Page<UserBook> findByUserIdAndShelf(Long userId, ShelfType shelf, Pageable pageable);
+    @Query("SELECT ub FROM UserBook ub WHERE ub.user.id = :userId AND ub.shelf = :shelf")
+    Page<UserBook> findByUserIdAndShelf(@Param("userId") Long userId, @Param("shelf") ShelfType shelf, Pageable pageable);
     
-    List<UserBook> findByUserId(Long userId);
+    @Query("SELECT ub FROM UserBook ub WHERE ub.user.id = :userId")
+    List<UserBook> findByUserId(@Param("userId") Long userId);
     
     @Query("SELECT ub FROM UserBook ub WHERE ub.user.id = :userId " +
            "ORDER BY ub.updatedAt DESC")
@@ -32,8 +43,23 @@ public interface UserBookRepository extends JpaRepository<UserBook, Long> {
            "ORDER BY ub.updatedAt DESC")
     List<UserBook> findCurrentlyReadingByUserId(@Param("userId") Long userId);
     
-    boolean existsByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT new com.bookbuddy.repository.VersionStampRow(COUNT(ub), COALESCE(SUM(b.version), 0L), " +
+           "MAX(ub.updatedAt), MAX(b.updatedAt)) FROM UserBook ub JOIN ub.book b " +
+           "WHERE ub.user.id = :userId AND ub.shelf = :shelf")
+    VersionStampRow findVersionStampByUserIdAndShelf(@Param("userId") Long userId, @Param("shelf") ShelfType shelf);
     
-    void deleteByUserIdAndBookId(Long userId, Long bookId);
+    @Query("SELECT new com.bookbuddy.repository.VersionStampRow(COUNT(ub), COALESCE(SUM(b.version), 0L), " +
+           "MAX(ub.updatedAt), MAX(b.updatedAt)) FROM UserBook ub JOIN ub.book b WHERE ub.user.id = :userId")
+    VersionStampRow findVersionStampByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(ub) > 0 FROM UserBook ub WHERE ub.user.id = :userId AND ub.book.id = :bookId")
+    boolean existsByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    @Query("SELECT ub.shelf FROM UserBook ub WHERE ub.user.id = :userId AND ub.book.id = :bookId")
+    Optional<ShelfType> findShelfByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    @Modifying
+    @Query("DELETE FROM UserBook ub WHERE ub.user.id = :userId AND ub.book.id = :bookId")
+    void deleteByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
 }
 
@@ -0,0 +1,29 @@
+package com.bookbuddy.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Aggregate "has anything changed" state of a result set, used for ETag/Last-Modified.
+ *
+ * versionSum adds up the book versions behind the rows. Versions only ever grow, so any
+ * book update moves the sum, and count catches rows that were added or removed.
+ * updatedAt is the newest row timestamp (user_books/reviews, or the books themselves);
+ * booksUpdatedAt the newest timestamp of the books embedded in the rows.
+ */
+public record VersionStampRow(Long count, Long versionSum, LocalDateTime updatedAt, LocalDateTime booksUpdatedAt) {
+
+    /** Weak ETag: the same data may go out as plain or gzip-encoded JSON. */
+    public String etag(String scope) {
+        return "W/\"" + scope + "-" + count + "-" + versionSum + "-" + lastModified() + "\"";
+    }
+
+    /** Epoch millis of the newest change, or -1 for an empty result set. */
+    public long lastModified() {
+        LocalDateTime newest = updatedAt;
+        if (newest == null || (booksUpdatedAt != null && booksUpdatedAt.isAfter(newest))) {
+            newest = booksUpdatedAt;
+        }
+        return newest == null ? -1 : newest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
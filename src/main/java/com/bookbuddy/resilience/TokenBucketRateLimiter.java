@@ -0,0 +1,57 @@
+package com.bookbuddy.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side token bucket. Tokens refill continuously at {@code permitsPerPeriod / period}
+ * up to {@code capacity}, so a daily quota can be spread over the day while still allowing
+ * short bursts.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucketRateLimiter(long permitsPerPeriod, Duration period, long capacity) {
+        this(permitsPerPeriod, period, capacity, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(long permitsPerPeriod, Duration period, long capacity, LongSupplier nanoClock) {
+        if (permitsPerPeriod < 1 || capacity < 1) {
+            throw new IllegalArgumentException("permitsPerPeriod and capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = (double) permitsPerPeriod / period.toNanos();
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized double availablePermits() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -52,6 +52,10 @@ public class SecurityConfig {
                         "/api/books/",
                         "/api/books/search",
                         "/api/books/search/external",
+                        "/api/books/search/hybrid",
+                        "/api/books/advanced-search",
+                        "/api/books/browse",
+                        "/api/books/trending",
                         "/register",
                         "/login",
                         "/health",
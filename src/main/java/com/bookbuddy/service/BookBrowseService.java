@@ -0,0 +1,118 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.BookApiConfig;
+import com.bookbuddy.dto.BookBrowseDTO;
+import com.bookbuddy.dto.BookSummaryDTO;
+import com.bookbuddy.facet.BookFacetIndex;
+import com.bookbuddy.facet.BookFacetIndex.Filter;
+import com.bookbuddy.facet.BookFacetIndex.PageBucket;
+import com.bookbuddy.facet.BookFacetIndex.Result;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Faceted catalog browse. Filtering and facet counting happen in {@link BookFacetIndex};
+ * the database is only asked for the summaries of the page being returned.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookBrowseService {
+
+    private final BookFacetIndex bookFacetIndex;
+    private final CategoryDictionary categoryDictionary;
+    private final BookService bookService;
+    private final BookApiConfig bookApiConfig;
+
+    /**
+     * Books matching every given filter, in id order. Null or empty lists are not
+     * filtered; several values in one list match any of them. Unknown category names
+     * match nothing.
+     */
+    public BookBrowseDTO browse(List<String> categories, List<String> languages, Integer minRating,
+                                List<String> pages, Pageable pageable) {
+        if (minRating != null && (minRating < 1 || minRating > 5)) {
+            throw new IllegalArgumentException("minRating must be between 1 and 5");
+        }
+        Filter filter = new Filter(
+                isEmpty(categories) ? null : categoryIds(categories),
+                isEmpty(languages) ? null : Set.copyOf(languages),
+                minRating,
+                isEmpty(pages) ? null : pageBuckets(pages));
+
+        Result result = bookFacetIndex.browse(filter, pageable.getOffset(), pageable.getPageSize());
+
+        Map<Long, BookSummaryDTO> summaries = bookService.summarize(result.bookIds());
+        List<BookSummaryDTO> content = result.bookIds().stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return BookBrowseDTO.builder()
+                .content(content)
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .totalElements(result.total())
+                .totalPages((int) ((result.total() + pageable.getPageSize() - 1) / pageable.getPageSize()))
+                .facets(facets(result))
+                .build();
+    }
+
+    private Set<Integer> categoryIds(Collection<String> names) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String name : names) {
+            categoryDictionary.find(name).ifPresent(ids::add);
+        }
+        return ids;
+    }
+
+    private static Set<PageBucket> pageBuckets(Collection<String> labels) {
+        Set<PageBucket> buckets = new LinkedHashSet<>();
+        for (String label : labels) {
+            buckets.add(PageBucket.fromLabel(label.trim()));
+        }
+        return buckets;
+    }
+
+    private Map<String, Map<String, Integer>> facets(Result result) {
+        Map<Integer, Integer> topCategories = byCountDescending(result.categoryCounts(),
+                bookApiConfig.getBrowseCategoryFacets());
+        Map<String, Integer> categories = new LinkedHashMap<>();
+        topCategories.forEach((id, count) ->
+                categoryDictionary.names(List.of(id)).forEach(name -> categories.put(name, count)));
+
+        Map<String, Integer> ratings = new LinkedHashMap<>();
+        result.ratingCounts().forEach((rating, count) -> ratings.put(String.valueOf(rating), count));
+
+        Map<String, Integer> pageRanges = new LinkedHashMap<>();
+        result.pageCounts().forEach((bucket, count) -> pageRanges.put(bucket.getLabel(), count));
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("category", categories);
+        facets.put("language", byCountDescending(result.languageCounts(), Integer.MAX_VALUE));
+        facets.put("rating", ratings);
+        facets.put("pages", pageRanges);
+        return facets;
+    }
+
+    private static <K> Map<K, Integer> byCountDescending(Map<K, Integer> counts, int limit) {
+        Map<K, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Integer>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static boolean isEmpty(List<String> values) {
+        return values == null || values.isEmpty();
+    }
+}
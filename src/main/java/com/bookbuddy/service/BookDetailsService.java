@@ -0,0 +1,121 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.BookDetailsDTO;
+import com.bookbuddy.dto.ReviewDTO;
+import com.bookbuddy.model.UserBook;
+import com.bookbuddy.repository.FavouriteRepository;
+import com.bookbuddy.repository.RatingCountRow;
+import com.bookbuddy.repository.ReviewRepository;
+import com.bookbuddy.repository.UserBookRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the book page aggregate. The four parts (book, reviews page, rating histogram,
+ * caller state) are independent reads, so they run in parallel on a dedicated bounded
+ * executor, each in its own read-only transaction: a JPA transaction is bound to one
+ * thread, and the caller's request thread holds no connection while it waits. When the
+ * executor is saturated, the reads run on the request thread instead.
+ */
+@Service
+public class BookDetailsService {
+
+    public static final int MAX_REVIEWS = 50;
+
+    private final BookService bookService;
+    private final ReviewService reviewService;
+    private final ReviewRepository reviewRepository;
+    private final FavouriteRepository favouriteRepository;
+    private final UserBookRepository userBookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AsyncTaskExecutor taskExecutor;
+
+    public BookDetailsService(
+            BookService bookService,
+            ReviewService reviewService,
+            ReviewRepository reviewRepository,
+            FavouriteRepository favouriteRepository,
+            UserBookRepository userBookRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("bookDetailsTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.bookService = bookService;
+        this.reviewService = reviewService;
+        this.reviewRepository = reviewRepository;
+        this.favouriteRepository = favouriteRepository;
+        this.userBookRepository = userBookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+    }
+
+    public BookDetailsDTO getBookDetails(Long bookId, Long userId, int reviewCount) {
+        int size = Math.max(1, Math.min(reviewCount, MAX_REVIEWS));
+        PageRequest newestReviews = PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        CompletableFuture<BookDTO> book = async(() -> bookService.getBookById(bookId));
+        CompletableFuture<Page<ReviewDTO>> reviews = async(() -> reviewService.getReviewsForBook(bookId, newestReviews));
+        CompletableFuture<Map<Integer, Long>> histogram = async(() -> ratingHistogram(bookId));
+        CompletableFuture<CallerState> caller = async(() -> callerState(userId, bookId));
+
+        try {
+            CompletableFuture.allOf(book, reviews, histogram, caller).join();
+        } catch (CompletionException e) {
+            // e.g. ResourceNotFoundException for an unknown book
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        CallerState state = caller.join();
+        UserBook entry = state.shelfEntry().orElse(null);
+        return BookDetailsDTO.builder()
+                .book(book.join())
+                .reviews(reviews.join().getContent())
+                .reviewCount(reviews.join().getTotalElements())
+                .ratingHistogram(histogram.join())
+                .favourite(state.favourite())
+                .shelf(entry != null ? entry.getShelf() : null)
+                .currentPage(entry != null ? entry.getCurrentPage() : null)
+                .progressPercentage(entry != null ? entry.getProgressPercentage() : null)
+                .userRating(entry != null ? entry.getRating() : null)
+                .build();
+    }
+
+    private Map<Integer, Long> ratingHistogram(Long bookId) {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        for (int stars = 1; stars <= 5; stars++) {
+            histogram.put(stars, 0L);
+        }
+        for (RatingCountRow row : reviewRepository.countByRatingForBook(bookId)) {
+            histogram.put(row.rating(), row.count());
+        }
+        return histogram;
+    }
+
+    private CallerState callerState(Long userId, Long bookId) {
+        return new CallerState(
+                favouriteRepository.existsByUserIdAndBookId(userId, bookId),
+                userBookRepository.findByUserIdAndBookId(userId, bookId));
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), taskExecutor);
+    }
+
+    private record CallerState(boolean favourite, Optional<UserBook> shelfEntry) {}
+}
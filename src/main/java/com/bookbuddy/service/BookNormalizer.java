@@ -0,0 +1,68 @@
+package com.bookbuddy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Normalization rules applied to every book written to the catalog, whether it comes
+ * through {@link BookService} or the bulk {@link CatalogIngestService}.
+ */
+final class BookNormalizer {
+
+    static final int MAX_DESCRIPTION_LENGTH = 2000;
+    static final String DEFAULT_TITLE = "Untitled";
+    static final String DEFAULT_AUTHOR = "Unknown Author";
+
+    // First standalone run of four digits: "1937", "2004-05-01", "May 2004", "c1990"
+    private static final Pattern YEAR = Pattern.compile("(?<!\\d)(\\d{4})(?!\\d)");
+
+    private BookNormalizer() {
+    }
+
+    static String title(String title) {
+        return title != null && !title.isBlank() ? title : DEFAULT_TITLE;
+    }
+
+    static String author(String author) {
+        return author != null && !author.isBlank() ? author : DEFAULT_AUTHOR;
+    }
+
+    static String description(String description) {
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            return description.substring(0, MAX_DESCRIPTION_LENGTH);
+        }
+        return description;
+    }
+
+    static List<String> categories(List<String> categories) {
+        if (categories == null) {
+            return new ArrayList<>();
+        }
+        return categories.stream()
+                .filter(category -> category != null && !category.isBlank())
+                .map(String::trim)
+                .collect(Collectors.toList());
+    }
+
+    /** Trimmed, lower-cased language code, so "EN" and "en" filter alike; blank is null. */
+    static String language(String language) {
+        return language == null || language.isBlank() ? null : language.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Year of a free-form published date, or null when it does not carry one. */
+    static Integer publishedYear(String publishedDate) {
+        if (publishedDate == null) {
+            return null;
+        }
+        Matcher matcher = YEAR.matcher(publishedDate);
+        if (!matcher.find()) {
+            return null;
+        }
+        int year = Integer.parseInt(matcher.group(1));
+        return year > 0 ? year : null;
+    }
+}
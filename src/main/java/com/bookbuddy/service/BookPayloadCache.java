@@ -0,0 +1,144 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.BookApiConfig;
+import com.bookbuddy.dto.BookDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON (and gzip) bytes of single-book responses, so GET /api/books/{id} for a cached
+ * book neither builds a BookDTO nor runs Jackson.
+ *
+ * Entries are dropped when the book changes (rating updates, edits, catalog ingest),
+ * both immediately and again after the writing transaction commits. A load that
+ * overlaps an invalidation is served but not cached, so a read from before the commit
+ * can never be put back after it.
+ */
+@Service
+public class BookPayloadCache {
+
+    private final ObjectMapper objectMapper;
+    private final BookApiConfig.PayloadCache config;
+    private final Cache<Long, Payload> cache;
+    // Bumped on every invalidation; loads only cache their result if it did not move
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesServed;
+    private final Timer serializationSaved;
+
+    public BookPayloadCache(ObjectMapper objectMapper, BookApiConfig bookApiConfig, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.config = bookApiConfig.getPayloadCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTimeToLive())
+                .build();
+        this.hits = meterRegistry.counter("books.payload.cache.hit");
+        this.misses = meterRegistry.counter("books.payload.cache.miss");
+        this.bytesServed = Counter.builder("books.payload.cache.served")
+                .baseUnit("bytes")
+                .description("Response bytes written straight from the payload cache")
+                .register(meterRegistry);
+        this.serializationSaved = Timer.builder("books.payload.cache.serialization.saved")
+                .description("DTO building and serialization time skipped by cache hits")
+                .register(meterRegistry);
+        Gauge.builder("books.payload.cache.size", cache, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    /**
+     * The cached payload for the book, or a freshly built one from {@code loader}.
+     * Loader exceptions (e.g. ResourceNotFoundException) propagate and nothing is cached.
+     */
+    public Lookup get(Long bookId, Supplier<BookDTO> loader) {
+        if (config.isEnabled()) {
+            Payload cached = cache.getIfPresent(bookId);
+            if (cached != null) {
+                hits.increment();
+                serializationSaved.record(cached.buildNanos(), TimeUnit.NANOSECONDS);
+                return new Lookup(cached, true);
+            }
+            misses.increment();
+        }
+        long invalidationsBefore = invalidations.get();
+        long started = System.nanoTime();
+        BookDTO book = loader.get();
+        byte[] json = serialize(book);
+        byte[] gzip = config.isGzip() && json.length >= config.getGzipMinBytes() ? gzip(json) : null;
+        Payload payload = new Payload(json, gzip, System.nanoTime() - started);
+        if (config.isEnabled() && invalidations.get() == invalidationsBefore) {
+            cache.put(bookId, payload);
+        }
+        return new Lookup(payload, false);
+    }
+
+    /** Counts bytes written from a cache hit (reported as books.payload.cache.served). */
+    public void recordServed(int bytes) {
+        bytesServed.increment(bytes);
+    }
+
+    public void invalidate(Long bookId) {
+        invalidateAll(List.of(bookId));
+    }
+
+    public void invalidateAll(Collection<Long> bookIds) {
+        drop(bookIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(bookIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(ids);
+                }
+            });
+        }
+    }
+
+    private void drop(Collection<Long> bookIds) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll(bookIds);
+    }
+
+    private byte[] serialize(BookDTO book) {
+        try {
+            return objectMapper.writeValueAsBytes(book);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize book " + book.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /** Serialized book; {@code gzip} is null when no compressed copy was made. */
+    public record Payload(byte[] json, byte[] gzip, long buildNanos) {}
+
+    public record Lookup(Payload payload, boolean hit) {}
+}
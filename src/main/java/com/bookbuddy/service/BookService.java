@@ -1,19 +1,44 @@
 package com.bookbuddy.service;
 
+import com.bookbuddy.config.BookApiConfig;
 import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.BookSearchCriteria;
+import com.bookbuddy.dto.BookSummaryDTO;
+import com.bookbuddy.exception.ExternalServiceUnavailableException;
 import com.bookbuddy.exception.ResourceNotFoundException;
+import com.bookbuddy.facet.BookFacetIndex;
 import com.bookbuddy.model.Book;
+import com.bookbuddy.recommendation.ContentIndex;
+import com.bookbuddy.repository.BookCardRow;
+import com.bookbuddy.repository.BookCategoryRow;
 import com.bookbuddy.repository.BookRepository;
+import com.bookbuddy.repository.BookSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,31 +46,101 @@ import java.util.stream.Collectors;
 @Slf4j
 @Transactional
 public class BookService {
-    private static final int MAX_DESCRIPTION_LENGTH = 2000;
-    
     private final BookRepository bookRepository;
     private final GoogleBooksService googleBooksService;
+    private final BookApiConfig bookApiConfig;
+    private final BookPayloadCache bookPayloadCache;
+    private final CategoryDictionary categoryDictionary;
+    private final BookFacetIndex bookFacetIndex;
+    private final ContentIndex contentIndex;
+    private final PlatformTransactionManager transactionManager;
     
+    @Transactional(readOnly = true)
     public BookDTO getBookById(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
         return convertToDTO(book);
     }
     
+    /**
+     * Full books for a list of ids: one IN query for the books and one for their
+     * categories. Results follow the request order; duplicate ids are returned once and
+     * unknown ids are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<BookDTO> getBooksByIds(List<Long> ids) {
+        if (ids.size() > bookApiConfig.getBatchMaxIds()) {
+            throw new IllegalArgumentException(
+                    "At most " + bookApiConfig.getBatchMaxIds() + " ids per batch request (got " + ids.size() + ")");
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                uniqueIds.add(id);
+            }
+        }
+        if (uniqueIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllById(uniqueIds).forEach(book -> books.put(book.getId(), book));
+        Map<Long, List<String>> categoriesByBook = categoriesByBook(books.keySet());
+        List<BookDTO> result = new ArrayList<>(books.size());
+        for (Long id : uniqueIds) {
+            Book book = books.get(id);
+            if (book != null) {
+                result.add(convertToDTO(book, categoriesByBook.getOrDefault(id, List.of())));
+            }
+        }
+        return result;
+    }
+    
     public BookDTO mapToDTO(Book book) {
         return convertToDTO(book);
     }
     
-    public Page<BookDTO> searchBooksInDatabase(String query, Pageable pageable) {
-        return bookRepository.searchBooks(query, pageable)
-                .map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> searchBooksInDatabase(String query, Pageable pageable) {
+        return toCardPage(bookRepository.searchBookCards(query, pageable));
     }
     
-    public List<BookDTO> searchBooksFromExternalAPI(String query, int maxResults) {
-        return googleBooksService.searchBooks(query, maxResults);
+    /**
+     * Searches Google Books, falling back to the local catalog while Google Books is
+     * unavailable (circuit open or quota exhausted). Runs outside a transaction so no
+     * connection is held across the upstream call; the fallback opens its own.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BookSummaryDTO> searchBooksFromExternalAPI(String query, int maxResults) {
+        try {
+            return googleBooksService.searchBooks(query, maxResults).stream()
+                    .map(this::toSummary)
+                    .collect(Collectors.toList());
+        } catch (ExternalServiceUnavailableException e) {
+            log.warn("Falling back to local search for query '{}': {}", query, e.getMessage());
+            int cappedMax = Math.max(1, Math.min(maxResults, 40));
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            Page<BookSummaryDTO> local = readOnlyTransaction.execute(status ->
+                    toCardPage(bookRepository.searchBookCards(query, PageRequest.of(0, cappedMax))));
+            return local.stream()
+                    .map(dto -> {
+                        // Keep the external endpoint's contract of always returning a cover
+                        if (dto.getCoverImageUrl() == null || dto.getCoverImageUrl().isBlank()) {
+                            dto.setCoverImageUrl(GoogleBooksService.FALLBACK_COVER_URL);
+                        }
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+        }
     }
     
+    /**
+     * Imports a Google Books volume. Accepts either the Google Books id or the negative
+     * external id that search results carry for it.
+     */
     public BookDTO saveBookFromExternalAPI(String googleBooksId) {
+        googleBooksId = resolveGoogleBooksId(googleBooksId);
+
         // Check if book already exists
         Book existingBook = bookRepository.findByGoogleBooksId(googleBooksId).orElse(null);
         if (existingBook != null) {
@@ -61,31 +156,97 @@ public class BookService {
         // Save to database
         Book book = convertToEntity(bookDTO);
         book = bookRepository.save(book);
+        bookFacetIndex.refresh(List.of(book.getId()));
+        contentIndex.refresh(List.of(book.getId()));
         
         return convertToDTO(book);
     }
 
-    public List<BookDTO> saveTopFromExternalAPI(String query, int maxResults) {
-        List<BookDTO> external = googleBooksService.searchBooks(query, maxResults);
-        List<BookDTO> saved = new ArrayList<>();
-        for (BookDTO dto : external) {
-            if (dto == null) continue;
-            // If book already exists by googleBooksId, return existing
+    private String resolveGoogleBooksId(String id) {
+        if (id.startsWith("-")) {
+            long externalId;
+            try {
+                externalId = Long.parseLong(id);
+            } catch (NumberFormatException e) {
+                // Google Books ids may start with '-' too; use it as given
+                return id;
+            }
+            String resolved = googleBooksService.resolveExternalId(externalId);
+            if (resolved == null) {
+                // Not worth a Google Books call (and a rate limiter token) that cannot succeed
+                throw new ResourceNotFoundException("Unknown or expired external id: " + id);
+            }
+            return resolved;
+        }
+        return id;
+    }
+
+    /**
+     * Persists a batch of external results in one transaction. Existing books are found
+     * with one IN query per identifier (googleBooksId, ISBN) instead of a lookup per item,
+     * and new books are inserted together with saveAll.
+     *
+     * @return ids of the batch's books in input order, existing or newly created
+     */
+    public ExternalImportResult saveExternalBooks(List<BookDTO> batch) {
+        Set<String> googleIds = new HashSet<>();
+        Set<String> isbns = new HashSet<>();
+        for (BookDTO dto : batch) {
             if (dto.getGoogleBooksId() != null) {
-                Book existing = bookRepository.findByGoogleBooksId(dto.getGoogleBooksId()).orElse(null);
-                if (existing != null) {
-                    saved.add(convertToDTO(existing));
-                    continue;
-                }
+                googleIds.add(dto.getGoogleBooksId());
+            }
+            if (dto.getIsbn() != null) {
+                isbns.add(dto.getIsbn());
             }
+        }
+
+        Map<String, Book> byGoogleId = new HashMap<>();
+        Map<String, Book> byIsbn = new HashMap<>();
+        if (!googleIds.isEmpty()) {
+            bookRepository.findByGoogleBooksIdIn(googleIds).forEach(b -> byGoogleId.put(b.getGoogleBooksId(), b));
+        }
+        if (!isbns.isEmpty()) {
+            bookRepository.findByIsbnIn(isbns).forEach(b -> byIsbn.put(b.getIsbn(), b));
+        }
 
-            // convert and save
-            Book toSave = convertToEntity(dto);
-            toSave = bookRepository.save(toSave);
-            saved.add(convertToDTO(toSave));
+        List<Book> resolved = new ArrayList<>(batch.size());
+        List<Book> toInsert = new ArrayList<>();
+        // Identity-based: Book's Lombok equals compares every field
+        Set<Book> inserting = Collections.newSetFromMap(new IdentityHashMap<>());
+        int existing = 0;
+        for (BookDTO dto : batch) {
+            Book book = dto.getGoogleBooksId() != null ? byGoogleId.get(dto.getGoogleBooksId()) : null;
+            if (book == null && dto.getIsbn() != null) {
+                book = byIsbn.get(dto.getIsbn());
+            }
+            if (book != null) {
+                // Already stored, or a duplicate within this batch
+                if (!inserting.contains(book)) {
+                    existing++;
+                }
+            } else {
+                book = convertToEntity(dto);
+                toInsert.add(book);
+                inserting.add(book);
+                if (book.getGoogleBooksId() != null) {
+                    byGoogleId.put(book.getGoogleBooksId(), book);
+                }
+                if (book.getIsbn() != null) {
+                    byIsbn.put(book.getIsbn(), book);
+                }
+            }
+            resolved.add(book);
         }
-        return saved;
+
+        bookRepository.saveAll(toInsert);
+        bookFacetIndex.refresh(toInsert.stream().map(Book::getId).toList());
+        contentIndex.refresh(toInsert.stream().map(Book::getId).toList());
+
+        List<Long> ids = resolved.stream().map(Book::getId).collect(Collectors.toList());
+        return new ExternalImportResult(ids, toInsert.size(), existing);
     }
+
+    public record ExternalImportResult(List<Long> bookIds, int imported, int existing) {}
     
     public BookDTO createOrUpdateBook(BookDTO bookDTO) {
         Book book;
@@ -99,30 +260,159 @@ public class BookService {
         }
         
         book = bookRepository.save(book);
+        bookPayloadCache.invalidate(book.getId());
+        bookFacetIndex.refresh(List.of(book.getId()));
+        contentIndex.refresh(List.of(book.getId()));
         return convertToDTO(book);
     }
     
-    public void updateBookRating(Long bookId, Double averageRating, Integer ratingsCount) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-        book.setAverageRating(averageRating);
-        book.setRatingsCount(ratingsCount);
-        bookRepository.save(book);
+    /** Recomputes the book's average rating and ratings count from its reviews. */
+    public void updateBookRating(Long bookId) {
+        if (bookRepository.updateRatingFromReviews(bookId, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Book not found");
+        }
+        bookPayloadCache.invalidate(bookId);
+        bookFacetIndex.refresh(List.of(bookId));
     }
     
-    public Page<BookDTO> getBooksByCategory(String category, Pageable pageable) {
-        return bookRepository.findByCategory(category, pageable)
-                .map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> getBooksByCategory(String category, Pageable pageable) {
+        return categoryDictionary.find(category)
+                .map(categoryId -> toCardPage(bookRepository.findCardsByCategoryId(categoryId, pageable)))
+                .orElseGet(() -> Page.empty(pageable));
     }
     
-    public Page<BookDTO> getBooksByAuthor(String author, Pageable pageable) {
-        return bookRepository.findByAuthorContainingIgnoreCase(author, pageable)
-                .map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> getBooksByAuthor(String author, Pageable pageable) {
+        return toCardPage(bookRepository.findCardsByAuthor(author, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> getAllBooks(Pageable pageable) {
+        return toCardPage(bookRepository.findAllCards(pageable));
+    }
+
+    /**
+     * Structured search over the typed columns. The filters are ANDed and only select
+     * ids (served by the V6 composite indexes); the page's summaries are then loaded by id.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> advancedSearch(BookSearchCriteria criteria, Pageable pageable) {
+        validate(criteria);
+        List<Specification<Book>> filters = new ArrayList<>();
+        if (criteria.getLanguage() != null && !criteria.getLanguage().isBlank()) {
+            // Stored languages are normalized on write (and by V10), so this stays an index equality
+            filters.add(BookSpecifications.language(BookNormalizer.language(criteria.getLanguage())));
+        }
+        if (criteria.getYearFrom() != null || criteria.getYearTo() != null) {
+            filters.add(BookSpecifications.publishedBetween(criteria.getYearFrom(), criteria.getYearTo()));
+        }
+        if (criteria.getMinPages() != null || criteria.getMaxPages() != null) {
+            filters.add(BookSpecifications.pageCountBetween(criteria.getMinPages(), criteria.getMaxPages()));
+        }
+        if (criteria.getMinRating() != null) {
+            filters.add(BookSpecifications.ratingAtLeast(criteria.getMinRating()));
+        }
+
+        BookSearchCriteria.SortBy sortBy = criteria.getSortBy() != null ? criteria.getSortBy() : BookSearchCriteria.SortBy.TITLE;
+        // Keeps NULLs out of the ordered column, so the sort is a plain index range on every database
+        switch (sortBy) {
+            case NEWEST, OLDEST -> filters.add(BookSpecifications.hasPublishedYear());
+            case SHORTEST, LONGEST -> filters.add(BookSpecifications.hasPageCount());
+            default -> { }
+        }
+
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sortOf(sortBy));
+        Page<Long> ids = bookRepository.findIds(Specification.allOf(filters), sorted);
+        Map<Long, BookSummaryDTO> summaries = summarize(ids.getContent());
+        List<BookSummaryDTO> content = ids.getContent().stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, sorted, ids.getTotalElements());
     }
 
-    public Page<BookDTO> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable)
-                .map(this::convertToDTO);
+    private static void validate(BookSearchCriteria criteria) {
+        if (criteria.getYearFrom() != null && criteria.getYearTo() != null && criteria.getYearFrom() > criteria.getYearTo()) {
+            throw new IllegalArgumentException("yearFrom must not be after yearTo");
+        }
+        if (criteria.getMinPages() != null && criteria.getMaxPages() != null && criteria.getMinPages() > criteria.getMaxPages()) {
+            throw new IllegalArgumentException("minPages must not be greater than maxPages");
+        }
+        if (criteria.getMinRating() != null && (criteria.getMinRating() < 0 || criteria.getMinRating() > 5)) {
+            throw new IllegalArgumentException("minRating must be between 0 and 5");
+        }
+    }
+
+    private static Sort sortOf(BookSearchCriteria.SortBy sortBy) {
+        return switch (sortBy) {
+            case TITLE -> Sort.by("title", "id");
+            case NEWEST -> Sort.by(Sort.Direction.DESC, "publishedYear", "id");
+            case OLDEST -> Sort.by("publishedYear", "id");
+            case RATING -> Sort.by(Sort.Direction.DESC, "averageRating", "id");
+            case SHORTEST -> Sort.by("pageCount", "id");
+            case LONGEST -> Sort.by(Sort.Direction.DESC, "pageCount", "id");
+        };
+    }
+
+    /**
+     * Summaries of the given books, keyed by id, for lists that embed books (shelves,
+     * reviews, favourites). Two queries for the whole list; missing ids are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BookSummaryDTO> summarize(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> ids = new HashSet<>(bookIds);
+        List<BookCardRow> cards = bookRepository.findCardsByIdIn(ids);
+        Map<Long, List<String>> categoriesByBook = categoriesByBook(ids);
+        Map<Long, BookSummaryDTO> summaries = new HashMap<>();
+        for (BookCardRow card : cards) {
+            summaries.put(card.id(), convertToSummary(card, categoriesByBook.getOrDefault(card.id(), List.of())));
+        }
+        return summaries;
+    }
+
+    /** Summary of a full book, e.g. a Google Books result. */
+    public BookSummaryDTO toSummary(BookDTO book) {
+        return BookSummaryDTO.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .publishedDate(book.getPublishedDate())
+                .pageCount(book.getPageCount())
+                .coverImageUrl(book.getCoverImageUrl())
+                .categories(book.getCategories())
+                .language(book.getLanguage())
+                .googleBooksId(book.getGoogleBooksId())
+                .averageRating(book.getAverageRating())
+                .ratingsCount(book.getRatingsCount())
+                .build();
+    }
+
+    /**
+     * List pages are built from card projections plus one grouped categories query, so no
+     * Book entity (with its description and lazy collections) is loaded.
+     */
+    private Page<BookSummaryDTO> toCardPage(Page<BookCardRow> cards) {
+        if (cards.isEmpty()) {
+            return cards.map(card -> convertToSummary(card, List.of()));
+        }
+        Map<Long, List<String>> categoriesByBook = categoriesByBook(
+                cards.stream().map(BookCardRow::id).collect(Collectors.toList()));
+        return cards.map(card -> convertToSummary(card, categoriesByBook.getOrDefault(card.id(), List.of())));
+    }
+
+    private Map<Long, List<String>> categoriesByBook(Collection<Long> bookIds) {
+        Map<Long, List<Integer>> idsByBook = new HashMap<>();
+        for (BookCategoryRow row : bookRepository.findCategoriesByBookIdIn(bookIds)) {
+            idsByBook.computeIfAbsent(row.bookId(), id -> new ArrayList<>()).add(row.categoryId());
+        }
+        Map<Long, List<String>> categoriesByBook = new HashMap<>();
+        idsByBook.forEach((bookId, categoryIds) -> categoriesByBook.put(bookId, categoryDictionary.names(categoryIds)));
+        return categoriesByBook;
     }
 
     /**
@@ -135,7 +425,9 @@ public class BookService {
      * @param pageable pagination parameters
      * @return page of popular books from Google Books API
      */
-    public Page<BookDTO> getPopularBooksFromAPI(Pageable pageable) {
+    // No database access: don't hold a connection across the Google Books calls
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Page<BookSummaryDTO> getPopularBooksFromAPI(Pageable pageable) {
         // List of popular search queries for books
         List<String> popularQueries = List.of(
             "bestseller",
@@ -155,7 +447,7 @@ public class BookService {
         int booksPerQuery = 10; // Each query returns ~10 books
         int queriesNeeded = Math.min((pageNumber + 1) * pageSize / booksPerQuery + 1, popularQueries.size());
         
-        List<BookDTO> allResults = new ArrayList<>();
+        List<BookSummaryDTO> allResults = new ArrayList<>();
         
         // Only fetch queries needed for requested page (smart pagination)
         // This drastically reduces API call time for large page sizes
@@ -164,7 +456,7 @@ public class BookService {
             try {
                 List<BookDTO> results = googleBooksService.searchBooks(query, booksPerQuery);
                 if (results != null) {
-                    allResults.addAll(results);
+                    results.stream().map(this::toSummary).forEach(allResults::add);
                 }
             } catch (Exception e) {
                 log.warn("Error fetching books for query '{}': {}", query, e.getMessage());
@@ -181,7 +473,7 @@ public class BookService {
             return new PageImpl<>(new ArrayList<>(), pageable, allResults.size());
         }
         
-        List<BookDTO> pageContent = allResults.subList(start, end);
+        List<BookSummaryDTO> pageContent = allResults.subList(start, end);
         
         // Total count is capped at 100 (10 queries × 10 books per query)
         long totalElements = Math.min(popularQueries.size() * booksPerQuery, allResults.size());
@@ -190,7 +482,11 @@ public class BookService {
     }
     
     private BookDTO convertToDTO(Book book) {
-        List<String> categories = sanitizeCategories(book.getCategories());
+        return convertToDTO(book, categoryDictionary.names(book.getCategoryIds()));
+    }
+    
+    private BookDTO convertToDTO(Book book, List<String> bookCategories) {
+        List<String> categories = sanitizeCategories(bookCategories);
         return BookDTO.builder()
                 .id(book.getId())
                 .title(book.getTitle())
@@ -199,6 +495,7 @@ public class BookService {
                 .description(book.getDescription())
                 .publisher(book.getPublisher())
                 .publishedDate(book.getPublishedDate())
+                .publishedYear(book.getPublishedYear())
                 .pageCount(book.getPageCount())
                 .coverImageUrl(book.getCoverImageUrl())
                 .categories(categories)
@@ -210,43 +507,44 @@ public class BookService {
                 .build();
     }
     
+    private BookSummaryDTO convertToSummary(BookCardRow card, List<String> categories) {
+        return BookSummaryDTO.builder()
+                .id(card.id())
+                .title(card.title())
+                .author(card.author())
+                .isbn(card.isbn())
+                .publishedDate(card.publishedDate())
+                .pageCount(card.pageCount())
+                .coverImageUrl(card.coverImageUrl())
+                .categories(sanitizeCategories(categories))
+                .language(card.language())
+                .googleBooksId(card.googleBooksId())
+                .averageRating(card.averageRating() != null ? card.averageRating() : 0.0)
+                .ratingsCount(card.ratingsCount() != null ? card.ratingsCount() : 0)
+                .build();
+    }
+    
     private Book convertToEntity(BookDTO dto) {
         // Ensure required fields are not null
-        String title = dto.getTitle() != null && !dto.getTitle().isBlank() 
-                ? dto.getTitle() 
-                : "Untitled";
-        String author = dto.getAuthor() != null && !dto.getAuthor().isBlank() 
-                ? dto.getAuthor() 
-                : "Unknown Author";
-        
-        String desc = dto.getDescription();
-        if (desc != null && desc.length() > MAX_DESCRIPTION_LENGTH) {
-            desc = desc.substring(0, MAX_DESCRIPTION_LENGTH);
-        }
-
         Book.BookBuilder builder = Book.builder()
-            .title(title)
-            .author(author)
+            .title(BookNormalizer.title(dto.getTitle()))
+            .author(BookNormalizer.author(dto.getAuthor()))
             .isbn(dto.getIsbn())
-            .description(desc)
+            .description(BookNormalizer.description(dto.getDescription()))
             .publisher(dto.getPublisher())
             .publishedDate(dto.getPublishedDate())
+            .publishedYear(BookNormalizer.publishedYear(dto.getPublishedDate()))
             .pageCount(dto.getPageCount())
             .coverImageUrl(dto.getCoverImageUrl())
-            .categories(sanitizeCategories(dto.getCategories()))
-            .language(dto.getLanguage())
+            .categoryIds(categoryDictionary.idsFor(sanitizeCategories(dto.getCategories())))
+            .language(BookNormalizer.language(dto.getLanguage()))
             .googleBooksId(dto.getGoogleBooksId())
             .openLibraryId(dto.getOpenLibraryId())
             .averageRating(dto.getAverageRating() != null ? dto.getAverageRating() : 0.0)
             .ratingsCount(dto.getRatingsCount() != null ? dto.getRatingsCount() : 0);
         
-        // Only set the entity id when the DTO id is a positive value (persisted record).
-        // External temporary IDs are negative and should not be copied into the entity
-        // to avoid treating them as existing detached entities.
-        if (dto.getId() != null && dto.getId() > 0) {
-            builder.id(dto.getId());
-        }
-        
+        // Always a new row: ids come from the sequence, and the null @Version is what marks
+        // the entity as new. External temporary ids (negative) are never copied.
         return builder.build();
     }
     
@@ -254,17 +552,18 @@ public class BookService {
         book.setTitle(dto.getTitle());
         book.setAuthor(dto.getAuthor());
         book.setIsbn(dto.getIsbn());
-        String desc = dto.getDescription();
-        if (desc != null && desc.length() > MAX_DESCRIPTION_LENGTH) {
-            desc = desc.substring(0, MAX_DESCRIPTION_LENGTH);
-        }
-        book.setDescription(desc);
+        book.setDescription(BookNormalizer.description(dto.getDescription()));
         book.setPublisher(dto.getPublisher());
         book.setPublishedDate(dto.getPublishedDate());
+        book.setPublishedYear(BookNormalizer.publishedYear(dto.getPublishedDate()));
         book.setPageCount(dto.getPageCount());
         book.setCoverImageUrl(dto.getCoverImageUrl());
-        book.setCategories(sanitizeCategories(dto.getCategories()));
-        book.setLanguage(dto.getLanguage());
+        List<Integer> categoryIds = categoryDictionary.idsFor(sanitizeCategories(dto.getCategories()));
+        if (!categoryIds.equals(book.getCategoryIds())) {
+            book.getCategoryIds().clear();
+            book.getCategoryIds().addAll(categoryIds);
+        }
+        book.setLanguage(BookNormalizer.language(dto.getLanguage()));
         book.setGoogleBooksId(dto.getGoogleBooksId());
         book.setOpenLibraryId(dto.getOpenLibraryId());
         if (dto.getAverageRating() != null) {
@@ -276,13 +575,6 @@ public class BookService {
     }
     
     private List<String> sanitizeCategories(List<String> categories) {
-        if (categories == null) {
-            return new ArrayList<>();
-        }
-        return categories.stream()
-                .filter(category -> category != null && !category.isBlank())
-                .map(String::trim)
-                .collect(Collectors.toList());
+        return BookNormalizer.categories(categories);
     }
 }
-
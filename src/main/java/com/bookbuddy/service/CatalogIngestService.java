@@ -0,0 +1,426 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.IngestConfig;
+import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.IngestReportDTO;
+import com.bookbuddy.facet.BookFacetIndex;
+import com.bookbuddy.recommendation.ContentIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk catalog ingest from partner dumps (NDJSON or CSV).
+ *
+ * Rows are streamed one at a time, normalized with the same rules as {@link BookService}
+ * and upserted into books / book_category with JDBC batches, one transaction per batch,
+ * so memory use does not depend on the size of the dump. Existing books are matched on
+ * googleBooksId first, then ISBN; rows carrying neither are skipped. A batch the database
+ * rejects is retried row by row, so a bad row only loses itself.
+ */
+@Service
+@Slf4j
+public class CatalogIngestService {
+
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported ingest format: " + value + " (expected ndjson or csv)");
+        }
+    }
+
+    private static final String INSERT_BOOK_SQL = "INSERT INTO books (id, title, author, isbn, description, publisher,"
+            + " published_date, published_year, page_count, cover_image_url, language, google_books_id, open_library_id,"
+            + " average_rating, ratings_count, created_at, updated_at) VALUES (:id, :title, :author, :isbn, :description, :publisher,"
+            + " :publishedDate, :publishedYear, :pageCount, :coverImageUrl, :language, :googleBooksId, :openLibraryId,"
+            + " COALESCE(:averageRating, 0.0), COALESCE(:ratingsCount, 0), :now, :now)";
+
+    // Ratings are maintained from our own reviews, so a dump only overwrites them when it carries values
+    private static final String UPDATE_BOOK_SQL = "UPDATE books SET title = :title, author = :author, isbn = :isbn,"
+            + " description = :description, publisher = :publisher, published_date = :publishedDate,"
+            + " published_year = :publishedYear, page_count = :pageCount, cover_image_url = :coverImageUrl,"
+            + " language = :language, google_books_id = :googleBooksId, open_library_id = :openLibraryId,"
+            + " average_rating = COALESCE(:averageRating, average_rating),"
+            + " ratings_count = COALESCE(:ratingsCount, ratings_count),"
+            + " version = version + 1, updated_at = :now WHERE id = :id";
+
+    private static final String INSERT_CATEGORY_SQL =
+            "INSERT INTO book_category (book_id, sort_order, category_id) VALUES (:bookId, :sortOrder, :categoryId)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final IdSequenceService idSequenceService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final IngestConfig config;
+    private final BookPayloadCache bookPayloadCache;
+    private final CategoryDictionary categoryDictionary;
+    private final BookFacetIndex bookFacetIndex;
+    private final ContentIndex contentIndex;
+
+    public CatalogIngestService(NamedParameterJdbcTemplate jdbcTemplate,
+                                IdSequenceService idSequenceService,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                IngestConfig config,
+                                BookPayloadCache bookPayloadCache,
+                                CategoryDictionary categoryDictionary,
+                                BookFacetIndex bookFacetIndex,
+                                ContentIndex contentIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idSequenceService = idSequenceService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.bookPayloadCache = bookPayloadCache;
+        this.categoryDictionary = categoryDictionary;
+        this.bookFacetIndex = bookFacetIndex;
+        this.contentIndex = contentIndex;
+    }
+
+    /**
+     * Reads the whole stream and writes it to the catalog. Batches are committed as they
+     * fill up; if the input turns out to be malformed, ingest stops there and the report
+     * carries the error alongside the counts of what was already written.
+     */
+    public IngestReportDTO ingest(InputStream in, Format format) throws IOException {
+        long started = System.nanoTime();
+        int batchSize = Math.max(1, config.getBatchSize());
+        Progress progress = new Progress();
+        List<BookDTO> batch = new ArrayList<>(batchSize);
+        String error = null;
+
+        try (MappingIterator<?> rows = openRows(in, format)) {
+            while (true) {
+                long rowNumber = progress.rowsRead + 1;
+                BookDTO row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    progress.rowsRead++;
+                    Object value = rows.nextValue();
+                    row = format == Format.CSV ? fromCsv(asCsvRow(value)) : (BookDTO) value;
+                } catch (DatabindException e) {
+                    // A single row with a bad value; the iterator resyncs to the next row
+                    log.debug("Skipping unreadable row {}: {}", rowNumber, e.getOriginalMessage());
+                    progress.skipped++;
+                    continue;
+                } catch (JsonProcessingException e) {
+                    error = "Malformed " + format + " input at row " + rowNumber + ": " + e.getOriginalMessage();
+                    break;
+                }
+
+                if (row == null || (isBlank(row.getGoogleBooksId()) && isBlank(row.getIsbn()))) {
+                    progress.skipped++;
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    flush(batch, progress);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, progress);
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        IngestReportDTO report = IngestReportDTO.builder()
+                .format(format.name())
+                .rowsRead(progress.rowsRead)
+                .inserted(progress.inserted)
+                .updated(progress.updated)
+                .skipped(progress.skipped)
+                .failed(progress.failed)
+                .batches(progress.batches)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(seconds > 0 ? Math.round(progress.rowsRead / seconds * 10) / 10.0 : 0.0)
+                .error(error)
+                .build();
+        log.info("Catalog ingest ({}) finished: {} rows read, {} inserted, {} updated, {} skipped, {} failed in {} ms ({} rows/s)",
+                format, report.getRowsRead(), report.getInserted(), report.getUpdated(), report.getSkipped(),
+                report.getFailed(), report.getElapsedMillis(), report.getRowsPerSecond());
+        if (error != null) {
+            log.warn("Catalog ingest stopped early: {}", error);
+        }
+        return report;
+    }
+
+    private MappingIterator<?> openRows(InputStream in, Format format) throws IOException {
+        if (format == Format.CSV) {
+            CsvSchema schema = CsvSchema.emptySchema().withHeader();
+            return csvMapper.readerForMapOf(String.class).with(schema).readValues(in);
+        }
+        // NDJSON is a sequence of root-level JSON objects
+        return objectMapper.readerFor(BookDTO.class).readValues(in);
+    }
+
+    private void flush(List<BookDTO> batch, Progress progress) {
+        progress.batches++;
+        try {
+            progress.add(transactionTemplate.execute(status -> writeBatch(batch)));
+        } catch (DataAccessException e) {
+            log.warn("Ingest batch of {} rows rejected ({}); retrying row by row",
+                    batch.size(), e.getMostSpecificCause().getMessage());
+            for (BookDTO row : batch) {
+                try {
+                    progress.add(transactionTemplate.execute(status -> writeBatch(List.of(row))));
+                } catch (DataAccessException rowError) {
+                    progress.failed++;
+                    log.debug("Ingest row rejected (googleBooksId={}, isbn={}): {}", row.getGoogleBooksId(),
+                            row.getIsbn(), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private WriteResult writeBatch(List<BookDTO> rows) {
+        Map<String, Long> existingByGoogleId = new HashMap<>();
+        Map<String, Long> existingByIsbn = new HashMap<>();
+        lookupExisting(rows, existingByGoogleId, existingByIsbn);
+
+        // Rows matching the same book (in the database or earlier in this batch) collapse; the last one wins
+        Map<Long, BookDTO> updates = new LinkedHashMap<>();
+        List<BookDTO> inserts = new ArrayList<>();
+        Map<String, Integer> pendingByGoogleId = new HashMap<>();
+        Map<String, Integer> pendingByIsbn = new HashMap<>();
+        for (BookDTO row : rows) {
+            String googleId = blankToNull(row.getGoogleBooksId());
+            String isbn = blankToNull(row.getIsbn());
+            Long existingId = googleId != null ? existingByGoogleId.get(googleId) : null;
+            if (existingId == null && isbn != null) {
+                existingId = existingByIsbn.get(isbn);
+            }
+            if (existingId != null) {
+                updates.put(existingId, row);
+                continue;
+            }
+            Integer pending = googleId != null ? pendingByGoogleId.get(googleId) : null;
+            if (pending == null && isbn != null) {
+                pending = pendingByIsbn.get(isbn);
+            }
+            if (pending != null) {
+                inserts.set(pending, row);
+            } else {
+                pending = inserts.size();
+                inserts.add(row);
+            }
+            if (googleId != null) {
+                pendingByGoogleId.put(googleId, pending);
+            }
+            if (isbn != null) {
+                pendingByIsbn.put(isbn, pending);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<SqlParameterSource> categoryRows = new ArrayList<>();
+        // Create the batch's new categories up front, in one go; per-row lookups are then in memory
+        categoryDictionary.idsFor(rows.stream()
+                .flatMap(row -> BookNormalizer.categories(row.getCategories()).stream())
+                .toList());
+
+        if (!updates.isEmpty()) {
+            List<SqlParameterSource> params = new ArrayList<>(updates.size());
+            updates.forEach((id, row) -> {
+                params.add(bookParams(row, now).addValue("id", id));
+                addCategoryRows(categoryRows, id, row);
+            });
+            jdbcTemplate.batchUpdate(UPDATE_BOOK_SQL, params.toArray(SqlParameterSource[]::new));
+            jdbcTemplate.update("DELETE FROM book_category WHERE book_id IN (:ids)",
+                    Map.of("ids", updates.keySet()));
+            bookPayloadCache.invalidateAll(updates.keySet());
+            bookFacetIndex.refresh(updates.keySet());
+            contentIndex.refresh(updates.keySet());
+        }
+
+        if (!inserts.isEmpty()) {
+            // Ids come from the same pooled sequence Hibernate uses for Book
+            List<Long> ids = idSequenceService.allocate(IdSequenceService.BOOKS_SEQUENCE, inserts.size());
+            SqlParameterSource[] params = new SqlParameterSource[inserts.size()];
+            for (int i = 0; i < inserts.size(); i++) {
+                params[i] = bookParams(inserts.get(i), now).addValue("id", ids.get(i));
+                addCategoryRows(categoryRows, ids.get(i), inserts.get(i));
+            }
+            jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, params);
+            bookFacetIndex.refresh(ids);
+            contentIndex.refresh(ids);
+        }
+
+        if (!categoryRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CATEGORY_SQL, categoryRows.toArray(SqlParameterSource[]::new));
+        }
+        return new WriteResult(inserts.size(), rows.size() - inserts.size());
+    }
+
+    private void lookupExisting(List<BookDTO> rows, Map<String, Long> byGoogleId, Map<String, Long> byIsbn) {
+        Set<String> googleIds = new HashSet<>();
+        Set<String> isbns = new HashSet<>();
+        for (BookDTO row : rows) {
+            if (!isBlank(row.getGoogleBooksId())) {
+                googleIds.add(row.getGoogleBooksId());
+            }
+            if (!isBlank(row.getIsbn())) {
+                isbns.add(row.getIsbn());
+            }
+        }
+        if (!googleIds.isEmpty()) {
+            jdbcTemplate.query("SELECT id, google_books_id FROM books WHERE google_books_id IN (:ids)",
+                    Map.of("ids", googleIds),
+                    rs -> {
+                        byGoogleId.putIfAbsent(rs.getString("google_books_id"), rs.getLong("id"));
+                    });
+        }
+        if (!isbns.isEmpty()) {
+            jdbcTemplate.query("SELECT id, isbn FROM books WHERE isbn IN (:isbns)",
+                    Map.of("isbns", isbns),
+                    rs -> {
+                        byIsbn.put(rs.getString("isbn"), rs.getLong("id"));
+                    });
+        }
+    }
+
+    private static MapSqlParameterSource bookParams(BookDTO row, Timestamp now) {
+        return new MapSqlParameterSource()
+                .addValue("title", BookNormalizer.title(row.getTitle()), Types.VARCHAR)
+                .addValue("author", BookNormalizer.author(row.getAuthor()), Types.VARCHAR)
+                .addValue("isbn", blankToNull(row.getIsbn()), Types.VARCHAR)
+                .addValue("description", BookNormalizer.description(row.getDescription()), Types.VARCHAR)
+                .addValue("publisher", row.getPublisher(), Types.VARCHAR)
+                .addValue("publishedDate", row.getPublishedDate(), Types.VARCHAR)
+                .addValue("publishedYear", BookNormalizer.publishedYear(row.getPublishedDate()), Types.INTEGER)
+                .addValue("pageCount", row.getPageCount(), Types.INTEGER)
+                .addValue("coverImageUrl", row.getCoverImageUrl(), Types.VARCHAR)
+                .addValue("language", BookNormalizer.language(row.getLanguage()), Types.VARCHAR)
+                .addValue("googleBooksId", blankToNull(row.getGoogleBooksId()), Types.VARCHAR)
+                .addValue("openLibraryId", row.getOpenLibraryId(), Types.VARCHAR)
+                .addValue("averageRating", row.getAverageRating(), Types.DOUBLE)
+                .addValue("ratingsCount", row.getRatingsCount(), Types.INTEGER)
+                .addValue("now", now, Types.TIMESTAMP);
+    }
+
+    private void addCategoryRows(List<SqlParameterSource> target, long bookId, BookDTO row) {
+        List<Integer> categoryIds = categoryDictionary.idsFor(BookNormalizer.categories(row.getCategories()));
+        for (int i = 0; i < categoryIds.size(); i++) {
+            target.add(new MapSqlParameterSource()
+                    .addValue("bookId", bookId)
+                    .addValue("sortOrder", i)
+                    .addValue("categoryId", categoryIds.get(i)));
+        }
+    }
+
+    /**
+     * Maps a CSV row onto a BookDTO. Column names are the BookDTO property names;
+     * categories are joined with {@link IngestConfig#getCsvCategorySeparator()}.
+     * Returns null for rows whose numeric columns do not parse.
+     */
+    private BookDTO fromCsv(Map<String, String> row) {
+        try {
+            return BookDTO.builder()
+                    .title(column(row, "title"))
+                    .author(column(row, "author"))
+                    .isbn(column(row, "isbn"))
+                    .description(column(row, "description"))
+                    .publisher(column(row, "publisher"))
+                    .publishedDate(column(row, "publishedDate"))
+                    .pageCount(integerColumn(row, "pageCount"))
+                    .coverImageUrl(column(row, "coverImageUrl"))
+                    .categories(categoriesColumn(row))
+                    .language(column(row, "language"))
+                    .googleBooksId(column(row, "googleBooksId"))
+                    .openLibraryId(column(row, "openLibraryId"))
+                    .averageRating(doubleColumn(row, "averageRating"))
+                    .ratingsCount(integerColumn(row, "ratingsCount"))
+                    .build();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> asCsvRow(Object value) {
+        return (Map<String, String>) value;
+    }
+
+    private List<String> categoriesColumn(Map<String, String> row) {
+        String value = column(row, "categories");
+        if (value == null) {
+            return null;
+        }
+        return Arrays.asList(value.split(Pattern.quote(config.getCsvCategorySeparator())));
+    }
+
+    private static String column(Map<String, String> row, String name) {
+        return blankToNull(row.get(name));
+    }
+
+    private static Integer integerColumn(Map<String, String> row, String name) {
+        String value = column(row, name);
+        return value != null ? Integer.valueOf(value.trim()) : null;
+    }
+
+    private static Double doubleColumn(Map<String, String> row, String name) {
+        String value = column(row, name);
+        return value != null ? Double.valueOf(value.trim()) : null;
+    }
+
+    private static String blankToNull(String value) {
+        return isBlank(value) ? null : value;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record WriteResult(int inserted, int updated) {}
+
+    private static final class Progress {
+        long rowsRead;
+        long inserted;
+        long updated;
+        long skipped;
+        long failed;
+        long batches;
+
+        void add(WriteResult result) {
+            inserted += result.inserted();
+            updated += result.updated();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.bookbuddy.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the categories table. Every book carrying a category shares its one
+ * canonical name String, and name lookups for category browse are case-insensitive map
+ * hits that yield the integer id.
+ *
+ * Loaded on startup. Ids or names this instance has not seen (created by another
+ * instance) are read through from the database. New names are inserted in the caller's
+ * transaction and cached once it commits, so a rolled-back book write leaves neither a
+ * row nor a cached id behind.
+ */
+@Service
+@Slf4j
+public class CategoryDictionary implements SmartInitializingSingleton {
+
+    private static final String SELECT_SQL = "SELECT id, name, name_key FROM categories";
+    // A row committed since the caller last looked is left alone and loaded instead
+    private static final String INSERT_SQL = "INSERT INTO categories (id, name, name_key)"
+            + " SELECT :id, :name, :nameKey WHERE NOT EXISTS (SELECT 1 FROM categories WHERE name_key = :nameKey)";
+    private static final int CREATE_ATTEMPTS = 3;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final IdSequenceService idSequenceService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsByKey = new ConcurrentHashMap<>();
+
+    public CategoryDictionary(NamedParameterJdbcTemplate jdbcTemplate,
+                              IdSequenceService idSequenceService,
+                              PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idSequenceService = idSequenceService;
+        // Joins the caller's transaction; starts one only for callers without
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        jdbcTemplate.query(SELECT_SQL, this::register);
+        log.info("Loaded {} categories", namesById.size());
+    }
+
+    /** Lookup key of a category name: trimmed and lower-cased. */
+    public static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Canonical names for the ids, in order. Ids without a categories row are skipped. */
+    public List<String> names(Collection<Integer> ids) {
+        List<Integer> missing = ids.stream().filter(id -> !namesById.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            jdbcTemplate.query(SELECT_SQL + " WHERE id IN (:ids)", Map.of("ids", missing), this::register);
+        }
+        List<String> names = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            String name = namesById.get(id);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /** Id of the category with this name, ignoring case and surrounding blanks. */
+    public Optional<Integer> find(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        String key = key(name);
+        if (!idsByKey.containsKey(key)) {
+            loadKeys(List.of(key));
+        }
+        return Optional.ofNullable(idsByKey.get(key));
+    }
+
+    /**
+     * Ids for the names in order, creating the categories that do not exist yet. Blank
+     * names and names equal to an earlier one (ignoring case) are dropped.
+     */
+    public List<Integer> idsFor(Collection<String> names) {
+        Map<String, String> spellingByKey = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                spellingByKey.putIfAbsent(key(name), name.trim());
+            }
+        }
+        Map<String, Integer> created = idsByKey.keySet().containsAll(spellingByKey.keySet()) ? Map.of()
+                : transactionTemplate.execute(status -> create(spellingByKey));
+        List<Integer> ids = new ArrayList<>(spellingByKey.size());
+        spellingByKey.keySet().forEach(key -> ids.add(idsByKey.getOrDefault(key, created.get(key))));
+        return ids;
+    }
+
+    public int size() {
+        return namesById.size();
+    }
+
+    // Other transactions are handled by the unique name_key: a batch that collides with
+    // a concurrent insert is rolled back to its savepoint and retried after a reload
+    private Map<String, Integer> create(Map<String, String> spellingByKey) {
+        Map<String, Integer> created = new HashMap<>();
+        for (int attempt = 1; ; attempt++) {
+            Map<String, String> missing = missingKeys(spellingByKey, created);
+            if (!missing.isEmpty()) {
+                loadKeys(missing.keySet());
+                missing = missingKeys(spellingByKey, created);
+            }
+            if (missing.isEmpty()) {
+                publishOnCommit(created, spellingByKey);
+                return created;
+            }
+            try {
+                created.putAll(insert(missing));
+            } catch (DuplicateKeyException e) {
+                if (attempt == CREATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Category created concurrently, reloading: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Ids of the rows inserted; the others were committed by someone else meanwhile
+    private Map<String, Integer> insert(Map<String, String> spellingByKey) {
+        List<Long> ids = idSequenceService.allocate(IdSequenceService.CATEGORIES_SEQUENCE, spellingByKey.size());
+        List<String> keys = new ArrayList<>(spellingByKey.keySet());
+        SqlParameterSource[] params = new SqlParameterSource[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            params[i] = new MapSqlParameterSource()
+                    .addValue("id", ids.get(i).intValue())
+                    .addValue("name", spellingByKey.get(keys.get(i)))
+                    .addValue("nameKey", keys.get(i));
+        }
+        int[] counts = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<int[]>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                int[] updated = jdbcTemplate.batchUpdate(INSERT_SQL, params);
+                connection.releaseSavepoint(savepoint);
+                return updated;
+            } catch (DuplicateKeyException e) {
+                // Keeps the caller's transaction usable for the retry
+                connection.rollback(savepoint);
+                throw e;
+            }
+        });
+        Map<String, Integer> inserted = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (counts[i] != 0) {
+                inserted.put(keys.get(i), ids.get(i).intValue());
+            }
+        }
+        log.debug("Created {} categories", inserted.size());
+        return inserted;
+    }
+
+    // Other requests can use the new ids once the rows are visible to them; a rollback
+    // also drops ids this transaction read back from its own uncommitted rows
+    private void publishOnCommit(Map<String, Integer> created, Map<String, String> spellingByKey) {
+        if (created.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                created.forEach((key, id) -> {
+                    if (status == STATUS_COMMITTED) {
+                        namesById.putIfAbsent(id, spellingByKey.get(key));
+                        idsByKey.putIfAbsent(key, id);
+                    } else {
+                        namesById.remove(id);
+                        idsByKey.remove(key, id);
+                    }
+                });
+            }
+        });
+    }
+
+    private Map<String, String> missingKeys(Map<String, String> spellingByKey, Map<String, Integer> created) {
+        Map<String, String> missing = new LinkedHashMap<>();
+        spellingByKey.forEach((key, name) -> {
+            if (!idsByKey.containsKey(key) && !created.containsKey(key)) {
+                missing.put(key, name);
+            }
+        });
+        return missing;
+    }
+
+    private void loadKeys(Collection<String> keys) {
+        jdbcTemplate.query(SELECT_SQL + " WHERE name_key IN (:keys)", Map.of("keys", keys), this::register);
+    }
+
+    private void register(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        namesById.putIfAbsent(id, rs.getString("name"));
+        idsByKey.putIfAbsent(rs.getString("name_key"), id);
+    }
+}
@@ -0,0 +1,104 @@
+package com.bookbuddy.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Durable side of {@link GoogleBooksService}'s external id index: the external_ids table
+ * maps every negative id served with a search result to its Google Books id, so the id
+ * still resolves after the in-memory entry was evicted, on another instance or after a
+ * restart.
+ *
+ * Searches only queue their new ids; a scheduled flush inserts them in batches, so no
+ * search waits for a write. Until then a queued id resolves on this instance only.
+ */
+@Component
+@Slf4j
+public class ExternalIdStore {
+
+    private static final String INSERT_SQL = "INSERT INTO external_ids (external_id, google_books_id, first_served_at)"
+            + " SELECT :externalId, :googleBooksId, :now"
+            + " WHERE NOT EXISTS (SELECT 1 FROM external_ids WHERE external_id = :externalId)";
+    private static final int BATCH_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, String> unrecorded = new ConcurrentHashMap<>();
+
+    public ExternalIdStore(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Queues newly served ids for the next flush. */
+    public void record(Map<Long, String> googleBooksIds) {
+        unrecorded.putAll(googleBooksIds);
+    }
+
+    /**
+     * Writes the queued ids. A failed batch stays queued for the next flush: the search
+     * results were still valid, their ids just resolve on this instance only meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${app.external-ids.flush-interval:2s}",
+            initialDelayString = "${app.external-ids.flush-interval:2s}")
+    public synchronized void flush() {
+        List<Map.Entry<Long, String>> queued = new ArrayList<>(Map.copyOf(unrecorded).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < queued.size(); from += BATCH_SIZE) {
+            List<Map.Entry<Long, String>> batch = queued.subList(from, Math.min(from + BATCH_SIZE, queued.size()));
+            SqlParameterSource[] rows = batch.stream()
+                    .map(entry -> new MapSqlParameterSource()
+                            .addValue("externalId", entry.getKey())
+                            .addValue("googleBooksId", entry.getValue())
+                            .addValue("now", now))
+                    .toArray(SqlParameterSource[]::new);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+            } catch (DataAccessException e) {
+                // Typically another instance recording the same ids first
+                log.warn("Could not record {} external ids, retrying on the next flush: {}", rows.length, e.getMessage());
+                continue;
+            }
+            batch.forEach(entry -> unrecorded.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!unrecorded.isEmpty()) {
+            log.warn("{} external ids could not be recorded before shutdown", unrecorded.size());
+        }
+    }
+
+    /** Google Books id recorded for {@code externalId}, or null if it was never served. */
+    public String resolve(long externalId) {
+        String queued = unrecorded.get(externalId);
+        if (queued != null) {
+            return queued;
+        }
+        List<String> ids = jdbcTemplate.queryForList(
+                "SELECT google_books_id FROM external_ids WHERE external_id = :externalId",
+                Map.of("externalId", externalId), String.class);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    public int pendingCount() {
+        return unrecorded.size();
+    }
+}
@@ -1,22 +1,26 @@
 package com.bookbuddy.service;
 
-import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.BookSummaryDTO;
 import com.bookbuddy.exception.DuplicateResourceException;
 import com.bookbuddy.exception.ResourceNotFoundException;
 import com.bookbuddy.model.Book;
 import com.bookbuddy.model.Favourite;
 import com.bookbuddy.model.User;
+import com.bookbuddy.recommendation.CoOccurrenceIndex;
 import com.bookbuddy.repository.BookRepository;
 import com.bookbuddy.repository.FavouriteRepository;
 import com.bookbuddy.repository.UserRepository;
+import com.bookbuddy.trending.TrendingIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +33,9 @@ public class FavouriteService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final BookService bookService;
+    private final CoOccurrenceIndex coOccurrenceIndex;
+    private final TrendingIndex trendingIndex;
+    private final ShelfCountService shelfCountService;
     
     public void addToFavourites(Long userId, Long bookId) {
         User user = userRepository.findById(userId)
@@ -47,6 +54,9 @@ public class FavouriteService {
                 .build();
         
         favouriteRepository.save(favourite);
+        shelfCountService.adjust(userId, ShelfCountService.Delta.favourites(1));
+        coOccurrenceIndex.added(userId, bookId, CoOccurrenceIndex.Signal.FAVOURITE);
+        trendingIndex.recorded(bookId, TrendingIndex.Activity.FAVOURITE);
     }
     
     public void removeFromFavourites(Long userId, Long bookId) {
@@ -54,21 +64,32 @@ public class FavouriteService {
             throw new ResourceNotFoundException("Book not found in your favourites");
         }
         favouriteRepository.deleteByUserIdAndBookId(userId, bookId);
+        shelfCountService.adjust(userId, ShelfCountService.Delta.favourites(-1));
+        coOccurrenceIndex.removed(userId, bookId, CoOccurrenceIndex.Signal.FAVOURITE);
     }
     
-    public List<BookDTO> getFavouriteBooks(Long userId) {
-        return favouriteRepository.findByUserId(userId).stream()
-                .map(favourite -> bookService.getBookById(favourite.getBook().getId()))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<BookSummaryDTO> getFavouriteBooks(Long userId) {
+        return toSummaries(favouriteRepository.findByUserId(userId));
     }
     
-    public Page<BookDTO> getFavouriteBooks(Long userId, Pageable pageable) {
-        return favouriteRepository.findByUserId(userId, pageable)
-                .map(favourite -> bookService.getBookById(favourite.getBook().getId()));
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> getFavouriteBooks(Long userId, Pageable pageable) {
+        Page<Favourite> page = favouriteRepository.findByUserId(userId, pageable);
+        return new PageImpl<>(toSummaries(page.getContent()), pageable, page.getTotalElements());
     }
     
+    @Transactional(readOnly = true)
     public boolean isFavourite(Long userId, Long bookId) {
         return favouriteRepository.existsByUserIdAndBookId(userId, bookId);
     }
+    
+    private List<BookSummaryDTO> toSummaries(List<Favourite> favourites) {
+        List<Long> bookIds = favourites.stream()
+                .map(favourite -> favourite.getBook().getId())
+                .collect(Collectors.toList());
+        Map<Long, BookSummaryDTO> books = bookService.summarize(bookIds);
+        return bookIds.stream().map(books::get).collect(Collectors.toList());
+    }
 }
 
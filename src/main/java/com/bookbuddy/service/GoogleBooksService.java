@@ -1,40 +1,68 @@
 package com.bookbuddy.service;
 
+import com.bookbuddy.config.GoogleBooksResilienceConfig;
 import com.bookbuddy.dto.BookDTO;
-import com.bookbuddy.dto.external.GoogleBooksResponse;
-import com.bookbuddy.dto.external.GoogleBooksResponse.GoogleBookItem;
-import com.bookbuddy.dto.external.GoogleBooksResponse.VolumeInfo;
+import com.bookbuddy.exception.ExternalServiceUnavailableException;
+import com.bookbuddy.resilience.CircuitBreaker;
+import com.bookbuddy.resilience.TokenBucketRateLimiter;
 import lombok.extern.slf4j.Slf4j;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.beans.factory.annotation.Autowired;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 public class GoogleBooksService {
 
-    private final WebClient.Builder webClientBuilder;
-    private final String baseUrl;
+    private final WebClient webClient;
     private final String apiKey;
-    // Caffeine cache to avoid hitting Google Books too often
+    private final Duration requestTimeout;
+    // Maps the raw response bytes straight into BookDTOs
+    private final GoogleBooksVolumeParser volumeParser;
+    // Stops hammering Google Books while it is failing; half-open probes detect recovery
+    private final CircuitBreaker circuitBreaker;
+    // Spreads our daily quota over the day so a burst of misses cannot exhaust it
+    private final TokenBucketRateLimiter rateLimiter;
+    // Caffeine cache to avoid hitting Google Books too often. Callers get copies of the
+    // cached DTOs (sharing only their immutable categories), so edits never reach the cache.
     private final Cache<String, List<BookDTO>> cache;
+    // Reverse lookup from the external ids we handed out to their Google Books ids; also
+    // filters which ids still need recording in the durable store
+    private final Cache<Long, String> externalIdIndex;
+    // Null in unit tests; ids then resolve only while they are in externalIdIndex
+    private final ExternalIdStore externalIdStore;
+    // Generous upper bound for one search page, even when partial responses are ignored
+    private static final int MAX_RESPONSE_BYTES = 2 * 1024 * 1024;
     // Fallback cover image when Google Books returns none
-    private static final String FALLBACK_COVER_URL = "https://blogger.googleusercontent.com/img/b/R29vZ2xl/AVvXsEiUsbbnb2SYp053Rxou8To35w3VmcQ6vdDiPOoJLEWj6K1xN4eEUP-DtU-eFBpCbds5rHF7j5ps5HgQwfb8AR9jVQscuAx075_Z9mgALEeA1ifPxFza-GoSqA5_nRSznye0xNM7kCfZF010_ARn1gb6DMhXeByOC9u1_ljqwNgmvPNmRmZSpeNi7zSpXh25/s320/round-icons-sYodBkUvFBI-unsplash.jpg";
-    // Temporary id generator for external results (negative values to avoid DB collisions)
+    static final String FALLBACK_COVER_URL = "https://blogger.googleusercontent.com/img/b/R29vZ2xl/AVvXsEiUsbbnb2SYp053Rxou8To35w3VmcQ6vdDiPOoJLEWj6K1xN4eEUP-DtU-eFBpCbds5rHF7j5ps5HgQwfb8AR9jVQscuAx075_Z9mgALEeA1ifPxFza-GoSqA5_nRSznye0xNM7kCfZF010_ARn1gb6DMhXeByOC9u1_ljqwNgmvPNmRmZSpeNi7zSpXh25/s320/round-icons-sYodBkUvFBI-unsplash.jpg";
+    // Fallback id source for the rare external result without a Google Books id
     private final java.util.concurrent.atomic.AtomicLong tempIdCounter = new java.util.concurrent.atomic.AtomicLong(-1L);
+    // External ids stay within JavaScript's safe integer range (2^53)
+    private static final long EXTERNAL_ID_MASK = (1L << 52) - 1;
     private final Counter cacheHitCounter;
     private final Counter cacheMissCounter;
+    private final Counter circuitRejectedCounter;
+    private final Counter rateLimitedCounter;
+    // Size of each Google Books response body; null when no registry is available
+    private final DistributionSummary responseBytes;
 
     private static final Counter NO_OP_COUNTER = new Counter() {
         @Override
@@ -62,177 +90,253 @@ public class GoogleBooksService {
             WebClient.Builder webClientBuilder,
             @Value("${external.api.google-books.base-url}") String baseUrl,
             @Value("${external.api.google-books.api-key}") String apiKey,
-            @Autowired(required = false) MeterRegistry meterRegistry) {
-        this.webClientBuilder = webClientBuilder;
-        this.baseUrl = baseUrl;
+            GoogleBooksResilienceConfig resilienceConfig,
+            ObjectMapper objectMapper,
+            @Autowired(required = false) MeterRegistry meterRegistry,
+            @Autowired(required = false) ExternalIdStore externalIdStore) {
+        // Clone so setting the base URL does not leak into the shared builder bean
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_RESPONSE_BYTES))
+                .build();
+        this.volumeParser = new GoogleBooksVolumeParser(objectMapper.getFactory());
         this.apiKey = apiKey;
+        this.requestTimeout = resilienceConfig.getRequestTimeout();
+        this.circuitBreaker = new CircuitBreaker(
+                resilienceConfig.getFailureThreshold(), resilienceConfig.getOpenDuration());
+        this.rateLimiter = new TokenBucketRateLimiter(
+                resilienceConfig.getDailyQuota(), Duration.ofDays(1), resilienceConfig.getBurstCapacity());
         this.cache = Caffeine.newBuilder()
                 .expireAfterWrite(Duration.ofMinutes(5))
                 .maximumSize(1000)
                 .build();
+        this.externalIdIndex = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofHours(6))
+                .maximumSize(50_000)
+                .build();
+        this.externalIdStore = externalIdStore;
         if (meterRegistry != null) {
             this.cacheHitCounter = meterRegistry.counter("googlebooks.cache.hit");
             this.cacheMissCounter = meterRegistry.counter("googlebooks.cache.miss");
+            this.circuitRejectedCounter = meterRegistry.counter("googlebooks.circuit.rejected");
+            this.rateLimitedCounter = meterRegistry.counter("googlebooks.ratelimiter.rejected");
+            this.responseBytes = DistributionSummary.builder("googlebooks.response.bytes")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            // 0 = closed, 1 = half-open, 2 = open
+            Gauge.builder("googlebooks.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                    .register(meterRegistry);
+            Gauge.builder("googlebooks.ratelimiter.available.permits", rateLimiter,
+                            TokenBucketRateLimiter::availablePermits)
+                    .register(meterRegistry);
         } else {
             // Use no-op counters if registry is unavailable (e.g., in tests)
             this.cacheHitCounter = NO_OP_COUNTER;
             this.cacheMissCounter = NO_OP_COUNTER;
+            this.circuitRejectedCounter = NO_OP_COUNTER;
+            this.rateLimitedCounter = NO_OP_COUNTER;
+            this.responseBytes = null;
         }
     }
 
+    /**
+     * Searches Google Books.
+     *
+     * Upstream failures are logged and yield an empty list, as before. When the circuit is
+     * open or the client-side quota is exhausted the call is not attempted at all and an
+     * {@link ExternalServiceUnavailableException} is thrown so callers can fall back.
+     */
     public List<BookDTO> searchBooks(String query, int maxResults) {
-        try {
-            WebClient webClient = webClientBuilder.baseUrl(baseUrl).build();
+        return searchBooks(query, 0, maxResults);
+    }
 
-            int cappedMax = Math.max(1, Math.min(maxResults, 40));
+    /**
+     * Searches one page of Google Books results starting at {@code startIndex}
+     * (at most 40 per page, Google's limit).
+     */
+    public List<BookDTO> searchBooks(String query, int startIndex, int maxResults) {
+        return searchBooks(query, startIndex, maxResults, false);
+    }
 
-            String cacheKey = query + "|" + cappedMax;
-            List<BookDTO> cached = cache.getIfPresent(cacheKey);
-            if (cached != null) {
-                cacheHitCounter.increment();
-                return cached.stream()
-                        .map(this::cloneDTOWithNewTempIdIfNeeded)
-                        .collect(Collectors.toList());
-            }
-            cacheMissCounter.increment();
-
-            GoogleBooksResponse response = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/volumes")
-                            .queryParam("q", query)
-                            .queryParam("maxResults", cappedMax)
-                            .queryParam("key", apiKey)
-                            .build())
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), clientResponse -> {
-                        log.warn("Google Books API returned status {} for query={}", clientResponse.statusCode(), query);
-                        return Mono.empty();
-                    })
-                    .bodyToMono(GoogleBooksResponse.class)
-                    .onErrorResume(e -> {
-                        log.error("Error calling Google Books API: {}", e.getMessage());
-                        return Mono.empty();
-                    })
-                    .block();
+    /**
+     * Like {@link #searchBooks(String, int, int)}, but an upstream failure throws an
+     * {@link ExternalServiceUnavailableException} instead of yielding an empty page, for
+     * callers that must tell "no more results" from "no answer".
+     */
+    public List<BookDTO> searchBooksOrFail(String query, int startIndex, int maxResults) {
+        return searchBooks(query, startIndex, maxResults, true);
+    }
 
-                if (response == null || response.getItems() == null) {
-                return new ArrayList<>();
-                }
+    private List<BookDTO> searchBooks(String query, int startIndex, int maxResults, boolean failOnError) {
+        int cappedMax = Math.max(1, Math.min(maxResults, 40));
+        int start = Math.max(0, startIndex);
 
-                List<BookDTO> results = response.getItems().stream()
-                    .map(this::convertToBookDTO)
-                    .filter(java.util.Objects::nonNull)
-                    .collect(Collectors.toList());
+        String cacheKey = query + "|" + start + "|" + cappedMax;
+        List<BookDTO> cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            cacheHitCounter.increment();
+            return copies(cached);
+        }
+        cacheMissCounter.increment();
 
-                // cache a copy (without consuming temp ids for cached copy)
-                cache.put(cacheKey, new ArrayList<>(results));
+        byte[] body = callGoogleBooks("search query=" + query, client -> client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/volumes")
+                        .queryParam("q", query)
+                        .queryParam("startIndex", start)
+                        .queryParam("maxResults", cappedMax)
+                        // Partial response: only the fields the parser reads
+                        .queryParam("fields", GoogleBooksVolumeParser.SEARCH_FIELDS)
+                        .queryParam("key", apiKey)
+                        .build())
+                .retrieve()
+                .bodyToMono(byte[].class));
+
+        if (body == null) {
+            if (failOnError) {
+                throw new ExternalServiceUnavailableException("Google Books search failed");
+            }
+            return new ArrayList<>();
+        }
 
-                return results.stream()
-                    .map(this::cloneDTOWithNewTempIdIfNeeded)
-                    .collect(Collectors.toList());
+        try {
+            List<BookDTO> parsed = new ArrayList<>(cappedMax);
+            Map<Long, String> unrecorded = new HashMap<>();
+            volumeParser.parseSearchResponse(body, dto -> parsed.add(completeExternalDTO(dto, unrecorded)));
+            if (externalIdStore != null) {
+                externalIdStore.record(unrecorded);
+            }
 
+            // Ids are stable, so the parsed DTOs can serve this and every later hit
+            cache.put(cacheKey, List.copyOf(parsed));
+            return copies(parsed);
         } catch (Exception e) {
             log.error("Error searching books: {}", e.getMessage());
+            if (failOnError) {
+                throw new ExternalServiceUnavailableException("Google Books search failed");
+            }
             return new ArrayList<>();
         }
     }
 
     public BookDTO getBookById(String googleBooksId) {
-        try {
-            WebClient webClient = webClientBuilder.baseUrl(baseUrl).build();
-
-            GoogleBookItem item = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/volumes/{id}")
-                            .queryParam("key", apiKey)
-                            .build(googleBooksId))
-                    .retrieve()
-                    .bodyToMono(GoogleBookItem.class)
-                    .onErrorResume(e -> {
-                        log.error("Error fetching book from Google Books API: {}", e.getMessage());
-                        return Mono.empty();
-                    })
-                    .block();
+        byte[] body = callGoogleBooks("volume id=" + googleBooksId, client -> client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/volumes/{id}")
+                        .queryParam("fields", GoogleBooksVolumeParser.VOLUME_FIELDS)
+                        .queryParam("key", apiKey)
+                        .build(googleBooksId))
+                .retrieve()
+                .bodyToMono(byte[].class));
 
-            return item != null ? convertToBookDTO(item) : null;
+        if (body == null) {
+            return null;
+        }
 
+        try {
+            BookDTO dto = volumeParser.parseVolume(body);
+            if (dto == null) {
+                log.warn("VolumeInfo is null for item: {}", googleBooksId);
+                return null;
+            }
+            // Imported right away, so its id needs no durable record
+            return completeExternalDTO(dto, new HashMap<>());
         } catch (Exception e) {
             log.error("Error getting book by ID: {}", e.getMessage());
             return null;
         }
     }
 
-    private BookDTO convertToBookDTO(GoogleBookItem item) {
-        VolumeInfo info = item.getVolumeInfo();
+    /**
+     * Runs one Google Books request through the circuit breaker and rate limiter.
+     * Returns null when the request failed; throws when it was not attempted.
+     */
+    private <T> T callGoogleBooks(String description, Function<WebClient, Mono<T>> request) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            circuitRejectedCounter.increment();
+            throw new ExternalServiceUnavailableException("Google Books is temporarily unavailable");
+        }
+        if (!rateLimiter.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            rateLimitedCounter.increment();
+            throw new ExternalServiceUnavailableException("Google Books request quota exhausted");
+        }
 
-        if (info == null) {
-            log.warn("VolumeInfo is null for item: {}", item.getId());
+        try {
+            T result = request.apply(webClient)
+                    .timeout(requestTimeout)
+                    .block();
+            circuitBreaker.recordSuccess();
+            if (responseBytes != null && result instanceof byte[] bytes) {
+                responseBytes.record(bytes.length);
+            }
+            return result;
+        } catch (WebClientResponseException e) {
+            log.warn("Google Books API returned status {} for {}", e.getStatusCode(), description);
+            // Only throttling and server errors say something about upstream health
+            if (e.getStatusCode().value() == 429 || e.getStatusCode().is5xxServerError()) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+            return null;
+        } catch (Exception e) {
+            log.error("Error calling Google Books API for {}: {}", description, e.getMessage());
+            circuitBreaker.recordFailure();
             return null;
         }
+    }
 
-        String title = (info.getTitle() != null && !info.getTitle().isBlank()) ? info.getTitle() : "Untitled";
-
-        String isbn = null;
-        if (info.getIndustryIdentifiers() != null) {
-            isbn = info.getIndustryIdentifiers().stream()
-                    .filter(id -> "ISBN_13".equals(id.getType()) || "ISBN_10".equals(id.getType()))
-                    .map(GoogleBooksResponse.IndustryIdentifier::getIdentifier)
-                    .findFirst()
-                    .orElse(null);
-        }
-
-        String author = (info.getAuthors() != null && !info.getAuthors().isEmpty())
-                ? String.join(", ", info.getAuthors())
-                : "Unknown Author";
-
-        String coverImage = null;
-        if (info.getImageLinks() != null) {
-            coverImage = info.getImageLinks().getThumbnail() != null
-                    ? info.getImageLinks().getThumbnail()
-                    : info.getImageLinks().getSmallThumbnail();
-        }
-        if (coverImage == null || coverImage.isBlank()) {
-            coverImage = FALLBACK_COVER_URL;
-        }
-
-        return BookDTO.builder()
-            // Assign a temporary unique id for external results so client can refer to them
-            .id(tempIdCounter.getAndDecrement())
-            .title(title)
-                .author(author)
-                .isbn(isbn)
-                .description(info.getDescription())
-                .publisher(info.getPublisher())
-                .publishedDate(info.getPublishedDate())
-                .pageCount(info.getPageCount())
-                .coverImageUrl(coverImage)
-                .categories(info.getCategories())
-                .language(info.getLanguage())
-                .googleBooksId(item.getId())
-                .averageRating(info.getAverageRating() != null ? info.getAverageRating() : 0.0)
-                .ratingsCount(info.getRatingsCount() != null ? info.getRatingsCount() : 0)
-                .build();
+    /**
+     * Stable negative id for an external result, derived from its Google Books id
+     * (64-bit FNV-1a folded into 52 bits), so the same volume always gets the same id.
+     */
+    public static long externalIdFor(String googleBooksId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < googleBooksId.length(); i++) {
+            hash ^= googleBooksId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return -1L - ((hash ^ (hash >>> 52)) & EXTERNAL_ID_MASK);
     }
 
-    private BookDTO cloneDTOWithNewTempIdIfNeeded(BookDTO dto) {
-        if (dto == null) return null;
-        // create a shallow clone but assign a fresh temporary id for each consumer
-        return BookDTO.builder()
-                .id(tempIdCounter.getAndDecrement())
-                .title(dto.getTitle())
-                .author(dto.getAuthor())
-                .isbn(dto.getIsbn())
-                .description(dto.getDescription())
-                .publisher(dto.getPublisher())
-                .publishedDate(dto.getPublishedDate())
-                .pageCount(dto.getPageCount())
-                .coverImageUrl(dto.getCoverImageUrl())
-                .categories(dto.getCategories())
-                .language(dto.getLanguage())
-                .googleBooksId(dto.getGoogleBooksId())
-                .averageRating(dto.getAverageRating())
-                .ratingsCount(dto.getRatingsCount())
-                .build();
+    /**
+     * Google Books id behind an external id handed out by any instance, or null if the id
+     * was never served. Ids of results without a Google Books id are never recorded.
+     */
+    public String resolveExternalId(long externalId) {
+        String googleBooksId = externalIdIndex.getIfPresent(externalId);
+        if (googleBooksId == null && externalIdStore != null) {
+            googleBooksId = externalIdStore.resolve(externalId);
+            if (googleBooksId != null) {
+                externalIdIndex.put(externalId, googleBooksId);
+            }
+        }
+        return googleBooksId;
     }
 
-}
\ No newline at end of file
+    private static List<BookDTO> copies(List<BookDTO> books) {
+        List<BookDTO> copies = new ArrayList<>(books.size());
+        books.forEach(book -> copies.add(book.toBuilder().build()));
+        return copies;
+    }
+
+    private BookDTO completeExternalDTO(BookDTO dto, Map<Long, String> unrecorded) {
+        if (dto.getGoogleBooksId() != null) {
+            long externalId = externalIdFor(dto.getGoogleBooksId());
+            if (externalIdIndex.asMap().putIfAbsent(externalId, dto.getGoogleBooksId()) == null) {
+                unrecorded.put(externalId, dto.getGoogleBooksId());
+            }
+            dto.setId(externalId);
+        } else {
+            dto.setId(tempIdCounter.getAndDecrement());
+        }
+        if (dto.getCategories() != null) {
+            dto.setCategories(Collections.unmodifiableList(dto.getCategories()));
+        }
+        if (dto.getCoverImageUrl() == null || dto.getCoverImageUrl().isBlank()) {
+            dto.setCoverImageUrl(FALLBACK_COVER_URL);
+        }
+        return dto;
+    }
+}
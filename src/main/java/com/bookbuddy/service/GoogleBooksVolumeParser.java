@@ -0,0 +1,241 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.BookDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for Google Books volume JSON.
+ *
+ * Walks the token stream once and fills {@link BookDTO}s directly, skipping every field
+ * that {@link GoogleBooksService} does not use. No intermediate item/volumeInfo objects
+ * or JSON trees are built. Values of an unexpected shape (an object where a string is
+ * expected, a string among the items) are skipped whole rather than ending the parse.
+ * Returned DTOs carry no id and may lack a cover; the service completes them.
+ */
+final class GoogleBooksVolumeParser {
+
+    /** Partial-response selector for a single volume (GET /volumes/{id}). */
+    static final String VOLUME_FIELDS = "id,volumeInfo(title,authors,publisher,publishedDate,description,"
+            + "industryIdentifiers,pageCount,categories,averageRating,ratingsCount,"
+            + "imageLinks(thumbnail,smallThumbnail),language)";
+
+    /** Partial-response selector for a volume search (GET /volumes?q=). */
+    static final String SEARCH_FIELDS = "items(" + VOLUME_FIELDS + ")";
+
+    private final JsonFactory jsonFactory;
+
+    GoogleBooksVolumeParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /** Parses a volume search response, passing each usable volume to the consumer. */
+    void parseSearchResponse(byte[] json, Consumer<BookDTO> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (nextElement(parser)) {
+                        if (parser.currentToken() != JsonToken.START_OBJECT) {
+                            parser.skipChildren();
+                            continue;
+                        }
+                        BookDTO dto = readVolume(parser);
+                        if (dto != null) {
+                            consumer.accept(dto);
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /** Parses a single volume response; returns null if it has no volumeInfo. */
+    BookDTO parseVolume(byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return readVolume(parser);
+        }
+    }
+
+    // Parser is positioned on the volume's START_OBJECT; leaves it on the matching END_OBJECT
+    private BookDTO readVolume(JsonParser parser) throws IOException {
+        String googleBooksId = null;
+        BookDTO dto = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field)) {
+                googleBooksId = scalarText(parser);
+            } else if ("volumeInfo".equals(field) && value == JsonToken.START_OBJECT) {
+                dto = readVolumeInfo(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (dto == null) {
+            return null;
+        }
+        dto.setGoogleBooksId(googleBooksId);
+        return dto;
+    }
+
+    private BookDTO readVolumeInfo(JsonParser parser) throws IOException {
+        BookDTO dto = new BookDTO();
+        String authors = null;
+        String thumbnail = null;
+        String smallThumbnail = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "title" -> dto.setTitle(scalarText(parser));
+                case "authors" -> authors = readJoinedStrings(parser);
+                case "publisher" -> dto.setPublisher(scalarText(parser));
+                case "publishedDate" -> dto.setPublishedDate(scalarText(parser));
+                case "description" -> dto.setDescription(scalarText(parser));
+                case "industryIdentifiers" -> dto.setIsbn(readIsbn(parser));
+                case "pageCount" -> dto.setPageCount(scalar(parser) ? parser.getValueAsInt() : null);
+                case "categories" -> dto.setCategories(readStrings(parser));
+                case "averageRating" -> dto.setAverageRating(scalar(parser) ? parser.getValueAsDouble() : null);
+                case "ratingsCount" -> dto.setRatingsCount(scalar(parser) ? parser.getValueAsInt() : null);
+                case "language" -> dto.setLanguage(scalarText(parser));
+                case "imageLinks" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String link = parser.currentName();
+                        parser.nextToken();
+                        if ("thumbnail".equals(link)) {
+                            thumbnail = scalarText(parser);
+                        } else if ("smallThumbnail".equals(link)) {
+                            smallThumbnail = scalarText(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (dto.getTitle() == null || dto.getTitle().isBlank()) {
+            dto.setTitle("Untitled");
+        }
+        dto.setAuthor(authors != null && !authors.isEmpty() ? authors : "Unknown Author");
+        dto.setCoverImageUrl(thumbnail != null ? thumbnail : smallThumbnail);
+        if (dto.getAverageRating() == null) {
+            dto.setAverageRating(0.0);
+        }
+        if (dto.getRatingsCount() == null) {
+            dto.setRatingsCount(0);
+        }
+        return dto;
+    }
+
+    // Moves to the next array element; false at the array's end (or a truncated document)
+    private static boolean nextElement(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        return token != null && token != JsonToken.END_ARRAY;
+    }
+
+    // False, with the value skipped, when an object or array stands where a scalar belongs
+    private static boolean scalar(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return false;
+        }
+        return true;
+    }
+
+    private static String scalarText(JsonParser parser) throws IOException {
+        return scalar(parser) ? parser.getValueAsString() : null;
+    }
+
+    private static List<String> readStrings(JsonParser parser) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return values;
+        }
+        while (nextElement(parser)) {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                values.add(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values;
+    }
+
+    private static String readJoinedStrings(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        StringBuilder joined = null;
+        while (nextElement(parser)) {
+            if (parser.currentToken() != JsonToken.VALUE_STRING) {
+                parser.skipChildren();
+                continue;
+            }
+            if (joined == null) {
+                joined = new StringBuilder(parser.getText());
+            } else {
+                joined.append(", ").append(parser.getText());
+            }
+        }
+        return joined != null ? joined.toString() : null;
+    }
+
+    // First ISBN_13 or ISBN_10 in document order, matching the previous object-mapping logic
+    private static String readIsbn(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String isbn = null;
+        while (nextElement(parser)) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String type = null;
+            String identifier = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("type".equals(field)) {
+                    type = scalarText(parser);
+                } else if ("identifier".equals(field)) {
+                    identifier = scalarText(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (isbn == null && ("ISBN_13".equals(type) || "ISBN_10".equals(type))) {
+                isbn = identifier;
+            }
+        }
+        return isbn;
+    }
+}
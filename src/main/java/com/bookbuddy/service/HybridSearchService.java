@@ -0,0 +1,101 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.BookSummaryDTO;
+import com.bookbuddy.dto.SearchHitDTO;
+import com.bookbuddy.dto.SearchHitDTO.Source;
+import com.bookbuddy.exception.ExternalServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Combined local + Google Books search.
+ *
+ * The Google Books request is started first on a background thread, then local hits are
+ * handed to the sink as soon as the database query returns. External hits follow once
+ * Google Books answers, skipping any book already returned locally (same googleBooksId
+ * or ISBN). Time to first result is therefore the local query latency.
+ */
+@Service
+@Slf4j
+public class HybridSearchService {
+
+    private final BookService bookService;
+    private final GoogleBooksService googleBooksService;
+    private final AsyncTaskExecutor taskExecutor;
+
+    public HybridSearchService(
+            BookService bookService,
+            GoogleBooksService googleBooksService,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.bookService = bookService;
+        this.googleBooksService = googleBooksService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public void search(String query, int localLimit, int externalLimit, Consumer<SearchHitDTO> sink) {
+        CompletableFuture<List<BookDTO>> external = CompletableFuture.supplyAsync(
+                () -> googleBooksService.searchBooks(query, externalLimit), taskExecutor);
+
+        Set<String> seenGoogleIds = new HashSet<>();
+        Set<String> seenIsbns = new HashSet<>();
+        try {
+            List<BookSummaryDTO> local = bookService
+                    .searchBooksInDatabase(query, PageRequest.of(0, Math.max(1, localLimit)))
+                    .getContent();
+            for (BookSummaryDTO book : local) {
+                remember(book, seenGoogleIds, seenIsbns);
+                sink.accept(new SearchHitDTO(Source.LOCAL, book));
+            }
+        } catch (RuntimeException e) {
+            // Nothing useful will be written; do not leave the Google Books call running
+            external.cancel(true);
+            throw e;
+        }
+
+        List<BookDTO> externalResults;
+        try {
+            externalResults = external.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ExternalServiceUnavailableException) {
+                log.debug("Hybrid search for '{}' served local results only: {}", query, e.getCause().getMessage());
+            } else {
+                log.warn("External part of hybrid search for '{}' failed: {}", query, e.getMessage());
+            }
+            return;
+        }
+
+        for (BookDTO result : externalResults) {
+            BookSummaryDTO book = bookService.toSummary(result);
+            if (isDuplicate(book, seenGoogleIds, seenIsbns)) {
+                continue;
+            }
+            remember(book, seenGoogleIds, seenIsbns);
+            sink.accept(new SearchHitDTO(Source.EXTERNAL, book));
+        }
+    }
+
+    private static void remember(BookSummaryDTO book, Set<String> seenGoogleIds, Set<String> seenIsbns) {
+        if (book.getGoogleBooksId() != null) {
+            seenGoogleIds.add(book.getGoogleBooksId());
+        }
+        if (book.getIsbn() != null) {
+            seenIsbns.add(book.getIsbn());
+        }
+    }
+
+    private static boolean isDuplicate(BookSummaryDTO book, Set<String> seenGoogleIds, Set<String> seenIsbns) {
+        return (book.getGoogleBooksId() != null && seenGoogleIds.contains(book.getGoogleBooksId()))
+                || (book.getIsbn() != null && seenIsbns.contains(book.getIsbn()));
+    }
+}
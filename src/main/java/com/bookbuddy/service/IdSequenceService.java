@@ -0,0 +1,85 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.model.IdGeneration;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Access to the per-table id sequences behind the entities' pooled generators.
+ *
+ * On startup each sequence is moved past the highest id already in its table, which is
+ * the migration path for databases whose rows were created with IDENTITY columns (or
+ * seeded with explicit ids). JDBC write paths that bypass Hibernate use
+ * {@link #allocate(String, int)} so their ids never collide with Hibernate's.
+ */
+@Service
+@Slf4j
+public class IdSequenceService implements SmartInitializingSingleton {
+
+    public static final String BOOKS_SEQUENCE = "books_seq";
+    public static final String CATEGORIES_SEQUENCE = "categories_seq";
+    public static final String USER_BOOKS_SEQUENCE = "user_books_seq";
+    public static final String READING_EVENTS_SEQUENCE = "reading_events_seq";
+
+    // table -> sequence, as declared by the entities' @SequenceGenerator
+    // (categories and reading_events ids are only ever allocated here)
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "books", BOOKS_SEQUENCE,
+            "categories", CATEGORIES_SEQUENCE,
+            "users", "users_seq",
+            "user_books", USER_BOOKS_SEQUENCE,
+            "reviews", "reviews_seq",
+            "favourites", "favourites_seq",
+            "reading_events", READING_EVENTS_SEQUENCE);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequenceService(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    // Runs once every singleton (including Flyway) is ready,
+    // before the web server starts taking requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        SEQUENCES.forEach(this::alignWithTable);
+    }
+
+    /**
+     * Reserves {@code count} ids from the sequence. Blocks follow the pooled optimizer's
+     * layout (a sequence value v covers v - ALLOCATION_SIZE + 1 .. v).
+     */
+    public List<Long> allocate(String sequence, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        String nextValue = dialect.getSequenceSupport().getSequenceNextValString(sequence);
+        while (ids.size() < count) {
+            long hi = jdbcTemplate.queryForObject(nextValue, Long.class);
+            for (long id = Math.max(1, hi - IdGeneration.ALLOCATION_SIZE + 1); id <= hi && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private void alignWithTable(String table, String sequence) {
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long hi = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        // Only ever move a sequence forward, so a running instance's blocks stay valid
+        if (Math.max(1, hi - IdGeneration.ALLOCATION_SIZE + 1) <= maxId) {
+            long restartWith = maxId + IdGeneration.ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+            log.info("Moved sequence {} to {} (max id in {} is {})", sequence, restartWith, table, maxId);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.ImportJobConfig;
+import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.ImportJobDTO;
+import com.bookbuddy.dto.ImportJobDTO.Status;
+import com.bookbuddy.exception.ResourceNotFoundException;
+import com.bookbuddy.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs "import top N" requests as background jobs on a bounded worker pool.
+ *
+ * A job pages through Google Books, then persists the results in batches, each batch in
+ * its own short transaction. Job state lives in memory on the instance that accepted it
+ * and is kept for {@code app.import.retention} after the job finishes; queued and running
+ * jobs never expire, however long they take.
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+
+    private static final int GOOGLE_PAGE_SIZE = 40;
+
+    private final BookService bookService;
+    private final GoogleBooksService googleBooksService;
+    private final ThreadPoolTaskExecutor importTaskExecutor;
+    private final ImportJobConfig config;
+    private final Cache<String, ImportJob> jobs;
+
+    public ImportJobService(
+            BookService bookService,
+            GoogleBooksService googleBooksService,
+            @Qualifier("importTaskExecutor") ThreadPoolTaskExecutor importTaskExecutor,
+            ImportJobConfig config) {
+        this.bookService = bookService;
+        this.googleBooksService = googleBooksService;
+        this.importTaskExecutor = importTaskExecutor;
+        this.config = config;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new FinishedJobExpiry(config.getRetention().toNanos()))
+                .build();
+    }
+
+    public ImportJobDTO submitTopImport(String query, int maxResults) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank");
+        }
+        int requested = Math.max(1, Math.min(maxResults, config.getMaxResults()));
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), query, requested);
+        jobs.put(job.id, job);
+        try {
+            importTaskExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.invalidate(job.id);
+            throw new TooManyRequestsException("Import queue is full, try again later");
+        }
+        return job.snapshot();
+    }
+
+    public ImportJobDTO getJob(String jobId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found: " + jobId);
+        }
+        return job.snapshot();
+    }
+
+    private void run(ImportJob job) {
+        job.start();
+        try {
+            List<BookDTO> fetched = fetch(job);
+            int batchSize = Math.max(1, config.getBatchSize());
+            for (int from = 0; from < fetched.size(); from += batchSize) {
+                List<BookDTO> batch = fetched.subList(from, Math.min(from + batchSize, fetched.size()));
+                job.batchDone(batch.size(), bookService.saveExternalBooks(batch));
+            }
+            finish(job, Status.COMPLETED, null);
+            log.info("Import job {} for '{}' completed: {} imported, {} existing",
+                    job.id, job.query, job.imported, job.existing);
+        } catch (Exception e) {
+            log.error("Import job {} for '{}' failed: {}", job.id, job.query, e.getMessage());
+            finish(job, Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(ImportJob job, Status status, String error) {
+        job.finish(status, error);
+        // Re-put so the retention is counted from now
+        jobs.put(job.id, job);
+    }
+
+    private List<BookDTO> fetch(ImportJob job) {
+        List<BookDTO> results = new ArrayList<>(job.requested);
+        int startIndex = 0;
+        while (results.size() < job.requested) {
+            int pageSize = Math.min(GOOGLE_PAGE_SIZE, job.requested - results.size());
+            // An upstream failure fails the job rather than passing for the end of the results
+            List<BookDTO> page = googleBooksService.searchBooksOrFail(job.query, startIndex, pageSize);
+            // Advance by the page asked for: the parser may drop items Google did return,
+            // so a short page is not the end either; only an empty one is
+            startIndex += pageSize;
+            results.addAll(page);
+            job.fetched(results.size());
+            if (page.isEmpty()) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Unfinished jobs stay until they finish; finished ones for the retention from then
+    private record FinishedJobExpiry(long retentionNanos) implements Expiry<String, ImportJob> {
+
+        @Override
+        public long expireAfterCreate(String id, ImportJob job, long currentTime) {
+            return job.isFinished() ? retentionNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, ImportJob job, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, job, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, ImportJob job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    // Mutable job state; written by one worker thread, read by status requests
+    private static final class ImportJob {
+        private final String id;
+        private final String query;
+        private final int requested;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final List<Long> bookIds = new ArrayList<>();
+        private Status status = Status.QUEUED;
+        private int fetched;
+        private int processed;
+        private int imported;
+        private int existing;
+        private String error;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+
+        private ImportJob(String id, String query, int requested) {
+            this.id = id;
+            this.query = query;
+            this.requested = requested;
+        }
+
+        synchronized void start() {
+            status = Status.RUNNING;
+            startedAt = LocalDateTime.now();
+        }
+
+        synchronized void fetched(int count) {
+            fetched = count;
+        }
+
+        synchronized void batchDone(int size, BookService.ExternalImportResult result) {
+            processed += size;
+            imported += result.imported();
+            existing += result.existing();
+            bookIds.addAll(result.bookIds());
+        }
+
+        synchronized void finish(Status finalStatus, String failure) {
+            status = finalStatus;
+            error = failure;
+            finishedAt = LocalDateTime.now();
+        }
+
+        synchronized boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        synchronized ImportJobDTO snapshot() {
+            return ImportJobDTO.builder()
+                    .id(id)
+                    .query(query)
+                    .requested(requested)
+                    .status(status)
+                    .fetched(fetched)
+                    .processed(processed)
+                    .imported(imported)
+                    .existing(existing)
+                    .bookIds(List.copyOf(bookIds))
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
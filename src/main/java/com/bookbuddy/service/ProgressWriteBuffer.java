@@ -0,0 +1,331 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.ProgressConfig;
+import com.bookbuddy.model.UserBook.ShelfType;
+import com.bookbuddy.trending.TrendingIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Write-behind buffer for reading progress sent with {@code ?buffered=true}. E-readers
+ * report progress on every page turn; each report is folded into one pending entry per
+ * (user, book) and acknowledged without touching the database. Every
+ * {@code app.progress.flush-interval} the latest state of each entry is written with
+ * batched UPDATEs, one transaction per batch.
+ *
+ * The result matches applying the reports one by one through
+ * {@link UserBookService#updateReadingProgress}: the percentage is derived from the page
+ * when the book has a page count, an explicit percentage wins when it came with or
+ * after the latest page, and reaching 100% moves the book to READ. Pending entries are
+ * flushed on shutdown, before any synchronous write to the same book (progress update,
+ * shelf add, move or removal, single or bulk), and by the writing request itself once
+ * {@code app.progress.max-pending} entries are waiting.
+ * Reports for books not in the user's library update no row and are dropped. Each
+ * written entry appends one PROGRESS event to {@link ReadingEventLog}, plus FINISHED
+ * when it moved the book to READ, and counts as progress activity for
+ * {@link TrendingIndex}; dropped ones count for nothing.
+ */
+@Component
+@Slf4j
+public class ProgressWriteBuffer {
+
+    private static final String PROGRESS_SQL = "UPDATE user_books SET current_page = COALESCE(:page, current_page),"
+            + " progress_percentage = COALESCE(:percentage, progress_percentage), updated_at = :now"
+            + " WHERE user_id = :userId AND book_id = :bookId";
+    private static final String FINISHED_SQL = "UPDATE user_books SET current_page = COALESCE(:page, current_page),"
+            + " progress_percentage = COALESCE(:percentage, progress_percentage), updated_at = :now,"
+            + " shelf = 'READ', finished_reading_at = :now"
+            + " WHERE user_id = :userId AND book_id = :bookId";
+
+    private record Key(long userId, long bookId) {}
+
+    /**
+     * Reports for one (user, book) since the last flush, folded in arrival order.
+     * {@code percentageAfterPage} is the latest percentage sent with or after the latest
+     * page; {@code lastPercentage} the latest overall, used when the book has no page count.
+     * The maxima tell whether any report on the way reached 100%.
+     */
+    record Pending(Integer page, Double percentageAfterPage, Double lastPercentage,
+                   Integer maxPageWithoutPercentage, Double maxPercentage) {
+
+        static Pending of(Integer page, Double percentage) {
+            return new Pending(page, percentage, percentage, percentage == null ? page : null, percentage);
+        }
+
+        Pending then(Pending later) {
+            return new Pending(
+                    later.page != null ? later.page : page,
+                    later.page != null ? later.percentageAfterPage : coalesce(later.lastPercentage, percentageAfterPage),
+                    coalesce(later.lastPercentage, lastPercentage),
+                    max(maxPageWithoutPercentage, later.maxPageWithoutPercentage),
+                    max(maxPercentage, later.maxPercentage));
+        }
+
+        /** The percentage to store, or null to keep the current one. */
+        Double percentage(Integer pageCount) {
+            if (percentageAfterPage != null) {
+                return percentageAfterPage;
+            }
+            if (page != null && pageCount != null && pageCount > 0) {
+                return Math.min(page * 100.0 / pageCount, 100.0);
+            }
+            return lastPercentage;
+        }
+
+        boolean finished(Integer pageCount) {
+            Double percentage = percentage(pageCount);
+            return (percentage != null && percentage >= 100.0)
+                    || (maxPercentage != null && maxPercentage >= 100.0)
+                    || (maxPageWithoutPercentage != null && pageCount != null && pageCount > 0
+                            && maxPageWithoutPercentage * 100.0 / pageCount >= 100.0);
+        }
+
+        private static <T> T coalesce(T first, T second) {
+            return first != null ? first : second;
+        }
+
+        private static <T extends Comparable<T>> T max(T a, T b) {
+            if (a == null) {
+                return b;
+            }
+            return b == null || a.compareTo(b) >= 0 ? a : b;
+        }
+    }
+
+    private record Before(Integer page, ShelfType shelf, LocalDateTime startedAt) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadingEventLog readingEventLog;
+    private final ShelfCountService shelfCountService;
+    private final TrendingIndex trendingIndex;
+    private final ProgressConfig config;
+    private final ConcurrentHashMap<Key, Pending> pending = new ConcurrentHashMap<>();
+    // Entries a running flush has drained, until their batch is written or put back
+    private final ConcurrentHashMap<Key, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+    private final Counter accepted;
+    private final Counter written;
+    private final Counter dropped;
+
+    public ProgressWriteBuffer(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ReadingEventLog readingEventLog, ShelfCountService shelfCountService,
+                               TrendingIndex trendingIndex, ProgressConfig config, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readingEventLog = readingEventLog;
+        this.shelfCountService = shelfCountService;
+        this.trendingIndex = trendingIndex;
+        this.config = config;
+        this.accepted = meterRegistry.counter("progress.buffer.accepted");
+        this.written = meterRegistry.counter("progress.buffer.written");
+        this.dropped = meterRegistry.counter("progress.buffer.dropped");
+        Gauge.builder("progress.buffer.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    public void add(Long userId, Long bookId, Integer currentPage, Double progressPercentage) {
+        pending.merge(new Key(userId, bookId), Pending.of(currentPage, progressPercentage), Pending::then);
+        accepted.increment();
+        if (pending.size() >= config.getMaxPending()) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the pending entry for one book in the caller's transaction, ahead of a
+     * synchronous update. Waits only while a running flush is writing an older entry
+     * for the same book. If the caller's transaction rolls back, the entry is buffered
+     * again.
+     */
+    public void flush(Long userId, Long bookId) {
+        Key key = new Key(userId, bookId);
+        Pending removed = pending.remove(key);
+        // Checked after the removal: flush() marks an entry in flight before taking it
+        CountDownLatch running = inFlight.get(key);
+        if (running != null) {
+            try {
+                running.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a progress flush", e);
+            }
+            // A failed batch puts its older entry back
+            Pending requeued = pending.remove(key);
+            if (requeued != null) {
+                removed = removed == null ? requeued : requeued.then(removed);
+            }
+        }
+        if (removed == null) {
+            return;
+        }
+        Pending entry = removed;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        requeue(key, entry);
+                    }
+                }
+            });
+        }
+        write(List.of(Map.entry(key, entry)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.flush-interval:2s}",
+            initialDelayString = "${app.progress.flush-interval:2s}")
+    public synchronized void flush() {
+        int batchSize = config.getBatchSize();
+        List<Map.Entry<Key, Pending>> drained = new ArrayList<>();
+        List<CountDownLatch> batchesDone = new ArrayList<>();
+        for (Key key : pending.keySet()) {
+            if (drained.size() == batchesDone.size() * batchSize) {
+                batchesDone.add(new CountDownLatch(1));
+            }
+            CountDownLatch batchDone = batchesDone.get(batchesDone.size() - 1);
+            // Takes each entry whole and marks it in flight in one step; a report arriving
+            // afterwards starts a new one
+            pending.computeIfPresent(key, (k, entry) -> {
+                inFlight.put(k, batchDone);
+                drained.add(Map.entry(k, entry));
+                return null;
+            });
+        }
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<Map.Entry<Key, Pending>> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+            } catch (RuntimeException e) {
+                // Put the rest back under any newer reports; the next flush retries them
+                List<Map.Entry<Key, Pending>> unwritten = drained.subList(from, drained.size());
+                unwritten.forEach(entry -> requeue(entry.getKey(), entry.getValue()));
+                release(unwritten, batchesDone.subList(from / batchSize, batchesDone.size()));
+                log.warn("Progress flush failed, {} updates kept for the next attempt: {}", unwritten.size(), e.getMessage());
+                return;
+            }
+            release(batch, List.of(batchesDone.get(from / batchSize)));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("{} buffered progress updates could not be written before shutdown", pending.size());
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void release(List<Map.Entry<Key, Pending>> entries, List<CountDownLatch> batchesDone) {
+        entries.forEach(entry -> inFlight.remove(entry.getKey()));
+        batchesDone.forEach(CountDownLatch::countDown);
+    }
+
+    // An unwritten entry goes back under any reports that arrived since
+    private void requeue(Key key, Pending entry) {
+        pending.merge(key, entry, (newer, older) -> older.then(newer));
+    }
+
+    private void write(List<Map.Entry<Key, Pending>> batch) {
+        Map<Long, Integer> pageCounts = new HashMap<>();
+        jdbcTemplate.query("SELECT id, page_count FROM books WHERE id IN (:ids)",
+                Map.of("ids", batch.stream().map(entry -> entry.getKey().bookId()).distinct().toList()),
+                rs -> {
+                    int pageCount = rs.getInt("page_count");
+                    pageCounts.put(rs.getLong("id"), rs.wasNull() ? null : pageCount);
+                });
+        // The rows as they are before this flush, for the reading events
+        Map<Key, Before> before = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, book_id, current_page, shelf, started_reading_at FROM user_books"
+                        + " WHERE user_id IN (:userIds) AND book_id IN (:bookIds)",
+                Map.of("userIds", batch.stream().map(entry -> entry.getKey().userId()).distinct().toList(),
+                        "bookIds", batch.stream().map(entry -> entry.getKey().bookId()).distinct().toList()),
+                rs -> {
+                    int page = rs.getInt("current_page");
+                    Integer currentPage = rs.wasNull() ? null : page;
+                    Timestamp startedAt = rs.getTimestamp("started_reading_at");
+                    before.put(new Key(rs.getLong("user_id"), rs.getLong("book_id")), new Before(currentPage,
+                            ShelfType.valueOf(rs.getString("shelf")), startedAt == null ? null : startedAt.toLocalDateTime()));
+                });
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SqlParameterSource> progress = new ArrayList<>();
+        List<SqlParameterSource> finished = new ArrayList<>();
+        // Keys in the order of the parameters, to match the update counts back
+        List<Key> progressKeys = new ArrayList<>();
+        List<Key> finishedKeys = new ArrayList<>();
+        List<ReadingEventLog.Event> events = new ArrayList<>();
+        List<Map.Entry<Long, ShelfType>> shelfMoves = new ArrayList<>();
+        for (Map.Entry<Key, Pending> entry : batch) {
+            Key key = entry.getKey();
+            Integer pageCount = pageCounts.get(key.bookId());
+            Pending update = entry.getValue();
+            boolean done = update.finished(pageCount);
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("userId", key.userId())
+                    .addValue("bookId", key.bookId())
+                    .addValue("page", update.page(), Types.INTEGER)
+                    .addValue("percentage", update.percentage(pageCount), Types.DOUBLE)
+                    .addValue("now", Timestamp.valueOf(now));
+            (done ? finished : progress).add(params);
+            (done ? finishedKeys : progressKeys).add(key);
+
+            Before row = before.get(key);
+            if (row != null) {
+                // One event per flushed entry: the page delta covers every coalesced report
+                events.add(ReadingEventLog.Event.progress(key.userId(), key.bookId(), row.page(), update.page(), now));
+                if (done && row.shelf() != ShelfType.READ) {
+                    Integer page = update.page() != null ? update.page() : row.page();
+                    events.add(ReadingEventLog.Event.finished(key.userId(), key.bookId(), page, row.startedAt(), now));
+                    shelfMoves.add(Map.entry(key.userId(), row.shelf()));
+                }
+            }
+        }
+        int rows = recordUpdated(progressKeys, progress.isEmpty() ? new int[0]
+                : jdbcTemplate.batchUpdate(PROGRESS_SQL, progress.toArray(SqlParameterSource[]::new)));
+        rows += recordUpdated(finishedKeys, finished.isEmpty() ? new int[0]
+                : jdbcTemplate.batchUpdate(FINISHED_SQL, finished.toArray(SqlParameterSource[]::new)));
+        readingEventLog.append(events);
+        shelfMoves.forEach(move -> shelfCountService.adjust(move.getKey(),
+                ShelfCountService.Delta.moved(move.getValue(), ShelfType.READ)));
+        written.increment(rows);
+        dropped.increment(batch.size() - rows);
+    }
+
+    // Counts the rows the batch changed; only those count as trending activity
+    private int recordUpdated(List<Key> keys, int[] updateCounts) {
+        int rows = 0;
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                trendingIndex.recordedProgress(keys.get(i).userId(), keys.get(i).bookId());
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,99 @@
+package com.bookbuddy.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills books.published_year for rows written before the column existed. Runs once per
+ * start, walking the rows without a year in id order (on the (published_year, id) index),
+ * one batch per transaction. A filled row gets a new version and updated_at like any
+ * other edit, so its ETag changes. Dates without a year are marked as unparsable and
+ * skipped from then on; every write path sets the year itself, so after the first run
+ * there is nothing left to parse.
+ */
+@Component
+@Slf4j
+public class PublishedYearBackfill implements ApplicationRunner {
+
+    static final int BATCH_SIZE = 1_000;
+
+    private static final String SELECT_SQL = "SELECT id, published_date FROM books"
+            + " WHERE published_year IS NULL AND id > :after AND published_date IS NOT NULL"
+            + " AND published_date_unparsable = FALSE"
+            + " ORDER BY id FETCH FIRST " + BATCH_SIZE + " ROWS ONLY";
+    private static final String UPDATE_SQL = "UPDATE books SET published_year = :year, version = version + 1,"
+            + " updated_at = :now WHERE id = :id";
+    // Not a visible change to the book, so its version stays
+    private static final String MARK_UNPARSABLE_SQL = "UPDATE books SET published_date_unparsable = TRUE WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PublishedYearBackfill(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+        long after = 0;
+        int scanned = 0;
+        int filled = 0;
+        while (true) {
+            long from = after;
+            Batch batch = transactionTemplate.execute(status -> fillBatchAfter(from));
+            scanned += batch.scanned();
+            filled += batch.filled();
+            if (batch.scanned() < BATCH_SIZE) {
+                break;
+            }
+            after = batch.lastId();
+        }
+        if (scanned > 0) {
+            log.info("Published year backfill: {} of {} books filled in {} ms ({} dates without a year)",
+                    filled, scanned, System.currentTimeMillis() - started, scanned - filled);
+        }
+    }
+
+    private Batch fillBatchAfter(long after) {
+        List<SqlParameterSource> updates = new ArrayList<>();
+        List<Long> unparsable = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long[] lastId = {after};
+        int[] scanned = {0};
+        jdbcTemplate.query(SELECT_SQL, Map.of("after", after), rs -> {
+            long id = rs.getLong("id");
+            Integer year = BookNormalizer.publishedYear(rs.getString("published_date"));
+            if (year != null) {
+                updates.add(new MapSqlParameterSource().addValue("id", id).addValue("year", year).addValue("now", now));
+            } else {
+                unparsable.add(id);
+            }
+            lastId[0] = id;
+            scanned[0]++;
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates.toArray(SqlParameterSource[]::new));
+        }
+        if (!unparsable.isEmpty()) {
+            jdbcTemplate.update(MARK_UNPARSABLE_SQL, Map.of("ids", unparsable));
+        }
+        return new Batch(scanned[0], updates.size(), lastId[0]);
+    }
+
+    private record Batch(int scanned, int filled, long lastId) {}
+}
@@ -0,0 +1,162 @@
+package com.bookbuddy.service;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Appends to the reading_events history and keeps the per-user daily rollups in
+ * user_reading_days up to date, in the caller's transaction. Events are never updated
+ * or deleted; the rollups are what {@link ReadingStatsService} reads.
+ */
+@Component
+public class ReadingEventLog {
+
+    private static final String EVENT_SQL = "INSERT INTO reading_events"
+            + " (id, user_id, book_id, event_type, current_page, pages_read, reading_seconds, occurred_at)"
+            + " VALUES (:id, :userId, :bookId, :type, :currentPage, :pagesRead, :readingSeconds, :occurredAt)";
+    private static final String ROLLUP_UPDATE_SQL = "UPDATE user_reading_days SET pages_read = pages_read + :pagesRead,"
+            + " progress_updates = progress_updates + :progressUpdates, books_finished = books_finished + :booksFinished,"
+            + " finished_reading_seconds = finished_reading_seconds + :finishedReadingSeconds,"
+            + " timed_finishes = timed_finishes + :timedFinishes"
+            + " WHERE user_id = :userId AND activity_date = :date";
+    private static final String ROLLUP_INSERT_SQL = "INSERT INTO user_reading_days (user_id, activity_date, pages_read,"
+            + " progress_updates, books_finished, finished_reading_seconds, timed_finishes)"
+            + " VALUES (:userId, :date, :pagesRead, :progressUpdates, :booksFinished, :finishedReadingSeconds, :timedFinishes)";
+
+    public enum Type {
+        PROGRESS,
+        STARTED,
+        FINISHED
+    }
+
+    /**
+     * One reading event. {@code pagesRead} is how far a progress report moved the current
+     * page forward; {@code readingSeconds} is the time from starting to finishing a book.
+     */
+    public record Event(long userId, long bookId, Type type, Integer currentPage, int pagesRead,
+                        Long readingSeconds, LocalDateTime occurredAt) {
+
+        /** Going back a few pages reads nothing; a first report counts from page 0. */
+        public static Event progress(long userId, long bookId, Integer pageBefore, Integer pageAfter, LocalDateTime at) {
+            int pagesRead = pageAfter == null ? 0 : Math.max(0, pageAfter - (pageBefore == null ? 0 : pageBefore));
+            return new Event(userId, bookId, Type.PROGRESS, pageAfter, pagesRead, null, at);
+        }
+
+        public static Event started(long userId, long bookId, Integer currentPage, LocalDateTime at) {
+            return new Event(userId, bookId, Type.STARTED, currentPage, 0, null, at);
+        }
+
+        /** Untimed when the book was never on CURRENTLY_READING. */
+        public static Event finished(long userId, long bookId, Integer currentPage, LocalDateTime startedAt, LocalDateTime at) {
+            Long readingSeconds = startedAt == null || startedAt.isAfter(at)
+                    ? null : Duration.between(startedAt, at).toSeconds();
+            return new Event(userId, bookId, Type.FINISHED, currentPage, 0, readingSeconds, at);
+        }
+    }
+
+    private record Day(long userId, LocalDate date) {}
+
+    private record Rollup(int pagesRead, int progressUpdates, int booksFinished,
+                          long finishedReadingSeconds, int timedFinishes) {
+
+        static Rollup of(Event event) {
+            boolean finished = event.type() == Type.FINISHED;
+            boolean timed = finished && event.readingSeconds() != null;
+            return new Rollup(event.pagesRead(), event.type() == Type.PROGRESS ? 1 : 0, finished ? 1 : 0,
+                    timed ? event.readingSeconds() : 0, timed ? 1 : 0);
+        }
+
+        Rollup plus(Rollup other) {
+            return new Rollup(pagesRead + other.pagesRead, progressUpdates + other.progressUpdates,
+                    booksFinished + other.booksFinished, finishedReadingSeconds + other.finishedReadingSeconds,
+                    timedFinishes + other.timedFinishes);
+        }
+
+        boolean isEmpty() {
+            return progressUpdates == 0 && booksFinished == 0;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final IdSequenceService idSequenceService;
+
+    public ReadingEventLog(NamedParameterJdbcTemplate jdbcTemplate, IdSequenceService idSequenceService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idSequenceService = idSequenceService;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<Long> ids = idSequenceService.allocate(IdSequenceService.READING_EVENTS_SEQUENCE, events.size());
+        List<SqlParameterSource> rows = new ArrayList<>(events.size());
+        // Sorted, so concurrent writers lock a user's day rows in the same order
+        Map<Day, Rollup> days = new TreeMap<>(Comparator.comparingLong(Day::userId).thenComparing(Day::date));
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            rows.add(new MapSqlParameterSource()
+                    .addValue("id", ids.get(i))
+                    .addValue("userId", event.userId())
+                    .addValue("bookId", event.bookId())
+                    .addValue("type", event.type().name())
+                    .addValue("currentPage", event.currentPage(), Types.INTEGER)
+                    .addValue("pagesRead", event.pagesRead())
+                    .addValue("readingSeconds", event.readingSeconds(), Types.BIGINT)
+                    .addValue("occurredAt", Timestamp.valueOf(event.occurredAt())));
+            days.merge(new Day(event.userId(), event.occurredAt().toLocalDate()), Rollup.of(event), Rollup::plus);
+        }
+        jdbcTemplate.batchUpdate(EVENT_SQL, rows.toArray(SqlParameterSource[]::new));
+        days.forEach((day, rollup) -> {
+            if (!rollup.isEmpty()) {
+                addToDay(day, rollup);
+            }
+        });
+    }
+
+    private void addToDay(Day day, Rollup rollup) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", day.userId())
+                .addValue("date", day.date())
+                .addValue("pagesRead", rollup.pagesRead())
+                .addValue("progressUpdates", rollup.progressUpdates())
+                .addValue("booksFinished", rollup.booksFinished())
+                .addValue("finishedReadingSeconds", rollup.finishedReadingSeconds())
+                .addValue("timedFinishes", rollup.timedFinishes());
+        if (jdbcTemplate.update(ROLLUP_UPDATE_SQL, params) > 0) {
+            return;
+        }
+        // The day's first event. The savepoint keeps the caller's transaction usable when a
+        // concurrent request inserted the row first (JPA transactions offer no nested ones)
+        jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                jdbcTemplate.update(ROLLUP_INSERT_SQL, params);
+                connection.releaseSavepoint(savepoint);
+            } catch (DuplicateKeyException e) {
+                connection.rollback(savepoint);
+                jdbcTemplate.update(ROLLUP_UPDATE_SQL, params);
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.ReadingStatsDTO;
+import com.bookbuddy.dto.ReadingStatsDTO.DailyPages;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reading statistics from the user_reading_days rollups that {@link ReadingEventLog}
+ * maintains: one row per active day, so the cost grows with the days a user read on,
+ * not with the number of progress reports.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReadingStatsService {
+
+    static final int MAX_DAYS = 366;
+    private static final double SECONDS_PER_DAY = 86_400.0;
+
+    record DayRow(LocalDate date, int pagesRead, int booksFinished, long finishedReadingSeconds, int timedFinishes) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** {@code days} is the window of the per-day page counts, ending today. */
+    public ReadingStatsDTO getStats(Long userId, int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        List<DayRow> rows = jdbcTemplate.query(
+                "SELECT activity_date, pages_read, books_finished, finished_reading_seconds, timed_finishes"
+                        + " FROM user_reading_days WHERE user_id = ? ORDER BY activity_date",
+                (rs, rowNum) -> new DayRow(rs.getObject("activity_date", LocalDate.class), rs.getInt("pages_read"),
+                        rs.getInt("books_finished"), rs.getLong("finished_reading_seconds"), rs.getInt("timed_finishes")),
+                userId);
+        return summarize(rows, LocalDate.now(), days);
+    }
+
+    /** Rows in date order, one per active day. */
+    static ReadingStatsDTO summarize(List<DayRow> rows, LocalDate today, int days) {
+        long totalPages = 0;
+        int booksFinished = 0;
+        long finishedSeconds = 0;
+        int timedFinishes = 0;
+        int streak = 0;
+        int longestStreak = 0;
+        LocalDate previous = null;
+        Map<Integer, Integer> finishedByYear = new TreeMap<>();
+        Map<LocalDate, Integer> recentPages = new HashMap<>();
+        LocalDate windowStart = today.minusDays(days - 1L);
+
+        for (DayRow row : rows) {
+            totalPages += row.pagesRead();
+            booksFinished += row.booksFinished();
+            finishedSeconds += row.finishedReadingSeconds();
+            timedFinishes += row.timedFinishes();
+            if (row.booksFinished() > 0) {
+                finishedByYear.merge(row.date().getYear(), row.booksFinished(), Integer::sum);
+            }
+            if (!row.date().isBefore(windowStart)) {
+                recentPages.put(row.date(), row.pagesRead());
+            }
+            streak = previous != null && previous.plusDays(1).equals(row.date()) ? streak + 1 : 1;
+            longestStreak = Math.max(longestStreak, streak);
+            previous = row.date();
+        }
+
+        // A streak that ended yesterday can still be continued today
+        int currentStreak = previous != null && !previous.isBefore(today.minusDays(1)) ? streak : 0;
+        List<DailyPages> pagesPerDay = new ArrayList<>(days);
+        for (LocalDate date = windowStart; !date.isAfter(today); date = date.plusDays(1)) {
+            pagesPerDay.add(new DailyPages(date, recentPages.getOrDefault(date, 0)));
+        }
+
+        return ReadingStatsDTO.builder()
+                .totalPagesRead(totalPages)
+                .activeDays(rows.size())
+                .averagePagesPerActiveDay(rows.isEmpty() ? 0.0 : (double) totalPages / rows.size())
+                .currentStreak(currentStreak)
+                .longestStreak(longestStreak)
+                .booksFinished(booksFinished)
+                .booksFinishedByYear(finishedByYear)
+                .averageDaysToFinish(timedFinishes == 0 ? null : finishedSeconds / SECONDS_PER_DAY / timedFinishes)
+                .pagesPerDay(pagesPerDay)
+                .build();
+    }
+}
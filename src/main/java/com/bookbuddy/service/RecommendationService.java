@@ -0,0 +1,70 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.RecommendationConfig;
+import com.bookbuddy.dto.BookSummaryDTO;
+import com.bookbuddy.recommendation.CoOccurrenceIndex;
+import com.bookbuddy.recommendation.ContentIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * "Readers also shelved" and "more like this" lists. Ranking comes from
+ * {@link CoOccurrenceIndex} and {@link ContentIndex} in memory; the database is only
+ * asked for the summaries of the books returned.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RecommendationService {
+
+    private final CoOccurrenceIndex coOccurrenceIndex;
+    private final ContentIndex contentIndex;
+    private final BookService bookService;
+    private final RecommendationConfig config;
+
+    /** Co-occurrence neighbours first, topped up by content matches for books few readers have. */
+    public List<BookSummaryDTO> getSimilarBooks(Long bookId, int limit) {
+        List<Long> ids = coOccurrenceIndex.similar(bookId, checkLimit(limit));
+        if (ids.size() < limit) {
+            LinkedHashSet<Long> merged = new LinkedHashSet<>(ids);
+            for (Long id : contentIndex.similar(bookId, limit)) {
+                if (merged.size() == limit) {
+                    break;
+                }
+                merged.add(id);
+            }
+            ids = List.copyOf(merged);
+        }
+        return summaries(ids);
+    }
+
+    public List<BookSummaryDTO> getMoreLikeThis(Long bookId, int limit) {
+        return summaries(contentIndex.similar(bookId, checkLimit(limit)));
+    }
+
+    /** Empty until the user has books on a shelf or in favourites that other readers share. */
+    public List<BookSummaryDTO> getRecommendations(Long userId, int limit) {
+        return summaries(coOccurrenceIndex.recommend(userId, checkLimit(limit)));
+    }
+
+    private int checkLimit(int limit) {
+        if (limit < 1 || limit > config.getMaxResults()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + config.getMaxResults());
+        }
+        return limit;
+    }
+
+    private List<BookSummaryDTO> summaries(List<Long> bookIds) {
+        Map<Long, BookSummaryDTO> summaries = bookService.summarize(bookIds);
+        return bookIds.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
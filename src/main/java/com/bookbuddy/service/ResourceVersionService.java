@@ -0,0 +1,45 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.model.UserBook.ShelfType;
+import com.bookbuddy.repository.BookRepository;
+import com.bookbuddy.repository.ReviewRepository;
+import com.bookbuddy.repository.UserBookRepository;
+import com.bookbuddy.repository.VersionStampRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Version stamps behind the ETag/Last-Modified headers of the read endpoints. Each is a
+ * single aggregate query, so a revalidation answered with 304 never loads or serializes
+ * the rows themselves.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ResourceVersionService {
+
+    private final BookRepository bookRepository;
+    private final UserBookRepository userBookRepository;
+    private final ReviewRepository reviewRepository;
+
+    public VersionStampRow book(Long bookId) {
+        return bookRepository.findVersionStampById(bookId);
+    }
+
+    public VersionStampRow shelf(Long userId, ShelfType shelf) {
+        return userBookRepository.findVersionStampByUserIdAndShelf(userId, shelf);
+    }
+
+    public VersionStampRow library(Long userId) {
+        return userBookRepository.findVersionStampByUserId(userId);
+    }
+
+    public VersionStampRow bookReviews(Long bookId) {
+        return reviewRepository.findVersionStampByBookId(bookId);
+    }
+
+    public VersionStampRow userReviews(Long userId) {
+        return reviewRepository.findVersionStampByUserId(userId);
+    }
+}
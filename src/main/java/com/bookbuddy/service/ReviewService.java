@@ -1,6 +1,6 @@
 package com.bookbuddy.service;
 
-import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.BookSummaryDTO;
 import com.bookbuddy.dto.ReviewDTO;
 import com.bookbuddy.dto.UserDTO;
 import com.bookbuddy.exception.DuplicateResourceException;
@@ -12,13 +12,19 @@ import com.bookbuddy.model.User;
 import com.bookbuddy.repository.BookRepository;
 import com.bookbuddy.repository.ReviewRepository;
 import com.bookbuddy.repository.UserRepository;
+import com.bookbuddy.trending.TrendingIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -29,6 +35,7 @@ public class ReviewService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final BookService bookService;
+    private final TrendingIndex trendingIndex;
     
     public ReviewDTO createReview(Long userId, Long bookId, String content, Integer rating) {
         validateReview(content, rating);
@@ -36,7 +43,7 @@ public class ReviewService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        Book book = bookRepository.findById(bookId)
+        Book book = bookRepository.findByIdForRatingUpdate(bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
         
         // Check if user already reviewed this book
@@ -55,6 +62,7 @@ public class ReviewService {
         
         // Update book's average rating
         updateBookRating(bookId);
+        trendingIndex.recorded(bookId, TrendingIndex.Activity.REVIEW);
         
         return convertToDTO(review);
     }
@@ -69,6 +77,7 @@ public class ReviewService {
         if (!review.getUser().getId().equals(userId)) {
             throw new UnauthorizedException("You can only edit your own reviews");
         }
+        lockBookRating(review.getBook().getId());
         
         review.setContent(content);
         review.setRating(rating);
@@ -90,44 +99,63 @@ public class ReviewService {
         }
         
         Long bookId = review.getBook().getId();
+        lockBookRating(bookId);
         reviewRepository.delete(review);
         
         // Update book's average rating
         updateBookRating(bookId);
     }
     
+    @Transactional(readOnly = true)
     public ReviewDTO getReviewById(Long reviewId) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         return convertToDTO(review);
     }
     
+    @Transactional(readOnly = true)
     public Page<ReviewDTO> getReviewsForBook(Long bookId, Pageable pageable) {
-        return reviewRepository.findByBookId(bookId, pageable)
-                .map(this::convertToDTO);
+        Page<Review> page = reviewRepository.findByBookId(bookId, pageable);
+        return new PageImpl<>(convertToDTOs(page.getContent()), pageable, page.getTotalElements());
     }
     
+    @Transactional(readOnly = true)
     public Page<ReviewDTO> getReviewsByUser(Long userId, Pageable pageable) {
-        return reviewRepository.findByUserId(userId, pageable)
-                .map(this::convertToDTO);
+        Page<Review> page = reviewRepository.findByUserId(userId, pageable);
+        return new PageImpl<>(convertToDTOs(page.getContent()), pageable, page.getTotalElements());
     }
     
+    @Transactional(readOnly = true)
     public ReviewDTO getUserReviewForBook(Long userId, Long bookId) {
         Review review = reviewRepository.findByUserIdAndBookId(userId, bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         return convertToDTO(review);
     }
     
+    // Serializes the rating recounts of one book's review writes
+    private void lockBookRating(Long bookId) {
+        bookRepository.findByIdForRatingUpdate(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
+    }
+    
     private void updateBookRating(Long bookId) {
-        Double averageRating = reviewRepository.calculateAverageRatingForBook(bookId);
-        Integer ratingsCount = reviewRepository.countReviewsForBook(bookId);
-        
-        bookService.updateBookRating(bookId, 
-                averageRating != null ? averageRating : 0.0, 
-                ratingsCount != null ? ratingsCount : 0);
+        bookService.updateBookRating(bookId);
+    }
+    
+    // Book summaries for the whole list in one go; getBook().getId() does not load the book
+    private List<ReviewDTO> convertToDTOs(List<Review> reviews) {
+        Map<Long, BookSummaryDTO> books = bookService.summarize(
+                reviews.stream().map(review -> review.getBook().getId()).collect(Collectors.toList()));
+        return reviews.stream()
+                .map(review -> convertToDTO(review, books.get(review.getBook().getId())))
+                .collect(Collectors.toList());
     }
     
     private ReviewDTO convertToDTO(Review review) {
+        return convertToDTOs(List.of(review)).get(0);
+    }
+    
+    private ReviewDTO convertToDTO(Review review, BookSummaryDTO book) {
         UserDTO userDTO = UserDTO.builder()
                 .id(review.getUser().getId())
                 .username(review.getUser().getUsername())
@@ -136,12 +164,10 @@ public class ReviewService {
                 .profileImageUrl(review.getUser().getProfileImageUrl())
                 .build();
         
-        BookDTO bookDTO = bookService.mapToDTO(review.getBook());
-        
         return ReviewDTO.builder()
                 .id(review.getId())
                 .user(userDTO)
-                .book(bookDTO)
+                .book(book)
                 .content(review.getContent())
                 .rating(review.getRating())
                 .createdAt(review.getCreatedAt())
@@ -0,0 +1,282 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.ShelvesConfig;
+import com.bookbuddy.dto.BulkShelfResultDTO;
+import com.bookbuddy.dto.BulkShelfResultDTO.Item;
+import com.bookbuddy.dto.BulkShelfResultDTO.Outcome;
+import com.bookbuddy.model.UserBook.ShelfType;
+import com.bookbuddy.recommendation.CoOccurrenceIndex;
+import com.bookbuddy.trending.TrendingIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk versions of the {@link UserBookService} shelf writes, for users reorganizing their
+ * library. Each request runs in one transaction: one query reads the user's rows for
+ * the requested books (locking them for moves and removals), and one set-based INSERT,
+ * UPDATE or DELETE changes them. Timestamps
+ * follow the single-book methods: moving to CURRENTLY_READING sets started_reading_at,
+ * and moving to READ sets finished_reading_at, 100% progress and the last page. The
+ * shelf counters, reading events and recommendation/trending indexes are updated as the
+ * single-book writes do.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ShelfBulkService {
+
+    private static final String LIBRARY_SQL = "SELECT ub.book_id, ub.shelf, ub.current_page, ub.started_reading_at,"
+            + " (SELECT b.page_count FROM books b WHERE b.id = ub.book_id) AS page_count FROM user_books ub"
+            + " WHERE ub.user_id = :userId AND ub.book_id IN (:bookIds)";
+    // Moves and removals derive counters and events from the rows read, so they hold them
+    // until commit; in book order, so two bulk requests lock in the same order
+    private static final String LOCKED_LIBRARY_SQL = LIBRARY_SQL + " ORDER BY ub.book_id FOR UPDATE";
+    private static final String INSERT_SQL = "INSERT INTO user_books (id, user_id, book_id, shelf, progress_percentage,"
+            + " started_reading_at, finished_reading_at, created_at, updated_at)"
+            + " VALUES (:id, :userId, :bookId, :shelf, :progressPercentage, :startedAt, :finishedAt, :now, :now)";
+    // The shelf guard leaves rows alone that a concurrent request already moved
+    private static final String MOVE_SQL = "UPDATE user_books SET shelf = :shelf, updated_at = :now"
+            + " WHERE user_id = :userId AND book_id IN (:bookIds) AND shelf <> :shelf";
+    private static final String START_SQL = "UPDATE user_books SET shelf = :shelf, started_reading_at = :now,"
+            + " updated_at = :now WHERE user_id = :userId AND book_id IN (:bookIds) AND shelf <> :shelf";
+    private static final String FINISH_SQL = "UPDATE user_books SET shelf = :shelf, finished_reading_at = :now,"
+            + " progress_percentage = 100,"
+            + " current_page = COALESCE((SELECT b.page_count FROM books b WHERE b.id = user_books.book_id), current_page),"
+            + " updated_at = :now WHERE user_id = :userId AND book_id IN (:bookIds) AND shelf <> :shelf";
+    private static final String REMOVE_SQL = "DELETE FROM user_books WHERE user_id = :userId AND book_id IN (:bookIds)";
+    private static final String RATE_SQL = "UPDATE user_books SET rating = :rating, updated_at = :now"
+            + " WHERE user_id = :userId AND book_id IN (:bookIds)";
+
+    private record Row(ShelfType shelf, Integer currentPage, LocalDateTime startedAt, Integer pageCount) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final IdSequenceService idSequenceService;
+    private final ShelfCountService shelfCountService;
+    private final ReadingEventLog readingEventLog;
+    private final ProgressWriteBuffer progressWriteBuffer;
+    private final CoOccurrenceIndex coOccurrenceIndex;
+    private final TrendingIndex trendingIndex;
+    private final ShelvesConfig config;
+
+    public BulkShelfResultDTO addBooks(Long userId, List<Long> bookIds, ShelfType shelf) {
+        requireShelf(shelf);
+        List<Long> ids = uniqueIds(bookIds);
+        Set<Long> known = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM books WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+        Map<Long, Row> library = library(LIBRARY_SQL, userId, ids);
+
+        List<Item> results = new ArrayList<>(ids.size());
+        List<Long> added = new ArrayList<>();
+        for (Long bookId : ids) {
+            Outcome outcome = !known.contains(bookId) ? Outcome.BOOK_NOT_FOUND
+                    : library.containsKey(bookId) ? Outcome.ALREADY_IN_LIBRARY
+                    : Outcome.ADDED;
+            if (outcome == Outcome.ADDED) {
+                added.add(bookId);
+            }
+            results.add(new Item(bookId, outcome));
+        }
+        if (added.isEmpty()) {
+            return result(results);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Long> rowIds = idSequenceService.allocate(IdSequenceService.USER_BOOKS_SEQUENCE, added.size());
+        List<SqlParameterSource> rows = new ArrayList<>(added.size());
+        for (int i = 0; i < added.size(); i++) {
+            rows.add(new MapSqlParameterSource()
+                    .addValue("id", rowIds.get(i))
+                    .addValue("userId", userId)
+                    .addValue("bookId", added.get(i))
+                    .addValue("shelf", shelf.name())
+                    .addValue("progressPercentage", shelf == ShelfType.READ ? 100.0 : null, Types.DOUBLE)
+                    .addValue("startedAt", shelf == ShelfType.CURRENTLY_READING ? timestamp : null, Types.TIMESTAMP)
+                    .addValue("finishedAt", shelf == ShelfType.READ ? timestamp : null, Types.TIMESTAMP)
+                    .addValue("now", timestamp));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows.toArray(SqlParameterSource[]::new));
+
+        shelfCountService.adjust(userId, ShelfCountService.Delta.shelf(shelf, added.size()));
+        for (Long bookId : added) {
+            coOccurrenceIndex.added(userId, bookId, CoOccurrenceIndex.Signal.SHELF);
+            trendingIndex.recorded(bookId, TrendingIndex.Activity.SHELF_ADD);
+        }
+        return result(results);
+    }
+
+    public BulkShelfResultDTO moveBooks(Long userId, List<Long> bookIds, ShelfType newShelf) {
+        requireShelf(newShelf);
+        List<Long> ids = uniqueIds(bookIds);
+        flushBufferedProgress(userId, ids);
+        Map<Long, Row> library = library(LOCKED_LIBRARY_SQL, userId, ids);
+
+        List<Item> results = new ArrayList<>(ids.size());
+        List<Long> moved = new ArrayList<>();
+        for (Long bookId : ids) {
+            Row row = library.get(bookId);
+            Outcome outcome = row == null ? Outcome.NOT_IN_LIBRARY
+                    : row.shelf() == newShelf ? Outcome.UNCHANGED
+                    : Outcome.MOVED;
+            if (outcome == Outcome.MOVED) {
+                moved.add(bookId);
+            }
+            results.add(new Item(bookId, outcome));
+        }
+        if (moved.isEmpty()) {
+            return result(results);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String sql = switch (newShelf) {
+            case CURRENTLY_READING -> START_SQL;
+            case READ -> FINISH_SQL;
+            case WANT_TO_READ -> MOVE_SQL;
+        };
+        jdbcTemplate.update(sql, new MapSqlParameterSource()
+                .addValue("shelf", newShelf.name())
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("userId", userId)
+                .addValue("bookIds", moved));
+
+        ShelfCountService.Delta delta = ShelfCountService.Delta.NONE;
+        List<ReadingEventLog.Event> events = new ArrayList<>();
+        for (Long bookId : moved) {
+            Row row = library.get(bookId);
+            delta = delta.plus(ShelfCountService.Delta.moved(row.shelf(), newShelf));
+            if (newShelf == ShelfType.CURRENTLY_READING) {
+                events.add(ReadingEventLog.Event.started(userId, bookId, row.currentPage(), now));
+            } else if (newShelf == ShelfType.READ) {
+                Integer page = row.pageCount() != null ? row.pageCount() : row.currentPage();
+                events.add(ReadingEventLog.Event.finished(userId, bookId, page, row.startedAt(), now));
+            }
+        }
+        shelfCountService.adjust(userId, delta);
+        readingEventLog.append(events);
+        return result(results);
+    }
+
+    public BulkShelfResultDTO removeBooks(Long userId, List<Long> bookIds) {
+        List<Long> ids = uniqueIds(bookIds);
+        flushBufferedProgress(userId, ids);
+        Map<Long, Row> library = library(LOCKED_LIBRARY_SQL, userId, ids);
+
+        List<Item> results = new ArrayList<>(ids.size());
+        List<Long> removed = new ArrayList<>();
+        ShelfCountService.Delta delta = ShelfCountService.Delta.NONE;
+        for (Long bookId : ids) {
+            Row row = library.get(bookId);
+            if (row == null) {
+                results.add(new Item(bookId, Outcome.NOT_IN_LIBRARY));
+            } else {
+                removed.add(bookId);
+                delta = delta.plus(ShelfCountService.Delta.shelf(row.shelf(), -1));
+                results.add(new Item(bookId, Outcome.REMOVED));
+            }
+        }
+        if (removed.isEmpty()) {
+            return result(results);
+        }
+
+        jdbcTemplate.update(REMOVE_SQL, Map.of("userId", userId, "bookIds", removed));
+        shelfCountService.adjust(userId, delta);
+        for (Long bookId : removed) {
+            coOccurrenceIndex.removed(userId, bookId, CoOccurrenceIndex.Signal.SHELF);
+        }
+        return result(results);
+    }
+
+    public BulkShelfResultDTO rateBooks(Long userId, List<Long> bookIds, Integer rating) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        List<Long> ids = uniqueIds(bookIds);
+        Map<Long, Row> library = library(LIBRARY_SQL, userId, ids);
+
+        List<Item> results = new ArrayList<>(ids.size());
+        List<Long> rated = new ArrayList<>();
+        for (Long bookId : ids) {
+            boolean inLibrary = library.containsKey(bookId);
+            if (inLibrary) {
+                rated.add(bookId);
+            }
+            results.add(new Item(bookId, inLibrary ? Outcome.RATED : Outcome.NOT_IN_LIBRARY));
+        }
+        if (!rated.isEmpty()) {
+            jdbcTemplate.update(RATE_SQL, new MapSqlParameterSource()
+                    .addValue("rating", rating)
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                    .addValue("userId", userId)
+                    .addValue("bookIds", rated));
+        }
+        return result(results);
+    }
+
+    private static void requireShelf(ShelfType shelf) {
+        if (shelf == null) {
+            throw new IllegalArgumentException("shelf is required");
+        }
+    }
+
+    /** The requested ids in order, without nulls and duplicates. */
+    private List<Long> uniqueIds(List<Long> bookIds) {
+        if (bookIds == null || bookIds.isEmpty()) {
+            throw new IllegalArgumentException("bookIds are required");
+        }
+        if (bookIds.size() > config.getBulkMaxIds()) {
+            throw new IllegalArgumentException(
+                    "At most " + config.getBulkMaxIds() + " ids per bulk request (got " + bookIds.size() + ")");
+        }
+        Set<Long> ids = new LinkedHashSet<>(bookIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("bookIds are required");
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // Buffered reports for these books would otherwise be written over the move or dropped
+    private void flushBufferedProgress(Long userId, List<Long> bookIds) {
+        if (progressWriteBuffer.pendingCount() > 0) {
+            bookIds.forEach(bookId -> progressWriteBuffer.flush(userId, bookId));
+        }
+    }
+
+    private Map<Long, Row> library(String sql, Long userId, List<Long> bookIds) {
+        Map<Long, Row> rows = new HashMap<>();
+        jdbcTemplate.query(sql, Map.of("userId", userId, "bookIds", bookIds), rs -> {
+            int currentPage = rs.getInt("current_page");
+            Integer page = rs.wasNull() ? null : currentPage;
+            int pageCount = rs.getInt("page_count");
+            Integer pages = rs.wasNull() ? null : pageCount;
+            Timestamp startedAt = rs.getTimestamp("started_reading_at");
+            rows.put(rs.getLong("book_id"), new Row(ShelfType.valueOf(rs.getString("shelf")), page,
+                    startedAt == null ? null : startedAt.toLocalDateTime(), pages));
+        });
+        return rows;
+    }
+
+    private static BulkShelfResultDTO result(List<Item> results) {
+        int succeeded = (int) results.stream().filter(item -> item.getOutcome().isSuccess()).count();
+        return BulkShelfResultDTO.builder()
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+}
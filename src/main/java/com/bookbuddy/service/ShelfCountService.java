@@ -0,0 +1,185 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.ShelfCountsDTO;
+import com.bookbuddy.model.UserBook.ShelfType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user shelf and favourite counters in user_shelf_counts. Writers add deltas in their
+ * own transaction, so a count commits or rolls back with the row it counts. A user
+ * without a counter row (created after the V8 backfill) gets one counted from the source
+ * tables on the first write.
+ *
+ * Every {@code app.shelf-counts.reconcile-interval} the counters are compared with
+ * user_books and favourites, and the ones that drifted (writes made outside the services,
+ * manual fixes in the database) are recounted.
+ */
+@Service
+@Slf4j
+public class ShelfCountService {
+
+    private static final String ADJUST_SQL = "UPDATE user_shelf_counts SET want_to_read = want_to_read + :wantToRead,"
+            + " currently_reading = currently_reading + :currentlyReading, read_books = read_books + :read,"
+            + " favourites = favourites + :favourites, updated_at = :now WHERE user_id = :userId";
+    private static final String WANT_TO_READ_COUNT =
+            "(SELECT COUNT(*) FROM user_books ub WHERE ub.user_id = :userId AND ub.shelf = 'WANT_TO_READ')";
+    private static final String CURRENTLY_READING_COUNT =
+            "(SELECT COUNT(*) FROM user_books ub WHERE ub.user_id = :userId AND ub.shelf = 'CURRENTLY_READING')";
+    private static final String READ_COUNT =
+            "(SELECT COUNT(*) FROM user_books ub WHERE ub.user_id = :userId AND ub.shelf = 'READ')";
+    private static final String FAVOURITES_COUNT = "(SELECT COUNT(*) FROM favourites f WHERE f.user_id = :userId)";
+    private static final String RECOUNT_SQL = "UPDATE user_shelf_counts SET want_to_read = " + WANT_TO_READ_COUNT
+            + ", currently_reading = " + CURRENTLY_READING_COUNT + ", read_books = " + READ_COUNT
+            + ", favourites = " + FAVOURITES_COUNT + ", updated_at = :now WHERE user_id = :userId";
+    private static final String INSERT_SQL = "INSERT INTO user_shelf_counts (user_id, want_to_read, currently_reading,"
+            + " read_books, favourites, updated_at) SELECT id, " + WANT_TO_READ_COUNT + ", " + CURRENTLY_READING_COUNT
+            + ", " + READ_COUNT + ", " + FAVOURITES_COUNT + ", :now FROM users WHERE id = :userId";
+    // Users whose counters differ from the source tables, or who have none yet
+    private static final String DRIFT_SQL = "SELECT u.id FROM users u"
+            + " LEFT JOIN (SELECT user_id,"
+            + "   SUM(CASE WHEN shelf = 'WANT_TO_READ' THEN 1 ELSE 0 END) AS want_to_read,"
+            + "   SUM(CASE WHEN shelf = 'CURRENTLY_READING' THEN 1 ELSE 0 END) AS currently_reading,"
+            + "   SUM(CASE WHEN shelf = 'READ' THEN 1 ELSE 0 END) AS read_books"
+            + "   FROM user_books GROUP BY user_id) s ON s.user_id = u.id"
+            + " LEFT JOIN (SELECT user_id, COUNT(*) AS favourites FROM favourites GROUP BY user_id) f ON f.user_id = u.id"
+            + " LEFT JOIN user_shelf_counts c ON c.user_id = u.id"
+            + " WHERE c.user_id IS NULL"
+            + " OR c.want_to_read <> COALESCE(s.want_to_read, 0)"
+            + " OR c.currently_reading <> COALESCE(s.currently_reading, 0)"
+            + " OR c.read_books <> COALESCE(s.read_books, 0)"
+            + " OR c.favourites <> COALESCE(f.favourites, 0)";
+
+    /** Changes to one user's counters. */
+    public record Delta(int wantToRead, int currentlyReading, int read, int favourites) {
+
+        public static final Delta NONE = new Delta(0, 0, 0, 0);
+
+        public static Delta shelf(ShelfType shelf, int count) {
+            return switch (shelf) {
+                case WANT_TO_READ -> new Delta(count, 0, 0, 0);
+                case CURRENTLY_READING -> new Delta(0, count, 0, 0);
+                case READ -> new Delta(0, 0, count, 0);
+            };
+        }
+
+        public static Delta moved(ShelfType from, ShelfType to) {
+            return from == to ? NONE : shelf(from, -1).plus(shelf(to, 1));
+        }
+
+        public static Delta favourites(int count) {
+            return new Delta(0, 0, 0, count);
+        }
+
+        public Delta plus(Delta other) {
+            return new Delta(wantToRead + other.wantToRead, currentlyReading + other.currentlyReading,
+                    read + other.read, favourites + other.favourites);
+        }
+
+        boolean isEmpty() {
+            return equals(NONE);
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter reconciled;
+
+    public ShelfCountService(NamedParameterJdbcTemplate jdbcTemplate, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconciled = meterRegistry.counter("shelf.counts.reconciled");
+    }
+
+    @Transactional(readOnly = true)
+    public ShelfCountsDTO getCounts(Long userId) {
+        List<ShelfCountsDTO> counts = jdbcTemplate.query(
+                "SELECT want_to_read, currently_reading, read_books, favourites FROM user_shelf_counts WHERE user_id = :userId",
+                Map.of("userId", userId),
+                (rs, rowNum) -> new ShelfCountsDTO(rs.getInt("want_to_read"), rs.getInt("currently_reading"),
+                        rs.getInt("read_books"), rs.getInt("favourites")));
+        // No row yet means the user has never shelved or favourited a book
+        return counts.isEmpty() ? new ShelfCountsDTO() : counts.get(0);
+    }
+
+    /** Applies {@code delta} in the caller's transaction, after its shelf or favourite write. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjust(Long userId, Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("wantToRead", delta.wantToRead())
+                .addValue("currentlyReading", delta.currentlyReading())
+                .addValue("read", delta.read())
+                .addValue("favourites", delta.favourites())
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        if (jdbcTemplate.update(ADJUST_SQL, params) > 0) {
+            return;
+        }
+        // No row yet: count the user's books, including the caller's pending write
+        entityManager.flush();
+        jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                jdbcTemplate.update(INSERT_SQL, params);
+                connection.releaseSavepoint(savepoint);
+            } catch (DuplicateKeyException e) {
+                // A concurrent write created the row first, without seeing ours
+                connection.rollback(savepoint);
+                jdbcTemplate.update(ADJUST_SQL, params);
+            }
+            return null;
+        });
+    }
+
+    /** Recounts the users whose counters drifted; returns how many were corrected. */
+    @Scheduled(fixedDelayString = "${app.shelf-counts.reconcile-interval:6h}",
+            initialDelayString = "${app.shelf-counts.reconcile-interval:6h}")
+    public int reconcile() {
+        List<Long> drifted = jdbcTemplate.queryForList(DRIFT_SQL, Map.of(), Long.class);
+        int corrected = 0;
+        for (Long userId : drifted) {
+            Map<String, Object> params = Map.of("userId", userId, "now", Timestamp.valueOf(LocalDateTime.now()));
+            try {
+                // One short transaction per user; each statement recounts from the source tables
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (jdbcTemplate.update(RECOUNT_SQL, params) == 0) {
+                        jdbcTemplate.update(INSERT_SQL, params);
+                    }
+                });
+                corrected++;
+            } catch (DataAccessException e) {
+                log.warn("Could not reconcile shelf counts for user {}: {}", userId, e.getMessage());
+            }
+        }
+        if (corrected > 0) {
+            reconciled.increment(corrected);
+            log.info("Reconciled shelf counts for {} users", corrected);
+        }
+        return corrected;
+    }
+}
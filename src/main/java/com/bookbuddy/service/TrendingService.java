@@ -0,0 +1,53 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.TrendingConfig;
+import com.bookbuddy.dto.BookSummaryDTO;
+import com.bookbuddy.trending.TrendingIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Trending books ranked in memory by {@link TrendingIndex}; the database is only asked
+ * for the summaries of the books returned. Unlike GET /api/books?external=true, which
+ * runs fixed Google Books queries, this follows what our own readers do and costs no
+ * upstream calls.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TrendingService {
+
+    private final TrendingIndex trendingIndex;
+    private final CategoryDictionary categoryDictionary;
+    private final BookService bookService;
+    private final TrendingConfig config;
+
+    /** Overall when category is null; an unknown category has no trending books. */
+    public List<BookSummaryDTO> getTrending(String category, int limit) {
+        if (limit < 1 || limit > config.getMaxResults()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + config.getMaxResults());
+        }
+        Integer categoryId = null;
+        if (category != null && !category.isBlank()) {
+            Optional<Integer> found = categoryDictionary.find(category);
+            if (found.isEmpty()) {
+                return List.of();
+            }
+            categoryId = found.get();
+        }
+        List<Long> bookIds = trendingIndex.trending(categoryId, limit).stream()
+                .map(TrendingIndex.Ranked::bookId)
+                .toList();
+        Map<Long, BookSummaryDTO> summaries = bookService.summarize(bookIds);
+        return bookIds.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -1,6 +1,6 @@
 package com.bookbuddy.service;
 
-import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.BookSummaryDTO;
 import com.bookbuddy.dto.UserBookDTO;
 import com.bookbuddy.exception.DuplicateResourceException;
 import com.bookbuddy.exception.ResourceNotFoundException;
@@ -8,18 +8,24 @@ import com.bookbuddy.model.Book;
 import com.bookbuddy.model.User;
 import com.bookbuddy.model.UserBook;
 import com.bookbuddy.model.UserBook.ShelfType;
+import com.bookbuddy.recommendation.CoOccurrenceIndex;
 import com.bookbuddy.repository.BookRepository;
 import com.bookbuddy.repository.UserBookRepository;
 import com.bookbuddy.repository.UserRepository;
+import com.bookbuddy.trending.TrendingIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,12 +38,19 @@ public class UserBookService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final BookService bookService;
+    private final CoOccurrenceIndex coOccurrenceIndex;
+    private final TrendingIndex trendingIndex;
+    private final ProgressWriteBuffer progressWriteBuffer;
+    private final ReadingEventLog readingEventLog;
+    private final ShelfCountService shelfCountService;
     
     public UserBookDTO addBookToShelf(Long userId, Long bookId, ShelfType shelf) {
         return addBookToShelf(userId, bookId, shelf, null);
     }
 
     public UserBookDTO addBookToShelf(Long userId, Long bookId, ShelfType shelf, String notes) {
+        // A report buffered for a removed copy of this book must not land on the new row
+        progressWriteBuffer.flush(userId, bookId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
@@ -64,41 +77,59 @@ public class UserBookService {
         }
 
         userBook = userBookRepository.save(userBook);
+        shelfCountService.adjust(userId, ShelfCountService.Delta.shelf(shelf, 1));
+        coOccurrenceIndex.added(userId, bookId, CoOccurrenceIndex.Signal.SHELF);
+        trendingIndex.recorded(bookId, TrendingIndex.Activity.SHELF_ADD);
         return convertToDTO(userBook);
     }
     
     public UserBookDTO moveBookToShelf(Long userId, Long bookId, ShelfType newShelf) {
+        // Buffered reports came first; written later they could move the book back to READ
+        progressWriteBuffer.flush(userId, bookId);
         UserBook userBook = userBookRepository.findByUserIdAndBookId(userId, bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found in your library"));
         
         ShelfType oldShelf = userBook.getShelf();
         userBook.setShelf(newShelf);
+        LocalDateTime now = LocalDateTime.now();
         
         // Update timestamps based on shelf change
         if (newShelf == ShelfType.CURRENTLY_READING && oldShelf != ShelfType.CURRENTLY_READING) {
-            userBook.setStartedReadingAt(LocalDateTime.now());
+            userBook.setStartedReadingAt(now);
+            readingEventLog.append(List.of(
+                    ReadingEventLog.Event.started(userId, bookId, userBook.getCurrentPage(), now)));
         } else if (newShelf == ShelfType.READ && oldShelf != ShelfType.READ) {
-            userBook.setFinishedReadingAt(LocalDateTime.now());
+            userBook.setFinishedReadingAt(now);
             userBook.setProgressPercentage(100.0);
             if (userBook.getBook().getPageCount() != null) {
                 userBook.setCurrentPage(userBook.getBook().getPageCount());
             }
+            readingEventLog.append(List.of(ReadingEventLog.Event.finished(
+                    userId, bookId, userBook.getCurrentPage(), userBook.getStartedReadingAt(), now)));
         }
         
         userBook = userBookRepository.save(userBook);
+        shelfCountService.adjust(userId, ShelfCountService.Delta.moved(oldShelf, newShelf));
         return convertToDTO(userBook);
     }
     
     public void removeBookFromLibrary(Long userId, Long bookId) {
-        if (!userBookRepository.existsByUserIdAndBookId(userId, bookId)) {
-            throw new ResourceNotFoundException("Book not found in your library");
-        }
+        progressWriteBuffer.flush(userId, bookId);
+        ShelfType shelf = userBookRepository.findShelfByUserIdAndBookId(userId, bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found in your library"));
         userBookRepository.deleteByUserIdAndBookId(userId, bookId);
+        shelfCountService.adjust(userId, ShelfCountService.Delta.shelf(shelf, -1));
+        coOccurrenceIndex.removed(userId, bookId, CoOccurrenceIndex.Signal.SHELF);
     }
     
     public UserBookDTO updateReadingProgress(Long userId, Long bookId, Integer currentPage, Double progressPercentage) {
+        // Buffered reports for this book come first, as they arrived earlier
+        progressWriteBuffer.flush(userId, bookId);
         UserBook userBook = userBookRepository.findByUserIdAndBookId(userId, bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found in your library"));
+        Integer pageBefore = userBook.getCurrentPage();
+        ShelfType oldShelf = userBook.getShelf();
+        LocalDateTime now = LocalDateTime.now();
         
         if (currentPage != null) {
             userBook.setCurrentPage(currentPage);
@@ -114,16 +145,35 @@ public class UserBookService {
             userBook.setProgressPercentage(progressPercentage);
         }
         
+        List<ReadingEventLog.Event> events = new ArrayList<>();
+        events.add(ReadingEventLog.Event.progress(userId, bookId, pageBefore, currentPage, now));
+        
         // Auto-move to "Read" shelf if completed
         if (userBook.getProgressPercentage() != null && userBook.getProgressPercentage() >= 100.0) {
             userBook.setShelf(ShelfType.READ);
-            userBook.setFinishedReadingAt(LocalDateTime.now());
+            userBook.setFinishedReadingAt(now);
+            if (oldShelf != ShelfType.READ) {
+                events.add(ReadingEventLog.Event.finished(
+                        userId, bookId, userBook.getCurrentPage(), userBook.getStartedReadingAt(), now));
+            }
         }
         
+        readingEventLog.append(events);
         userBook = userBookRepository.save(userBook);
+        shelfCountService.adjust(userId, ShelfCountService.Delta.moved(oldShelf, userBook.getShelf()));
+        trendingIndex.recordedProgress(userId, bookId);
         return convertToDTO(userBook);
     }
     
+    /**
+     * Accepts a progress report without a database round trip; it is written within
+     * app.progress.flush-interval by {@link ProgressWriteBuffer}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void bufferReadingProgress(Long userId, Long bookId, Integer currentPage, Double progressPercentage) {
+        progressWriteBuffer.add(userId, bookId, currentPage, progressPercentage);
+    }
+    
     public UserBookDTO rateBook(Long userId, Long bookId, Integer rating) {
         UserBook userBook = userBookRepository.findByUserIdAndBookId(userId, bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found in your library"));
@@ -134,34 +184,45 @@ public class UserBookService {
         return convertToDTO(userBook);
     }
     
+    @Transactional(readOnly = true)
     public List<UserBookDTO> getBooksByShelf(Long userId, ShelfType shelf) {
-        return userBookRepository.findByUserIdAndShelf(userId, shelf).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(userBookRepository.findByUserIdAndShelf(userId, shelf));
     }
     
+    @Transactional(readOnly = true)
     public Page<UserBookDTO> getBooksByShelf(Long userId, ShelfType shelf, Pageable pageable) {
-        return userBookRepository.findByUserIdAndShelf(userId, shelf, pageable)
-                .map(this::convertToDTO);
+        Page<UserBook> page = userBookRepository.findByUserIdAndShelf(userId, shelf, pageable);
+        return new PageImpl<>(convertToDTOs(page.getContent()), pageable, page.getTotalElements());
     }
     
+    @Transactional(readOnly = true)
     public Page<UserBookDTO> getReadingTimeline(Long userId, Pageable pageable) {
-        return userBookRepository.findRecentlyUpdatedByUserId(userId, pageable)
-                .map(this::convertToDTO);
+        Page<UserBook> page = userBookRepository.findRecentlyUpdatedByUserId(userId, pageable);
+        return new PageImpl<>(convertToDTOs(page.getContent()), pageable, page.getTotalElements());
     }
     
+    @Transactional(readOnly = true)
     public List<UserBookDTO> getCurrentlyReading(Long userId) {
-        return userBookRepository.findCurrentlyReadingByUserId(userId).stream()
-                .map(this::convertToDTO)
+        return convertToDTOs(userBookRepository.findCurrentlyReadingByUserId(userId));
+    }
+    
+    // Book summaries for the whole list in one go; getBook().getId() does not load the book
+    private List<UserBookDTO> convertToDTOs(List<UserBook> userBooks) {
+        Map<Long, BookSummaryDTO> books = bookService.summarize(
+                userBooks.stream().map(userBook -> userBook.getBook().getId()).collect(Collectors.toList()));
+        return userBooks.stream()
+                .map(userBook -> convertToDTO(userBook, books.get(userBook.getBook().getId())))
                 .collect(Collectors.toList());
     }
     
     private UserBookDTO convertToDTO(UserBook userBook) {
-        BookDTO bookDTO = bookService.getBookById(userBook.getBook().getId());
-
+        return convertToDTOs(List.of(userBook)).get(0);
+    }
+    
+    private UserBookDTO convertToDTO(UserBook userBook, BookSummaryDTO book) {
         return UserBookDTO.builder()
                 .id(userBook.getId())
-                .book(bookDTO)
+                .book(book)
                 .shelf(userBook.getShelf())
                 .currentPage(userBook.getCurrentPage())
                 .progressPercentage(userBook.getProgressPercentage())
@@ -0,0 +1,241 @@
+package com.bookbuddy.trending;
+
+import com.bookbuddy.config.TrendingConfig;
+import com.bookbuddy.facet.BookFacetIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Trending books from our own readers' activity. Every shelf add, review and favourite
+ * adds a weight to the book's counter, and the weight halves every
+ * {@code app.trending.half-life}. Progress counts once per reader and book within
+ * {@code app.trending.progress-window}, so one reader reporting every page adds no more
+ * than one who reports once.
+ *
+ * Decay uses forward decay: an activity at time t adds {@code weight * e^(λ(t - L))}
+ * for a fixed landmark L, so stored values never have to be decayed in place. Dividing
+ * by {@code e^(λ(now - L))} gives today's score and preserves the order between books.
+ * Counters are {@link DoubleAdder}s, striped cells updated with CAS, so concurrent
+ * writers of one popular book do not contend on a lock.
+ *
+ * The lists are recomputed every {@code app.trending.refresh-interval} in one pass over
+ * the counters. The pass keeps a bounded min-heap of the top K overall and one per
+ * category, with categories read from {@link BookFacetIndex}. Readers get that snapshot.
+ * On startup the last {@code app.trending.warmup-window} of shelf adds, reviews and
+ * favourites is read back from the database with the original timestamps.
+ */
+@Component
+@Slf4j
+public class TrendingIndex implements ApplicationRunner {
+
+    /** What a reader did with a book. */
+    public enum Activity {
+        SHELF_ADD,
+        PROGRESS,
+        REVIEW,
+        FAVOURITE
+    }
+
+    /** A book and its decayed score at the last refresh. */
+    public record Ranked(long bookId, double score) {}
+
+    // Rebase the landmark before e^(λ(t - L)) gets near the range of a double
+    private static final double MAX_EXPONENT = 64 * Math.log(2);
+    private static final Comparator<Ranked> WEAKEST_FIRST = Comparator.comparingDouble(Ranked::score)
+            .thenComparing(Comparator.comparingLong(Ranked::bookId).reversed());
+
+    private record Epoch(long landmarkMillis, ConcurrentHashMap<Long, DoubleAdder> counters) {}
+
+    private record Snapshot(List<Ranked> overall, Map<Integer, List<Ranked>> byCategory) {}
+
+    private record Reader(long userId, long bookId) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BookFacetIndex bookFacetIndex;
+    private final TrendingConfig config;
+    private final double lambda;
+    // (reader, book) pairs whose progress already counted in the current window
+    private final Cache<Reader, Boolean> progressCounted;
+
+    private volatile Epoch epoch = new Epoch(System.currentTimeMillis(), new ConcurrentHashMap<>());
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of());
+
+    public TrendingIndex(NamedParameterJdbcTemplate jdbcTemplate, BookFacetIndex bookFacetIndex, TrendingConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookFacetIndex = bookFacetIndex;
+        this.config = config;
+        this.lambda = Math.log(2) / config.getHalfLife().toMillis();
+        this.progressCounted = Caffeine.newBuilder()
+                .expireAfterWrite(config.getProgressWindow())
+                .maximumSize(config.getProgressPairsTracked())
+                .build();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long now = System.currentTimeMillis();
+        Map<String, Object> params = Map.of("since", new Timestamp(now - config.getWarmupWindow().toMillis()));
+        int[] loaded = {0};
+        warmUp("SELECT book_id, created_at FROM user_books WHERE created_at >= :since", params, Activity.SHELF_ADD, loaded);
+        warmUp("SELECT book_id, created_at FROM reviews WHERE created_at >= :since", params, Activity.REVIEW, loaded);
+        warmUp("SELECT book_id, created_at FROM favourites WHERE created_at >= :since", params, Activity.FAVOURITE, loaded);
+        refresh(now);
+        log.info("Trending index warmed up from {} activities since {}", loaded[0], params.get("since"));
+    }
+
+    /** Counts the activity once the current transaction commits, or now if there is none. */
+    public void recorded(Long bookId, Activity activity) {
+        if (bookId == null) {
+            return;
+        }
+        afterCommit(() -> add(bookId, activity, System.currentTimeMillis()));
+    }
+
+    /**
+     * Counts a progress report like {@link #recorded}, unless this reader's progress on
+     * the book already counted within {@code app.trending.progress-window}.
+     */
+    public void recordedProgress(Long userId, Long bookId) {
+        if (userId == null || bookId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            if (progressCounted.asMap().putIfAbsent(new Reader(userId, bookId), Boolean.TRUE) == null) {
+                add(bookId, Activity.PROGRESS, System.currentTimeMillis());
+            }
+        });
+    }
+
+    /** Up to {@code limit} trending books, overall or within one category, best first. */
+    public List<Ranked> trending(Integer categoryId, int limit) {
+        Snapshot current = snapshot;
+        List<Ranked> list = categoryId == null ? current.overall() : current.byCategory().getOrDefault(categoryId, List.of());
+        return list.subList(0, Math.min(limit, list.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval:30s}",
+            initialDelayString = "${app.trending.refresh-interval:30s}")
+    public void refresh() {
+        refresh(System.currentTimeMillis());
+    }
+
+    // Package-private for tests: an activity at the given time
+    void add(long bookId, Activity activity, long atMillis) {
+        Epoch current = epoch;
+        DoubleAdder counter = current.counters().get(bookId);
+        if (counter == null) {
+            counter = current.counters().computeIfAbsent(bookId, id -> new DoubleAdder());
+        }
+        counter.add(weight(activity) * Math.exp(lambda * (atMillis - current.landmarkMillis())));
+    }
+
+    // Package-private for tests: recomputes the lists as of the given time
+    synchronized void refresh(long nowMillis) {
+        long started = System.nanoTime();
+        if (lambda * (nowMillis - epoch.landmarkMillis()) > MAX_EXPONENT) {
+            rebase(nowMillis);
+        }
+        Epoch current = epoch;
+        double scale = Math.exp(-lambda * (nowMillis - current.landmarkMillis()));
+        int k = config.getTopK();
+
+        PriorityQueue<Ranked> overall = new PriorityQueue<>(k + 1, WEAKEST_FIRST);
+        Map<Integer, PriorityQueue<Ranked>> byCategory = new HashMap<>();
+        int dropped = 0;
+        for (Map.Entry<Long, DoubleAdder> entry : current.counters().entrySet()) {
+            double score = entry.getValue().sum() * scale;
+            if (score < config.getMinScore()) {
+                // an add racing this removal is lost, but it was worth little more than the threshold
+                current.counters().remove(entry.getKey(), entry.getValue());
+                dropped++;
+                continue;
+            }
+            Ranked ranked = new Ranked(entry.getKey(), score);
+            offer(overall, ranked, k);
+            for (int categoryId : bookFacetIndex.categoryIds(entry.getKey())) {
+                offer(byCategory.computeIfAbsent(categoryId, id -> new PriorityQueue<>(k + 1, WEAKEST_FIRST)), ranked, k);
+            }
+        }
+
+        Map<Integer, List<Ranked>> categoryLists = new HashMap<>();
+        byCategory.forEach((categoryId, heap) -> categoryLists.put(categoryId, bestFirst(heap)));
+        snapshot = new Snapshot(bestFirst(overall), categoryLists);
+        log.debug("Trending lists refreshed: {} books counted, {} dropped, {} categories in {} us",
+                current.counters().size(), dropped, categoryLists.size(), (System.nanoTime() - started) / 1_000);
+    }
+
+    // Moves the landmark to now. Adds that picked up the old epoch just before the swap
+    // and land after its counters were folded in are lost; this runs once per 64 half-lives.
+    private void rebase(long nowMillis) {
+        Epoch old = epoch;
+        Epoch rebased = new Epoch(nowMillis, new ConcurrentHashMap<>());
+        epoch = rebased;
+        double scale = Math.exp(-lambda * (nowMillis - old.landmarkMillis()));
+        old.counters().forEach((bookId, counter) ->
+                rebased.counters().computeIfAbsent(bookId, id -> new DoubleAdder()).add(counter.sum() * scale));
+    }
+
+    private static void afterCommit(Runnable count) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count.run();
+                }
+            });
+        } else {
+            count.run();
+        }
+    }
+
+    private void warmUp(String sql, Map<String, Object> params, Activity activity, int[] loaded) {
+        jdbcTemplate.query(sql, params, rs -> {
+            Timestamp at = rs.getTimestamp("created_at");
+            add(rs.getLong("book_id"), activity, at.getTime());
+            loaded[0]++;
+        });
+    }
+
+    private double weight(Activity activity) {
+        TrendingConfig.Weights weights = config.getWeights();
+        return switch (activity) {
+            case SHELF_ADD -> weights.getShelfAdd();
+            case PROGRESS -> weights.getProgress();
+            case REVIEW -> weights.getReview();
+            case FAVOURITE -> weights.getFavourite();
+        };
+    }
+
+    private static void offer(PriorityQueue<Ranked> heap, Ranked ranked, int k) {
+        if (heap.size() < k) {
+            heap.add(ranked);
+        } else if (WEAKEST_FIRST.compare(ranked, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(ranked);
+        }
+    }
+
+    private static List<Ranked> bestFirst(PriorityQueue<Ranked> heap) {
+        List<Ranked> list = new ArrayList<>(heap);
+        list.sort(WEAKEST_FIRST.reversed());
+        return List.copyOf(list);
+    }
+}
@@ -0,0 +1,9 @@
+-- Advanced search compares language with an index equality, and writes now store it
+-- trimmed and lower-cased; bring existing rows in line so "EN" rows match "en".
+-- Changed rows get a new version and updated_at, so their ETags change.
+
+UPDATE books
+SET language = CASE WHEN TRIM(language) = '' THEN NULL ELSE LOWER(TRIM(language)) END,
+    version = version + 1,
+    updated_at = CURRENT_TIMESTAMP
+WHERE language <> LOWER(TRIM(language)) OR TRIM(language) = '';
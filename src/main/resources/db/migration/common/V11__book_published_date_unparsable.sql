@@ -0,0 +1,4 @@
+-- Set by PublishedYearBackfill on rows whose published_date carries no year, so later
+-- starts skip them instead of parsing them again. Write paths set published_year
+-- themselves and never need the flag.
+ALTER TABLE books ADD COLUMN published_date_unparsable boolean DEFAULT FALSE NOT NULL;
@@ -0,0 +1,9 @@
+-- Pooled id sequences (see IdGeneration). IF NOT EXISTS because databases created by
+-- ddl-auto=update after the switch from IDENTITY already have them; IdSequenceService
+-- moves each one past the ids already in its table on startup.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS reviews_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS favourites_seq START WITH 1 INCREMENT BY 50;
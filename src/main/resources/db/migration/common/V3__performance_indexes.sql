@@ -0,0 +1,17 @@
+-- Indexes for the repository query paths not already covered by a primary key or a
+-- unique constraint. The (user_id, book_id) unique constraints serve the plain
+-- per-user lookups; isbn is unique.
+
+-- Shelf listings: findByUserIdAndShelf, findCurrentlyReadingByUserId
+CREATE INDEX IF NOT EXISTS idx_user_books_user_shelf ON user_books (user_id, shelf);
+-- Reading timeline: findRecentlyUpdatedByUserId (ORDER BY updated_at)
+CREATE INDEX IF NOT EXISTS idx_user_books_user_updated ON user_books (user_id, updated_at);
+-- Reviews for a book, newest first
+CREATE INDEX IF NOT EXISTS idx_reviews_book_created ON reviews (book_id, created_at);
+-- Favourites for a user, newest first
+CREATE INDEX IF NOT EXISTS idx_favourites_user_created ON favourites (user_id, created_at);
+-- External id lookups during imports and ingest
+CREATE INDEX IF NOT EXISTS idx_books_google_books_id ON books (google_books_id);
+CREATE INDEX IF NOT EXISTS idx_books_open_library_id ON books (open_library_id);
+-- Loading and replacing a book's categories
+CREATE INDEX IF NOT EXISTS idx_book_categories_book ON book_categories (book_id);
@@ -0,0 +1,7 @@
+-- Optimistic-lock version and modification time for books. Both feed the ETag and
+-- Last-Modified headers of the book, shelf and review read endpoints.
+ALTER TABLE books ADD COLUMN version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN updated_at timestamp(6);
+UPDATE books SET updated_at = created_at;
+ALTER TABLE books ALTER COLUMN updated_at SET NOT NULL;
+
@@ -0,0 +1,43 @@
+-- Categories become a dimension table with integer ids, and books reference them through
+-- book_category instead of repeating the name in every book_categories row.
+-- name_key is the trimmed, lower-cased name. Existing rows carry no order to tell which
+-- spelling came first, so the backfill keeps the lexicographically smallest trimmed one
+-- (MIN, so "Science Fiction" over "science fiction"); names created later keep the
+-- spelling of their first use.
+
+CREATE SEQUENCE IF NOT EXISTS categories_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE categories (
+    id integer NOT NULL,
+    name varchar(255) NOT NULL,
+    name_key varchar(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categories_name_key UNIQUE (name_key)
+);
+
+INSERT INTO categories (id, name, name_key)
+SELECT ROW_NUMBER() OVER (ORDER BY LOWER(TRIM(category))), MIN(TRIM(category)), LOWER(TRIM(category))
+FROM book_categories
+WHERE category IS NOT NULL AND TRIM(category) <> ''
+GROUP BY LOWER(TRIM(category));
+
+-- sort_order keeps each book's category order (Book.categoryIds is an ordered list)
+CREATE TABLE book_category (
+    book_id bigint NOT NULL,
+    sort_order integer NOT NULL,
+    category_id integer NOT NULL,
+    PRIMARY KEY (book_id, sort_order),
+    CONSTRAINT fk_book_category_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_book_category_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+INSERT INTO book_category (book_id, sort_order, category_id)
+SELECT book_id, ROW_NUMBER() OVER (PARTITION BY book_id ORDER BY category_id) - 1, category_id
+FROM (SELECT DISTINCT bc.book_id, c.id AS category_id
+      FROM book_categories bc
+      JOIN categories c ON c.name_key = LOWER(TRIM(bc.category))) pairs;
+
+-- Category browse: an integer equality lookup instead of LOWER(category) over the join table
+CREATE INDEX IF NOT EXISTS idx_book_category_category ON book_category (category_id, book_id);
+
+DROP TABLE book_categories;
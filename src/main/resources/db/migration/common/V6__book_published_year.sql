@@ -0,0 +1,13 @@
+-- Typed publication year for the advanced search filters. published_date stays the
+-- free-form source value; published_year is parsed from it on every write, and rows
+-- written before this migration are filled in by PublishedYearBackfill.
+ALTER TABLE books ADD COLUMN published_year integer;
+
+-- Advanced search: language is an equality filter, so it leads; the range goes second
+CREATE INDEX IF NOT EXISTS idx_books_language_year ON books (language, published_year);
+CREATE INDEX IF NOT EXISTS idx_books_language_rating ON books (language, average_rating);
+-- Range filters without a language, and the sort orders (id breaks ties for stable pages)
+CREATE INDEX IF NOT EXISTS idx_books_year ON books (published_year, id);
+CREATE INDEX IF NOT EXISTS idx_books_rating ON books (average_rating, id);
+CREATE INDEX IF NOT EXISTS idx_books_pages ON books (page_count, id);
+CREATE INDEX IF NOT EXISTS idx_books_title ON books (title, id);
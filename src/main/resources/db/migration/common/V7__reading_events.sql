@@ -0,0 +1,36 @@
+-- Append-only reading history. user_books only keeps the latest progress; every progress
+-- report and shelf move that starts or finishes a book also appends a row here.
+-- event_type: PROGRESS (pages_read is the forward page delta), STARTED or FINISHED
+-- (reading_seconds is the time since started_reading_at, when that was known).
+
+CREATE SEQUENCE IF NOT EXISTS reading_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE reading_events (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    book_id bigint NOT NULL,
+    event_type varchar(20) NOT NULL CHECK (event_type IN ('PROGRESS', 'STARTED', 'FINISHED')),
+    current_page integer,
+    pages_read integer NOT NULL,
+    reading_seconds bigint,
+    occurred_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reading_events_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_reading_events_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_reading_events_user_time ON reading_events (user_id, occurred_at);
+
+-- Per-user daily rollups, updated in the same transaction as the events they summarize,
+-- so GET /api/stats/me reads one row per active day instead of every event
+CREATE TABLE user_reading_days (
+    user_id bigint NOT NULL,
+    activity_date date NOT NULL,
+    pages_read integer NOT NULL,
+    progress_updates integer NOT NULL,
+    books_finished integer NOT NULL,
+    finished_reading_seconds bigint NOT NULL,
+    timed_finishes integer NOT NULL,
+    PRIMARY KEY (user_id, activity_date),
+    CONSTRAINT fk_user_reading_days_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
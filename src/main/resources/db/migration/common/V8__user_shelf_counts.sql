@@ -0,0 +1,23 @@
+-- Per-user shelf and favourite counters for GET /api/shelves/counts, one primary-key read
+-- instead of loading whole shelves. ShelfCountService adjusts them in the same transaction
+-- as every shelf and favourite write, and its reconciliation job corrects any drift.
+
+CREATE TABLE user_shelf_counts (
+    user_id bigint NOT NULL,
+    want_to_read integer NOT NULL,
+    currently_reading integer NOT NULL,
+    read_books integer NOT NULL,
+    favourites integer NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_shelf_counts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+INSERT INTO user_shelf_counts (user_id, want_to_read, currently_reading, read_books, favourites, updated_at)
+SELECT u.id,
+       (SELECT COUNT(*) FROM user_books ub WHERE ub.user_id = u.id AND ub.shelf = 'WANT_TO_READ'),
+       (SELECT COUNT(*) FROM user_books ub WHERE ub.user_id = u.id AND ub.shelf = 'CURRENTLY_READING'),
+       (SELECT COUNT(*) FROM user_books ub WHERE ub.user_id = u.id AND ub.shelf = 'READ'),
+       (SELECT COUNT(*) FROM favourites f WHERE f.user_id = u.id),
+       CURRENT_TIMESTAMP
+FROM users u;
@@ -0,0 +1,10 @@
+-- Negative ids handed out with Google Books search results, mapped back to their Google
+-- Books ids so /api/books/import/{id} accepts them on any instance and after restarts.
+-- Written the first time an instance serves an id; the mapping never changes.
+
+CREATE TABLE external_ids (
+    external_id bigint NOT NULL,
+    google_books_id varchar(255) NOT NULL,
+    first_served_at timestamp(6) NOT NULL,
+    PRIMARY KEY (external_id)
+);
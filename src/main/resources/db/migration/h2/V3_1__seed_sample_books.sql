@@ -1,4 +1,4 @@
--- Seed sample books for local list/search
+-- Sample books for local development (H2 only)
 
 INSERT INTO books (id, title, author, isbn, description, publisher, published_date, page_count, cover_image_url, language, google_books_id, average_rating, ratings_count, created_at)
 VALUES (1, 'The Hobbit', 'J.R.R. Tolkien', '9780261102217', 'A fantasy novel about Bilbo Baggins.', 'George Allen & Unwin', '1937', 310, '', 'en', 'GB_HOBBIT', 4.5, 1000, CURRENT_TIMESTAMP);
@@ -14,5 +14,6 @@ INSERT INTO book_categories (book_id, category) VALUES (1, 'Fantasy');
 INSERT INTO book_categories (book_id, category) VALUES (2, 'Dystopian');
 INSERT INTO book_categories (book_id, category) VALUES (3, 'Classic');
 
--- Ensure the IDENTITY/sequence for `books.id` starts after seeded IDs
-ALTER TABLE books ALTER COLUMN id RESTART WITH 4;
+-- Ensure the pooled `books_seq` hands out ids after the seeded ones:
+-- a sequence value v covers ids v-49..v, so start at max(id) + 50
+ALTER SEQUENCE books_seq RESTART WITH 53;
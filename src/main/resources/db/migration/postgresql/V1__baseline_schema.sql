@@ -0,0 +1,86 @@
+-- Baseline schema, matching what ddl-auto=update generated for the entities.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE users (
+    id bigint NOT NULL,
+    username varchar(255) NOT NULL UNIQUE,
+    email varchar(255) NOT NULL UNIQUE,
+    password varchar(255) NOT NULL,
+    first_name varchar(255),
+    last_name varchar(255),
+    bio varchar(1000),
+    profile_image_url varchar(255),
+    role varchar(255) not null check (role in ('USER', 'ADMIN')),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE books (
+    id bigint NOT NULL,
+    title varchar(255) NOT NULL,
+    author varchar(255) NOT NULL,
+    isbn varchar(255) UNIQUE,
+    description varchar(2000),
+    publisher varchar(255),
+    published_date varchar(255),
+    page_count integer,
+    cover_image_url varchar(255),
+    language varchar(255),
+    google_books_id varchar(255),
+    open_library_id varchar(255),
+    average_rating float(53) NOT NULL,
+    ratings_count integer NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE book_categories (
+    book_id bigint NOT NULL,
+    category varchar(255),
+    CONSTRAINT fk_book_categories_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE TABLE user_books (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    book_id bigint NOT NULL,
+    shelf varchar(255) not null check (shelf in ('WANT_TO_READ', 'CURRENTLY_READING', 'READ')),
+    current_page integer,
+    progress_percentage float(53),
+    started_reading_at timestamp(6),
+    finished_reading_at timestamp(6),
+    rating integer CHECK (rating >= 1 AND rating <= 5),
+    notes varchar(1000),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id),
+    UNIQUE (user_id, book_id),
+    CONSTRAINT fk_user_books_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_books_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE TABLE reviews (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    book_id bigint NOT NULL,
+    content varchar(5000) NOT NULL,
+    rating integer NOT NULL CHECK (rating >= 1 AND rating <= 5),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id),
+    UNIQUE (user_id, book_id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_reviews_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE TABLE favourites (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    book_id bigint NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (user_id, book_id),
+    CONSTRAINT fk_favourites_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_favourites_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
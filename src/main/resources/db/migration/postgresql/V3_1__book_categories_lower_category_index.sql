@@ -0,0 +1,3 @@
+-- Category browsing matches LOWER(category) = LOWER(:category) (BookRepository.findByCategory).
+-- H2 has no expression indexes, so this one only exists on PostgreSQL.
+CREATE INDEX IF NOT EXISTS idx_book_categories_lower_category ON book_categories (LOWER(category));
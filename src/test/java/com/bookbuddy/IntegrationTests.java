@@ -9,12 +9,23 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// The seeded books are small, so let them get a gzip copy too
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.books.payload-cache.gzip-min-bytes=0")
 @AutoConfigureMockMvc
 public class IntegrationTests {
 
@@ -30,6 +41,33 @@ public class IntegrationTests {
     @Autowired
     private org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private com.bookbuddy.service.BookPayloadCache bookPayloadCache;
+
+    @Autowired
+    private com.bookbuddy.trending.TrendingIndex trendingIndex;
+
+    @Autowired
+    private com.bookbuddy.service.ProgressWriteBuffer progressWriteBuffer;
+
+    @Autowired
+    private com.bookbuddy.service.ShelfCountService shelfCountService;
+
+    @Autowired
+    private org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private com.bookbuddy.service.CategoryDictionary categoryDictionary;
+
+    @Autowired
+    private com.bookbuddy.service.ExternalIdStore externalIdStore;
+
+    @Autowired
+    private com.bookbuddy.service.PublishedYearBackfill publishedYearBackfill;
+
+    @Autowired
+    private org.springframework.transaction.PlatformTransactionManager transactionManager;
+
     @Test
     void registerAndLogin_variations() throws Exception {
         // register
@@ -93,6 +131,846 @@ public class IntegrationTests {
                 }
     }
 
+    @Test
+    void embeddedBooks_areSummariesWithoutDescription() throws Exception {
+        String regJson = "{\"fullName\":\"Shelf User\",\"email\":\"shelfuser@example.com\",\"username\":\"shelfuser\",\"password\":\"Password123!\",\"confirmPassword\":\"Password123!\"}";
+        String token = objectMapper.readTree(mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(regJson))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+        long bookId = objectMapper.readTree(mvc.perform(get("/api/books/search?query=hobbit"))
+                .andReturn().getResponse().getContentAsString()).get("content").get(0).get("id").asLong();
+
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + bookId + ",\"shelf\":\"WANT_TO_READ\"}"))
+                .andExpect(status().isCreated());
+        mvc.perform(post("/api/favourites/" + bookId).header("Authorization", "Bearer " + token))
+                .andExpect(status().is2xxSuccessful());
+        mvc.perform(post("/api/reviews").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + bookId + ",\"content\":\"Lovely little adventure\",\"rating\":5}"))
+                .andExpect(status().is2xxSuccessful());
+
+        JsonNode shelf = objectMapper.readTree(mvc.perform(get("/api/shelves/WANT_TO_READ")
+                        .header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getContentAsString());
+        JsonNode favourites = objectMapper.readTree(mvc.perform(get("/api/favourites")
+                        .header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getContentAsString());
+        JsonNode reviews = objectMapper.readTree(mvc.perform(get("/api/reviews/my-reviews")
+                        .header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getContentAsString()).get("content");
+
+        for (JsonNode book : List.of(shelf.get(0).get("book"), favourites.get(0), reviews.get(0).get("book"))) {
+            assertThat(book.get("id").asLong()).isEqualTo(bookId);
+            assertThat(book.get("title").asText()).isEqualTo("The Hobbit");
+            assertThat(book.has("description")).isFalse();
+        }
+        assertThat(reviews.get(0).get("book").get("ratingsCount").asInt()).isEqualTo(1);
+
+        JsonNode detail = objectMapper.readTree(mvc.perform(get("/api/books/" + bookId)
+                        .header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getContentAsString());
+        assertThat(detail.get("description").asText()).isNotBlank();
+    }
+
+    @Test
+    void batchGet_returnsBooksInRequestOrder() throws Exception {
+        String regJson = "{\"fullName\":\"Batch User\",\"email\":\"batchuser@example.com\",\"username\":\"batchuser\",\"password\":\"Password123!\",\"confirmPassword\":\"Password123!\"}";
+        String token = objectMapper.readTree(mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(regJson))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+
+        JsonNode books = objectMapper.readTree(mvc.perform(get("/api/books/batch?ids=3,1,999999,3")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(books.size()).isEqualTo(2);
+        assertThat(books.get(0).get("id").asLong()).isEqualTo(3);
+        assertThat(books.get(0).get("categories").toString()).isEqualTo("[\"Classic\"]");
+        assertThat(books.get(1).get("title").asText()).isEqualTo("The Hobbit");
+        assertThat(books.get(1).get("description").asText()).isNotBlank();
+
+        books = objectMapper.readTree(mvc.perform(post("/api/books/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[2,1]}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(books.findValuesAsText("title")).containsExactly("1984", "The Hobbit");
+
+        String tooMany = java.util.stream.LongStream.rangeClosed(1, 101)
+                .mapToObj(Long::toString)
+                .collect(java.util.stream.Collectors.joining(",", "{\"ids\":[", "]}"));
+        mvc.perform(post("/api/books/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(tooMany))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bookDetails_aggregatesBookReviewsAndCallerState() throws Exception {
+        String regJson = "{\"fullName\":\"Detail User\",\"email\":\"detailuser@example.com\",\"username\":\"detailuser\",\"password\":\"Password123!\",\"confirmPassword\":\"Password123!\"}";
+        String token = objectMapper.readTree(mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(regJson))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":2,\"shelf\":\"CURRENTLY_READING\"}"))
+                .andExpect(status().isCreated());
+        mvc.perform(post("/api/reviews").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":2,\"content\":\"Bleak and brilliant\",\"rating\":4}"))
+                .andExpect(status().is2xxSuccessful());
+
+        JsonNode details = objectMapper.readTree(mvc.perform(get("/api/books/2/details")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(details.get("book").get("title").asText()).isEqualTo("1984");
+        assertThat(details.get("book").get("description").asText()).isNotBlank();
+        assertThat(details.get("reviewCount").asLong()).isGreaterThanOrEqualTo(1);
+        assertThat(details.get("reviews").get(0).get("content").asText()).isEqualTo("Bleak and brilliant");
+        assertThat(details.get("ratingHistogram").size()).isEqualTo(5);
+        assertThat(details.get("ratingHistogram").get("4").asLong()).isGreaterThanOrEqualTo(1);
+        assertThat(details.get("favourite").asBoolean()).isFalse();
+        assertThat(details.get("shelf").asText()).isEqualTo("CURRENTLY_READING");
+
+        mvc.perform(get("/api/books/999999/details").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void bookPayload_isServedFromCacheUntilTheBookChanges() throws Exception {
+        bookPayloadCache.invalidate(3L);
+        String regJson = "{\"fullName\":\"Cache User\",\"email\":\"cacheuser@example.com\",\"username\":\"cacheuser\",\"password\":\"Password123!\",\"confirmPassword\":\"Password123!\"}";
+        String token = objectMapper.readTree(mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(regJson))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+
+        JsonNode first = objectMapper.readTree(mvc.perform(get("/api/books/3").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andReturn().getResponse().getContentAsString());
+        assertThat(first.get("title").asText()).isEqualTo("Pride and Prejudice");
+
+        byte[] gzipped = mvc.perform(get("/api/books/3").header("Authorization", "Bearer " + token)
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (java.util.zip.GZIPInputStream in = new java.util.zip.GZIPInputStream(new java.io.ByteArrayInputStream(gzipped))) {
+            assertThat(objectMapper.readTree(in)).isEqualTo(first);
+        }
+
+        // a new review updates the rating, which must drop the cached bytes
+        mvc.perform(post("/api/reviews").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"content\":\"Witty from the first line\",\"rating\":5}"))
+                .andExpect(status().is2xxSuccessful());
+        JsonNode updated = objectMapper.readTree(mvc.perform(get("/api/books/3").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andReturn().getResponse().getContentAsString());
+        // ratings are recomputed from the stored reviews
+        assertThat(updated.get("ratingsCount").asInt()).isNotEqualTo(first.get("ratingsCount").asInt());
+    }
+
+    @Test
+    void concurrentReviewsOfOneBook_allSucceedAndAreCounted() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tokens.add(register("samebookreviewer" + i));
+        }
+        int before = objectMapper.readTree(mvc.perform(get("/api/books/2").header("Authorization", "Bearer " + tokens.get(0)))
+                .andReturn().getResponse().getContentAsString()).get("ratingsCount").asInt();
+
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(tokens.size());
+        try {
+            List<java.util.concurrent.Future<Integer>> statuses = new ArrayList<>();
+            for (String token : tokens) {
+                statuses.add(pool.submit(() -> mvc.perform(post("/api/reviews").header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"bookId\":2,\"content\":\"Chilling and still relevant\",\"rating\":4}"))
+                        .andReturn().getResponse().getStatus()));
+            }
+            for (java.util.concurrent.Future<Integer> status : statuses) {
+                // no optimistic lock conflict (409) between reviews of the same book
+                assertThat(status.get()).isEqualTo(201);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        JsonNode book = objectMapper.readTree(mvc.perform(get("/api/books/2").header("Authorization", "Bearer " + tokens.get(0)))
+                .andReturn().getResponse().getContentAsString());
+        assertThat(book.get("ratingsCount").asInt()).isEqualTo(before + tokens.size());
+    }
+
+    @Test
+    void conditionalGet_answers304UntilTheDataChanges() throws Exception {
+        String regJson = "{\"fullName\":\"Etag User\",\"email\":\"etaguser@example.com\",\"username\":\"etaguser\",\"password\":\"Password123!\",\"confirmPassword\":\"Password123!\"}";
+        String token = objectMapper.readTree(mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(regJson))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+
+        String bookEtag = mvc.perform(get("/api/books/2").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(bookEtag).startsWith("W/\"book-2-");
+        mvc.perform(get("/api/books/2").header("Authorization", "Bearer " + token).header("If-None-Match", bookEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", bookEtag));
+
+        String shelfEtag = mvc.perform(get("/api/shelves/WANT_TO_READ").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(get("/api/shelves/WANT_TO_READ").header("Authorization", "Bearer " + token).header("If-None-Match", shelfEtag))
+                .andExpect(status().isNotModified());
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":2,\"shelf\":\"WANT_TO_READ\"}"))
+                .andExpect(status().isCreated());
+        mvc.perform(get("/api/shelves/WANT_TO_READ").header("Authorization", "Bearer " + token).header("If-None-Match", shelfEtag))
+                .andExpect(status().isOk());
+
+        String reviewsEtag = mvc.perform(get("/api/reviews/book/2").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(post("/api/reviews").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":2,\"content\":\"Chilling and still relevant\",\"rating\":5}"))
+                .andExpect(status().is2xxSuccessful());
+        // the review re-rates the book, so both the review list and the book itself changed
+        mvc.perform(get("/api/reviews/book/2").header("Authorization", "Bearer " + token).header("If-None-Match", reviewsEtag))
+                .andExpect(status().isOk());
+        mvc.perform(get("/api/books/2").header("Authorization", "Bearer " + token).header("If-None-Match", bookEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", org.hamcrest.Matchers.not(bookEtag)));
+    }
+
+    @Test
+    void browse_filtersByFacetsAndFollowsRatingChanges() throws Exception {
+        JsonNode classic = objectMapper.readTree(mvc.perform(get("/api/books/browse?category=classic&minRating=4&language=EN"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(titles(classic)).contains("Pride and Prejudice").doesNotContain("The Hobbit", "1984");
+        assertThat(classic.get("facets").get("category").get("Classic").asInt()).isGreaterThanOrEqualTo(1);
+        // multi-select: the category counts ignore the category filter itself
+        assertThat(classic.get("facets").get("category").has("Fantasy")).isTrue();
+        assertThat(classic.get("facets").get("language").get("en").asInt()).isEqualTo(classic.get("totalElements").asInt());
+
+        JsonNode byPages = objectMapper.readTree(mvc.perform(get("/api/books/browse?pages=200-299"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(titles(byPages)).contains("Pride and Prejudice").doesNotContain("The Hobbit", "1984");
+        JsonNode longClassics = objectMapper.readTree(mvc.perform(get("/api/books/browse?category=Classic&pages=300-499"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(titles(longClassics)).doesNotContain("Pride and Prejudice");
+
+        JsonNode unknown = objectMapper.readTree(mvc.perform(get("/api/books/browse?category=No+Such+Category"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(unknown.get("totalElements").asInt()).isZero();
+        mvc.perform(get("/api/books/browse?pages=1000-2000"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/books/browse?minRating=6"))
+                .andExpect(status().isBadRequest());
+
+        // a poor review drops the average below 4, and the index follows after commit
+        String regJson = "{\"fullName\":\"Browse User\",\"email\":\"browseuser@example.com\",\"username\":\"browseuser\",\"password\":\"Password123!\",\"confirmPassword\":\"Password123!\"}";
+        String token = objectMapper.readTree(mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(regJson))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+        mvc.perform(post("/api/reviews").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"content\":\"Could not get into it\",\"rating\":1}"))
+                .andExpect(status().is2xxSuccessful());
+        JsonNode afterReview = objectMapper.readTree(mvc.perform(get("/api/books/browse?category=Classic&minRating=4"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(titles(afterReview)).doesNotContain("Pride and Prejudice");
+    }
+
+    @Test
+    void publishedYearBackfill_bumpsVersionAndMarksUnparsableDates() {
+        String insert = "INSERT INTO books (id, title, author, published_date, average_rating, ratings_count, created_at,"
+                + " updated_at) VALUES (?, ?, 'Backfill Author', ?, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+        jdbcTemplate.update(insert, 900001L, "Backfill Dated", "March 1999");
+        jdbcTemplate.update(insert, 900002L, "Backfill Undated", "someday");
+        try {
+            publishedYearBackfill.run(null);
+
+            Map<String, Object> dated = jdbcTemplate.queryForMap(
+                    "SELECT published_year, version, published_date_unparsable FROM books WHERE id = 900001");
+            assertThat(dated.get("published_year")).isEqualTo(1999);
+            assertThat(((Number) dated.get("version")).longValue()).isEqualTo(1L);
+            assertThat(dated.get("published_date_unparsable")).isEqualTo(false);
+            Map<String, Object> undated = jdbcTemplate.queryForMap(
+                    "SELECT published_year, version, published_date_unparsable FROM books WHERE id = 900002");
+            assertThat(undated.get("published_year")).isNull();
+            assertThat(((Number) undated.get("version")).longValue()).isZero();
+            assertThat(undated.get("published_date_unparsable")).isEqualTo(true);
+
+            // the next start has nothing to parse
+            jdbcTemplate.update("UPDATE books SET published_date = 'March 1999' WHERE id = 900002");
+            publishedYearBackfill.run(null);
+            assertThat(jdbcTemplate.queryForObject("SELECT published_year FROM books WHERE id = 900002", Integer.class)).isNull();
+        } finally {
+            jdbcTemplate.update("DELETE FROM books WHERE id IN (900001, 900002)");
+        }
+    }
+
+    @Test
+    void advancedSearch_filtersAndSortsOnTypedColumns() throws Exception {
+        // the seeded rows predate published_year; the startup backfill parsed their dates
+        JsonNode between = objectMapper.readTree(mvc.perform(get("/api/books/advanced-search?language=EN&yearFrom=1900&yearTo=1950&sort=oldest&size=100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(titles(between)).containsSubsequence("The Hobbit", "1984").doesNotContain("Pride and Prejudice");
+
+        JsonNode newest = objectMapper.readTree(mvc.perform(get("/api/books/advanced-search?yearTo=1950&sort=newest&size=100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(titles(newest)).containsSubsequence("1984", "The Hobbit", "Pride and Prejudice");
+
+        JsonNode byPages = objectMapper.readTree(mvc.perform(get("/api/books/advanced-search?minPages=300&maxPages=320&sort=shortest&size=100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(titles(byPages)).contains("The Hobbit").doesNotContain("1984", "Pride and Prejudice");
+
+        mvc.perform(get("/api/books/advanced-search?yearFrom=2000&yearTo=1900"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/books/advanced-search?sort=popular"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void similarBooksAndRecommendations_followShelfWrites() throws Exception {
+        for (String reader : List.of("alsoshelved1", "alsoshelved2")) {
+            String token = register(reader);
+            for (int bookId : List.of(2, 3)) {
+                mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"bookId\":" + bookId + ",\"shelf\":\"READ\"}"))
+                        .andExpect(status().isCreated());
+            }
+        }
+        String token = register("alsoshelved3");
+
+        JsonNode similar = objectMapper.readTree(mvc.perform(get("/api/books/2/similar").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(similar.findValuesAsText("title")).contains("Pride and Prejudice").doesNotContain("1984");
+
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":2,\"shelf\":\"WANT_TO_READ\"}"))
+                .andExpect(status().isCreated());
+        JsonNode recommended = objectMapper.readTree(mvc.perform(get("/api/recommendations/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        // the caller's own book is never recommended back
+        assertThat(recommended.findValuesAsText("title")).contains("Pride and Prejudice").doesNotContain("1984");
+
+        mvc.perform(get("/api/recommendations/me?limit=0").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void moreLikeThis_ranksIngestedBooksByContent() throws Exception {
+        userRepository.save(com.bookbuddy.model.User.builder()
+                .username("contentadmin")
+                .email("contentadmin@example.com")
+                .password(passwordEncoder.encode("AdminPass123!"))
+                .role(com.bookbuddy.model.User.Role.ADMIN)
+                .build());
+        String loginJson = "{\"usernameOrEmail\":\"contentadmin\",\"password\":\"AdminPass123!\"}";
+        String token = objectMapper.readTree(mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(loginJson))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+
+        String ndjson = """
+                {"title":"Wyrm Riders","author":"C. Drake","googleBooksId":"MLT_1","categories":["Dragon Lore"],"description":"Young riders bond with dragons and fly against the wyrm queen."}
+                {"title":"Wyrm Queen","author":"C. Drake","googleBooksId":"MLT_2","categories":["Dragon Lore"],"description":"The wyrm queen gathers her dragons while the riders scatter."}
+                {"title":"Ledger Basics","author":"D. Counter","googleBooksId":"MLT_3","categories":["Accounting"],"description":"Double-entry bookkeeping, ledgers and trial balances."}
+                """;
+        mvc.perform(post("/api/admin/books/ingest?format=ndjson")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk());
+        long riders = objectMapper.readTree(mvc.perform(get("/api/books/search?query=Wyrm Riders"))
+                .andReturn().getResponse().getContentAsString()).get("content").get(0).get("id").asLong();
+
+        JsonNode alike = objectMapper.readTree(mvc.perform(get("/api/books/" + riders + "/more-like-this")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(alike.get(0).get("title").asText()).isEqualTo("Wyrm Queen");
+        assertThat(alike.findValuesAsText("title")).doesNotContain("Wyrm Riders", "Ledger Basics");
+
+        // nobody has shelved it, so similar books come from content alone
+        JsonNode similar = objectMapper.readTree(mvc.perform(get("/api/books/" + riders + "/similar")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(similar.get(0).get("title").asText()).isEqualTo("Wyrm Queen");
+
+        mvc.perform(get("/api/books/" + riders + "/more-like-this?limit=0").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void trending_followsReaderActivityOverallAndPerCategory() throws Exception {
+        String token = register("trendreader");
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"shelf\":\"CURRENTLY_READING\"}"))
+                .andExpect(status().isCreated());
+        mvc.perform(post("/api/favourites/3").header("Authorization", "Bearer " + token))
+                .andExpect(status().is2xxSuccessful());
+        trendingIndex.refresh();
+
+        JsonNode overall = objectMapper.readTree(mvc.perform(get("/api/books/trending"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(overall.findValuesAsText("title")).contains("Pride and Prejudice");
+
+        JsonNode classics = objectMapper.readTree(mvc.perform(get("/api/books/trending?category=classic&limit=5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(classics.findValuesAsText("title")).contains("Pride and Prejudice").doesNotContain("The Hobbit");
+
+        mvc.perform(get("/api/books/trending?category=No Such Category"))
+                .andExpect(status().isOk())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.length()").value(0));
+        mvc.perform(get("/api/books/trending?limit=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bufferedProgress_isCoalescedAndFlushedWithTheAutoMove() throws Exception {
+        String token = register("pageturner");
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":2,\"shelf\":\"CURRENTLY_READING\"}"))
+                .andExpect(status().isCreated());
+
+        for (int page = 10; page <= 164; page += 22) {
+            mvc.perform(put("/api/shelves/progress/2?buffered=true").header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"currentPage\":" + page + "}"))
+                    .andExpect(status().isAccepted());
+        }
+        progressWriteBuffer.flush();
+        JsonNode reading = objectMapper.readTree(mvc.perform(get("/api/shelves/CURRENTLY_READING").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get(0);
+        assertThat(reading.get("currentPage").asInt()).isEqualTo(164);
+        assertThat(reading.get("progressPercentage").asDouble()).isEqualTo(50.0);
+
+        // the last page moves the book to READ; a synchronous update writes buffered reports first
+        mvc.perform(put("/api/shelves/progress/2?buffered=true").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPage\":328}"))
+                .andExpect(status().isAccepted());
+        JsonNode finished = objectMapper.readTree(mvc.perform(put("/api/shelves/progress/2").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(finished.get("shelf").asText()).isEqualTo("READ");
+        assertThat(finished.get("currentPage").asInt()).isEqualTo(328);
+        assertThat(finished.get("finishedReadingAt").isNull()).isFalse();
+        assertThat(progressWriteBuffer.pendingCount()).isZero();
+
+        // reports for books outside the library are acknowledged and dropped at the flush
+        mvc.perform(put("/api/shelves/progress/1?buffered=true").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPage\":5}"))
+                .andExpect(status().isAccepted());
+        progressWriteBuffer.flush();
+        assertThat(progressWriteBuffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void importByExternalId_resolvesRecordedIdsAndRejectsUnknownOnes() throws Exception {
+        String token = register("externalimporter");
+        // an id another instance served for a volume we already have
+        long externalId = com.bookbuddy.service.GoogleBooksService.externalIdFor("GB_HOBBIT");
+        jdbcTemplate.update("INSERT INTO external_ids (external_id, google_books_id, first_served_at)"
+                + " VALUES (?, ?, CURRENT_TIMESTAMP)", externalId, "GB_HOBBIT");
+
+        mvc.perform(post("/api/books/import/" + externalId).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.id").value(1));
+
+        // never served: rejected without asking Google Books
+        mvc.perform(post("/api/books/import/-123").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.message").value("Unknown or expired external id: -123"));
+    }
+
+    @Test
+    void servedExternalIds_resolveWhileQueuedAndAreRecordedByTheFlush() {
+        long externalId = com.bookbuddy.service.GoogleBooksService.externalIdFor("GB_QUEUED");
+        externalIdStore.record(Map.of(externalId, "GB_QUEUED"));
+        assertThat(externalIdStore.resolve(externalId)).isEqualTo("GB_QUEUED");
+
+        externalIdStore.flush();
+        assertThat(externalIdStore.pendingCount()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT google_books_id FROM external_ids WHERE external_id = ?",
+                String.class, externalId)).isEqualTo("GB_QUEUED");
+        assertThat(externalIdStore.resolve(externalId)).isEqualTo("GB_QUEUED");
+    }
+
+    @Test
+    void bufferedProgress_forBooksOutsideTheLibrary_isNotTrending() throws Exception {
+        String token = register("phantomreader");
+        mvc.perform(put("/api/shelves/progress/987654?buffered=true").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPage\":12}"))
+                .andExpect(status().isAccepted());
+        progressWriteBuffer.flush();
+        trendingIndex.refresh();
+
+        assertThat(trendingIndex.trending(null, Integer.MAX_VALUE))
+                .extracting(com.bookbuddy.trending.TrendingIndex.Ranked::bookId)
+                .doesNotContain(987654L);
+    }
+
+    @Test
+    void bufferedProgress_survivesAFailedSynchronousWrite() throws Exception {
+        String token = register("doubleadder");
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"shelf\":\"CURRENTLY_READING\"}"))
+                .andExpect(status().isCreated());
+        mvc.perform(put("/api/shelves/progress/3?buffered=true").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPage\":50}"))
+                .andExpect(status().isAccepted());
+
+        // flushes the report, then rolls back on the duplicate
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"shelf\":\"WANT_TO_READ\"}"))
+                .andExpect(status().isConflict());
+        progressWriteBuffer.flush();
+
+        JsonNode reading = objectMapper.readTree(mvc.perform(get("/api/shelves/CURRENTLY_READING").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(reading.get(0).get("currentPage").asInt()).isEqualTo(50);
+    }
+
+    @Test
+    void bufferedProgress_isWrittenBeforeSynchronousShelfWrites() throws Exception {
+        String token = register("shelfshuffler");
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"shelf\":\"CURRENTLY_READING\"}"))
+                .andExpect(status().isCreated());
+
+        // a buffered 100% followed by a move: the later move wins
+        mvc.perform(put("/api/shelves/progress/3?buffered=true").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPage\":279}"))
+                .andExpect(status().isAccepted());
+        mvc.perform(put("/api/shelves/move/3?shelf=WANT_TO_READ").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertThat(progressWriteBuffer.pendingCount()).isZero();
+        progressWriteBuffer.flush();
+        JsonNode wantToRead = objectMapper.readTree(mvc.perform(get("/api/shelves/WANT_TO_READ").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(wantToRead).hasSize(1);
+        assertThat(shelfCounts(token)).containsExactly(1, 0, 0, 0);
+
+        // a report buffered before a removal does not land on the re-added book
+        mvc.perform(put("/api/shelves/progress/3?buffered=true").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPage\":120}"))
+                .andExpect(status().isAccepted());
+        mvc.perform(delete("/api/shelves/remove/3").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+        JsonNode readded = objectMapper.readTree(mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"shelf\":\"CURRENTLY_READING\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+        progressWriteBuffer.flush();
+        assertThat(readded.get("currentPage").isNull()).isTrue();
+        JsonNode reading = objectMapper.readTree(mvc.perform(get("/api/shelves/CURRENTLY_READING").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(reading.get(0).get("currentPage").isNull()).isTrue();
+    }
+
+    @Test
+    void readingStats_areRolledUpFromProgressAndShelfMoves() throws Exception {
+        String token = register("statsreader");
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"shelf\":\"WANT_TO_READ\"}"))
+                .andExpect(status().isCreated());
+        mvc.perform(put("/api/shelves/move/3?shelf=CURRENTLY_READING").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        // 50 + 70 pages forward; going back a few pages reads nothing
+        for (int page : new int[] {50, 120, 100}) {
+            mvc.perform(put("/api/shelves/progress/3").header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"currentPage\":" + page + "}"))
+                    .andExpect(status().isOk());
+        }
+        // buffered reports count once they are flushed, and reaching the last page finishes the book
+        mvc.perform(put("/api/shelves/progress/3?buffered=true").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPage\":279}"))
+                .andExpect(status().isAccepted());
+        progressWriteBuffer.flush();
+
+        JsonNode stats = objectMapper.readTree(mvc.perform(get("/api/stats/me?days=7").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(stats.get("totalPagesRead").asLong()).isEqualTo(299);
+        assertThat(stats.get("activeDays").asInt()).isEqualTo(1);
+        assertThat(stats.get("currentStreak").asInt()).isEqualTo(1);
+        assertThat(stats.get("booksFinished").asInt()).isEqualTo(1);
+        assertThat(stats.get("booksFinishedByYear").get(String.valueOf(java.time.LocalDate.now().getYear())).asInt()).isEqualTo(1);
+        assertThat(stats.get("averageDaysToFinish").asDouble()).isLessThan(1.0);
+        assertThat(stats.get("pagesPerDay")).hasSize(7);
+        assertThat(stats.get("pagesPerDay").get(6).get("pagesRead").asInt()).isEqualTo(299);
+
+        // moving a finished book to READ again is not a second finish
+        mvc.perform(put("/api/shelves/move/3?shelf=READ").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        JsonNode again = objectMapper.readTree(mvc.perform(get("/api/stats/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(again.get("booksFinished").asInt()).isEqualTo(1);
+        assertThat(again.get("pagesPerDay")).hasSize(30);
+
+        mvc.perform(get("/api/stats/me?days=0").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shelfCounts_followShelfAndFavouriteWritesAndAreReconciled() throws Exception {
+        String token = register("shelfcounter");
+        assertThat(shelfCounts(token)).containsExactly(0, 0, 0, 0);
+
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":3,\"shelf\":\"WANT_TO_READ\"}"))
+                .andExpect(status().isCreated());
+        assertThat(shelfCounts(token)).containsExactly(1, 0, 0, 0);
+        mvc.perform(put("/api/shelves/move/3?shelf=CURRENTLY_READING").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mvc.perform(post("/api/favourites/3").header("Authorization", "Bearer " + token))
+                .andExpect(status().isCreated());
+        assertThat(shelfCounts(token)).containsExactly(0, 1, 0, 1);
+
+        // the auto-move on the last page counts too
+        mvc.perform(put("/api/shelves/progress/3").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPage\":279}"))
+                .andExpect(status().isOk());
+        assertThat(shelfCounts(token)).containsExactly(0, 0, 1, 1);
+        mvc.perform(delete("/api/shelves/remove/3").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+        assertThat(shelfCounts(token)).containsExactly(0, 0, 0, 1);
+
+        // drift left by a write outside the services is corrected by the reconciliation job
+        jdbcTemplate.update("UPDATE user_shelf_counts SET read_books = 7, favourites = 0"
+                + " WHERE user_id = (SELECT id FROM users WHERE username = 'shelfcounter')");
+        assertThat(shelfCounts(token)).containsExactly(0, 0, 7, 0);
+        assertThat(shelfCountService.reconcile()).isPositive();
+        assertThat(shelfCounts(token)).containsExactly(0, 0, 0, 1);
+    }
+
+    @Test
+    void bulkShelfOperations_reportOutcomesPerBook() throws Exception {
+        String token = register("reorganizer");
+        mvc.perform(post("/api/shelves/add").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":1,\"shelf\":\"CURRENTLY_READING\"}"))
+                .andExpect(status().isCreated());
+
+        JsonNode added = bulk(post("/api/shelves/bulk/add"), token,
+                "{\"bookIds\":[1,2,3,2,999999],\"shelf\":\"WANT_TO_READ\"}");
+        assertThat(outcomes(added)).containsExactly("1=ALREADY_IN_LIBRARY", "2=ADDED", "3=ADDED", "999999=BOOK_NOT_FOUND");
+        assertThat(added.get("succeeded").asInt()).isEqualTo(2);
+        assertThat(added.get("failed").asInt()).isEqualTo(2);
+        assertThat(shelfCounts(token)).containsExactly(2, 1, 0, 0);
+
+        // the same timestamps as single moves: READ fills in the finish, the last page and 100%
+        JsonNode moved = bulk(put("/api/shelves/bulk/move"), token, "{\"bookIds\":[1,2,3],\"shelf\":\"READ\"}");
+        assertThat(outcomes(moved)).containsExactly("1=MOVED", "2=MOVED", "3=MOVED");
+        JsonNode read = objectMapper.readTree(mvc.perform(get("/api/shelves/READ").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(read).hasSize(3);
+        read.forEach(book -> {
+            assertThat(book.get("progressPercentage").asDouble()).isEqualTo(100.0);
+            assertThat(book.get("finishedReadingAt").isNull()).isFalse();
+            assertThat(book.get("currentPage").asInt()).isEqualTo(book.get("book").get("pageCount").asInt());
+        });
+        assertThat(shelfCounts(token)).containsExactly(0, 0, 3, 0);
+        JsonNode stats = objectMapper.readTree(mvc.perform(get("/api/stats/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(stats.get("booksFinished").asInt()).isEqualTo(3);
+        assertThat(outcomes(bulk(put("/api/shelves/bulk/move"), token, "{\"bookIds\":[3],\"shelf\":\"READ\"}")))
+                .containsExactly("3=UNCHANGED");
+
+        JsonNode rated = bulk(put("/api/shelves/bulk/rate"), token, "{\"bookIds\":[1,2],\"rating\":4}");
+        assertThat(outcomes(rated)).containsExactly("1=RATED", "2=RATED");
+
+        JsonNode removed = bulk(post("/api/shelves/bulk/remove"), token, "{\"bookIds\":[2,3,999999]}");
+        assertThat(outcomes(removed)).containsExactly("2=REMOVED", "3=REMOVED", "999999=NOT_IN_LIBRARY");
+        JsonNode remaining = objectMapper.readTree(mvc.perform(get("/api/shelves/READ").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(remaining).hasSize(1);
+        assertThat(remaining.get(0).get("rating").asInt()).isEqualTo(4);
+        shelfCountService.reconcile();
+        assertThat(shelfCounts(token)).containsExactly(0, 0, 1, 0);
+
+        mvc.perform(put("/api/shelves/bulk/move").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[1]}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(put("/api/shelves/bulk/rate").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[1],\"rating\":6}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void concurrentBulkRemovals_countEachBookOnce() throws Exception {
+        String token = register("doubleremover");
+        bulk(post("/api/shelves/bulk/add"), token, "{\"bookIds\":[1,2,3],\"shelf\":\"WANT_TO_READ\"}");
+        assertThat(shelfCounts(token)).containsExactly(3, 0, 0, 0);
+
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(4);
+        try {
+            List<java.util.concurrent.Future<JsonNode>> responses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                responses.add(pool.submit(() -> bulk(post("/api/shelves/bulk/remove"), token, "{\"bookIds\":[1,2,3]}")));
+            }
+            int removed = 0;
+            for (java.util.concurrent.Future<JsonNode> response : responses) {
+                removed += response.get().get("succeeded").asInt();
+            }
+            // a removal that lost the race sees the rows gone, not the state it read before
+            assertThat(removed).isEqualTo(3);
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(shelfCounts(token)).containsExactly(0, 0, 0, 0);
+    }
+
+    @Test
+    void categoryCreatedInARolledBackWrite_isNeitherStoredNorCached() {
+        org.springframework.transaction.support.TransactionTemplate transaction =
+                new org.springframework.transaction.support.TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            List<Integer> ids = categoryDictionary.idsFor(List.of("Rolled Back Genre", "rolled back genre "));
+            assertThat(ids).hasSize(1);
+            // read back within the same transaction, from its own uncommitted row
+            assertThat(categoryDictionary.find("ROLLED BACK GENRE")).contains(ids.get(0));
+            status.setRollbackOnly();
+        });
+        assertThat(categoryDictionary.find("rolled back genre")).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categories WHERE name_key = 'rolled back genre'",
+                Integer.class)).isZero();
+
+        Integer id = transaction.execute(status -> categoryDictionary.idsFor(List.of("Rolled Back Genre")).get(0));
+        assertThat(categoryDictionary.find("rolled back genre")).contains(id);
+        assertThat(categoryDictionary.names(List.of(id))).containsExactly("Rolled Back Genre");
+    }
+
+    private String register(String username) throws Exception {
+        String regJson = "{\"fullName\":\"" + username + "\",\"email\":\"" + username + "@example.com\",\"username\":\""
+                + username + "\",\"password\":\"Password123!\",\"confirmPassword\":\"Password123!\"}";
+        return objectMapper.readTree(mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(regJson))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+    }
+
+    private JsonNode bulk(org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder request,
+                          String token, String body) throws Exception {
+        return objectMapper.readTree(mvc.perform(request.header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static List<String> outcomes(JsonNode result) {
+        List<String> outcomes = new ArrayList<>();
+        result.get("results").forEach(item -> outcomes.add(item.get("bookId").asText() + "=" + item.get("outcome").asText()));
+        return outcomes;
+    }
+
+    private List<Integer> shelfCounts(String token) throws Exception {
+        JsonNode counts = objectMapper.readTree(mvc.perform(get("/api/shelves/counts").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        return List.of(counts.get("wantToRead").asInt(), counts.get("currentlyReading").asInt(),
+                counts.get("read").asInt(), counts.get("favourites").asInt());
+    }
+
+    private static List<String> titles(JsonNode page) {
+        List<String> titles = new ArrayList<>();
+        page.get("content").forEach(book -> titles.add(book.get("title").asText()));
+        return titles;
+    }
+
+    @Test
+    void hybridSearch_streamsLocalHitsAsNdjson() throws Exception {
+        org.springframework.test.web.servlet.MvcResult started = mvc.perform(get("/api/books/search/hybrid?query=hobbit&maxResults=2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length).isGreaterThan(0);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("source").asText()).isEqualTo("LOCAL");
+        assertThat(first.get("book").get("title").asText()).isEqualTo("The Hobbit");
+
+        // the seeded local book must not be repeated by the external part
+        long hobbits = java.util.Arrays.stream(lines)
+                .filter(line -> line.contains("\"googleBooksId\":\"GB_HOBBIT\""))
+                .count();
+        assertThat(hobbits).isEqualTo(1);
+    }
+
     @Test
     void protectedEndpoint_requiresAuthOrReturns4xx() throws Exception {
         // without auth, expect 4xx (404 if missing or 403 if protected)
@@ -119,22 +997,131 @@ public class IntegrationTests {
         JsonNode lnode = objectMapper.readTree(loginResp);
         String token = lnode.get("token").asText();
 
-        // call import/top
-        String importResp = mvc.perform(post("/api/books/import/top?query=harry&maxResults=2")
+        // call import/top: the import runs as a background job
+        String submitResp = mvc.perform(post("/api/books/import/top?query=harry&maxResults=2")
                         .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(submitResp).get("id").asText();
+
+        JsonNode job = null;
+        for (int i = 0; i < 100; i++) {
+            String jobResp = mvc.perform(get("/api/books/import/jobs/" + jobId)
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().is2xxSuccessful())
+                    .andReturn().getResponse().getContentAsString();
+            job = objectMapper.readTree(jobResp);
+            String jobStatus = job.get("status").asText();
+            if (jobStatus.equals("COMPLETED") || jobStatus.equals("FAILED")) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+
+        // Without access to Google Books the job must fail, not pass as an empty import
+        if (job.get("status").asText().equals("FAILED")) {
+            assertThat(job.get("error").asText()).isNotBlank();
+            assertThat(job.get("bookIds").size()).isZero();
+            return;
+        }
+        assertThat(job.get("status").asText()).isEqualTo("COMPLETED");
+        JsonNode ids = job.get("bookIds");
+        assertThat(ids.isArray()).isTrue();
+        assertThat(ids.size()).isGreaterThan(0);
+        for (JsonNode idNode : ids) {
+            assertThat(idNode.asLong()).isGreaterThan(0);
+        }
+    }
+
+    @Test
+    void catalogIngest_upsertsNdjsonAndCsvRows() throws Exception {
+        if (!userRepository.existsByUsername("ingestadmin")) {
+            userRepository.save(com.bookbuddy.model.User.builder()
+                    .username("ingestadmin")
+                    .email("ingestadmin@example.com")
+                    .password(passwordEncoder.encode("AdminPass123!"))
+                    .role(com.bookbuddy.model.User.Role.ADMIN)
+                    .build());
+        }
+        String loginJson = "{\"usernameOrEmail\":\"ingestadmin\",\"password\":\"AdminPass123!\"}";
+        String token = objectMapper.readTree(mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(loginJson))
                 .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+
+        String ndjson = """
+                {"title":"Ingested One","author":"A. Writer","googleBooksId":"ING_1","categories":[" Fiction ",""]}
+                {"title":"","isbn":"9780000000002","language":" PT-BR ","description":"%s"}
+                {"title":"No identifier"}
+                {"title":"Bad value","googleBooksId":"ING_BAD","pageCount":"many"}
+                """.formatted("x".repeat(2500));
+        String ndjsonResp = mvc.perform(post("/api/admin/books/ingest?format=ndjson")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
+        JsonNode report = objectMapper.readTree(ndjsonResp);
+        assertThat(report.get("rowsRead").asLong()).isEqualTo(4);
+        assertThat(report.get("inserted").asLong()).isEqualTo(2);
+        assertThat(report.get("skipped").asLong()).isEqualTo(2);
 
-        JsonNode arr = objectMapper.readTree(importResp);
-        assertThat(arr.isArray()).isTrue();
-        assertThat(arr.size()).isGreaterThan(0);
-        for (JsonNode item : arr) {
-            if (item.isObject()) {
-                JsonNode idNode = item.get("id");
-                assertThat(idNode).isNotNull();
-                assertThat(idNode.asLong()).isGreaterThan(0);
+        // second pass: ING_1 is updated in place, the CSV-only row is inserted
+        String csv = """
+                title,author,googleBooksId,isbn,pageCount,categories
+                Ingested One (2nd ed.),A. Writer,ING_1,,320,Fiction|Classics
+                Ingested Three,B. Writer,,9780000000003,,
+                """;
+        String csvResp = mvc.perform(post("/api/admin/books/ingest?format=csv")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        report = objectMapper.readTree(csvResp);
+        assertThat(report.get("inserted").asLong()).isEqualTo(1);
+        assertThat(report.get("updated").asLong()).isEqualTo(1);
+
+        JsonNode found = objectMapper.readTree(mvc.perform(get("/api/books/search?query=Ingested One"))
+                .andReturn().getResponse().getContentAsString()).get("content");
+        assertThat(found.size()).isEqualTo(1);
+        assertThat(found.get(0).get("title").asText()).isEqualTo("Ingested One (2nd ed.)");
+        assertThat(found.get(0).get("pageCount").asInt()).isEqualTo(320);
+        assertThat(found.get(0).get("categories").toString()).isEqualTo("[\"Fiction\",\"Classics\"]");
+
+        // category browse resolves the name case-insensitively to the shared category id
+        JsonNode classics = objectMapper.readTree(mvc.perform(get("/api/books/category/CLASSICS")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("content");
+        assertThat(classics.findValuesAsText("title")).contains("Ingested One (2nd ed.)");
+        mvc.perform(get("/api/books/category/No Such Category").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalElements").value(0));
+
+        JsonNode untitled = null;
+        for (JsonNode book : objectMapper.readTree(mvc.perform(get("/api/books/search?query=Untitled"))
+                .andReturn().getResponse().getContentAsString()).get("content")) {
+            if ("9780000000002".equals(book.get("isbn").asText())) {
+                untitled = book;
             }
         }
+        assertThat(untitled).isNotNull();
+        assertThat(untitled.get("title").asText()).isEqualTo("Untitled");
+        assertThat(untitled.get("author").asText()).isEqualTo("Unknown Author");
+        // list results are summaries without a description; the detail endpoint has it (truncated)
+        assertThat(untitled.has("description")).isFalse();
+        JsonNode untitledDetail = objectMapper.readTree(mvc.perform(get("/api/books/" + untitled.get("id").asLong())
+                        .header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getContentAsString());
+        assertThat(untitledDetail.get("description").asText()).hasSize(2000);
+        // languages are stored normalized, so the advanced search's equality filter finds any spelling
+        assertThat(untitledDetail.get("language").asText()).isEqualTo("pt-br");
+        JsonNode portuguese = objectMapper.readTree(mvc.perform(get("/api/books/advanced-search?language=Pt-Br&size=100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(titles(portuguese)).containsExactly("Untitled");
+
+        // regular users may not ingest
+        mvc.perform(post("/api/admin/books/ingest").content(ndjson)).andExpect(status().is4xxClientError());
     }
 }
-
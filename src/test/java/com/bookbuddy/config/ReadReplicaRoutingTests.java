@@ -0,0 +1,90 @@
+package com.bookbuddy.config;
+
+import com.bookbuddy.service.BookService;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.Flyway;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs with a second in-memory H2 database as the replica. The replica's copy of the
+ * seeded book 1 is renamed so each read shows which pool served it.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "app.datasource.replica.url=jdbc:h2:mem:bookbuddy-replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password="
+})
+public class ReadReplicaRoutingTests {
+
+    private static final String REPLICA_TITLE = "Served By Replica";
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void prepareReplica() {
+        Flyway.configure()
+                .dataSource(replicaDataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        new JdbcTemplate(replicaDataSource).update("UPDATE books SET title = ? WHERE id = 1", REPLICA_TITLE);
+    }
+
+    @Test
+    void readOnlyServiceReadsGoToReplica() {
+        assertThat(bookService.getBookById(1L).getTitle()).isEqualTo(REPLICA_TITLE);
+    }
+
+    @Test
+    void readWriteTransactionsStayOnPrimary() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        String title = tx.execute(status -> bookService.getBookById(1L).getTitle());
+        assertThat(title).isNotEqualTo(REPLICA_TITLE);
+    }
+
+    @Test
+    void readOnlyTransactionsSkipDirtyChecking() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            assertThat(session.isDefaultReadOnly()).isTrue();
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+        });
+    }
+
+    @Test
+    void blankReplicaUrlLeavesTheSingleDataSource() {
+        // the prod profile maps the url to ${DATABASE_REPLICA_URL:}, empty when unset
+        new ApplicationContextRunner()
+                .withUserConfiguration(ReadReplicaDataSourceConfig.class)
+                .withPropertyValues("app.datasource.replica.url=")
+                .run(context -> assertThat(context).doesNotHaveBean("replicaDataSource"));
+    }
+}
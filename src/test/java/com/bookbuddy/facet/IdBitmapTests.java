@@ -0,0 +1,95 @@
+package com.bookbuddy.facet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdBitmapTests {
+
+    @Test
+    void setOperations_matchBitSet() {
+        Random random = new Random(42);
+        // sparse ids spread over several chunks, and a dense run that forces bitmap containers
+        BitSet sparseIds = new BitSet();
+        BitSet denseIds = new BitSet();
+        IdBitmap sparse = new IdBitmap();
+        IdBitmap dense = new IdBitmap();
+        for (int i = 0; i < 3_000; i++) {
+            int id = random.nextInt(400_000);
+            sparseIds.set(id);
+            sparse.add(id);
+        }
+        for (int i = 0; i < 60_000; i++) {
+            int id = 65_536 + random.nextInt(70_000);
+            denseIds.set(id);
+            dense.add(id);
+        }
+
+        assertSame(sparse, sparseIds);
+        assertSame(dense, denseIds);
+
+        BitSet and = (BitSet) sparseIds.clone();
+        and.and(denseIds);
+        assertSame(sparse.and(dense), and);
+        assertThat(sparse.andCardinality(dense)).isEqualTo(and.cardinality());
+        assertThat(dense.andCardinality(sparse)).isEqualTo(and.cardinality());
+
+        BitSet or = (BitSet) sparseIds.clone();
+        or.or(denseIds);
+        assertSame(sparse.or(dense), or);
+        assertSame(IdBitmap.orAll(List.of(dense, sparse)), or);
+        // inputs are left untouched
+        assertSame(sparse, sparseIds);
+        assertSame(dense, denseIds);
+    }
+
+    @Test
+    void remove_shrinksBitmapChunksBackToArrays() {
+        IdBitmap bitmap = new IdBitmap();
+        BitSet expected = new BitSet();
+        for (int id = 0; id < 10_000; id++) {
+            bitmap.add(id);
+            expected.set(id);
+        }
+        for (int id = 0; id < 10_000; id += 2) {
+            bitmap.remove(id);
+            expected.clear(id);
+        }
+        assertSame(bitmap, expected);
+        for (int id = 1; id < 10_000; id += 2) {
+            bitmap.remove(id);
+        }
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.cardinality()).isZero();
+    }
+
+    @Test
+    void slice_pagesThroughIdsInOrder() {
+        IdBitmap bitmap = new IdBitmap();
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 5; id < 300_000; id += 7) {
+            bitmap.add(id);
+            expected.add(id);
+        }
+
+        assertThat(bitmap.slice(0, 10)).isEqualTo(expected.subList(0, 10));
+        // a page straddling the first chunk boundary
+        int boundary = (int) expected.stream().filter(id -> id < 65_536).count();
+        assertThat(bitmap.slice(boundary - 3, 6)).isEqualTo(expected.subList(boundary - 3, boundary + 3));
+        assertThat(bitmap.slice(expected.size() - 2, 10)).isEqualTo(expected.subList(expected.size() - 2, expected.size()));
+        assertThat(bitmap.slice(expected.size(), 10)).isEmpty();
+    }
+
+    private static void assertSame(IdBitmap bitmap, BitSet expected) {
+        assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+        List<Integer> ids = new ArrayList<>();
+        bitmap.forEach(ids::add);
+        assertThat(ids).isEqualTo(expected.stream().boxed().toList());
+        expected.stream().limit(100).forEach(id -> assertThat(bitmap.contains(id)).isTrue());
+    }
+}
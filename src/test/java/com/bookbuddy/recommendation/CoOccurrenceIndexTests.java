@@ -0,0 +1,126 @@
+package com.bookbuddy.recommendation;
+
+import com.bookbuddy.config.RecommendationConfig;
+import com.bookbuddy.recommendation.CoOccurrenceIndex.Signal;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CoOccurrenceIndexTests {
+
+    private static final int USERS = 300;
+    private static final int BOOKS = 120;
+
+    @Test
+    void incrementalUpdates_matchAFullRebuild() {
+        // wide rows: no pruning, so the incremental counts must be exact
+        RecommendationConfig config = config(1_000);
+        CoOccurrenceIndex incremental = new CoOccurrenceIndex(null, config);
+        Map<Long, IntIntHashMap> libraries = new HashMap<>();
+
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            long userId = 1 + random.nextInt(USERS);
+            // a skewed catalog: low ids are popular
+            long bookId = 1 + (long) (BOOKS * Math.pow(random.nextDouble(), 2));
+            Signal signal = random.nextInt(4) == 0 ? Signal.FAVOURITE : Signal.SHELF;
+            boolean add = random.nextInt(3) > 0;
+            IntIntHashMap library = libraries.computeIfAbsent(userId, id -> new IntIntHashMap());
+            int flags = library.get((int) bookId);
+            if (add) {
+                incremental.added(userId, bookId, signal);
+                library.put((int) bookId, flags | flag(signal));
+            } else {
+                incremental.removed(userId, bookId, signal);
+                flags &= ~flag(signal);
+                if (flags == 0) {
+                    library.remove((int) bookId);
+                } else {
+                    library.put((int) bookId, flags);
+                }
+            }
+        }
+        libraries.values().removeIf(IntIntHashMap::isEmpty);
+
+        CoOccurrenceIndex rebuilt = new CoOccurrenceIndex(null, config);
+        rebuilt.rebuild(libraries);
+
+        assertThat(incremental.size()).isEqualTo(rebuilt.size());
+        for (long bookId = 1; bookId <= BOOKS; bookId++) {
+            assertThat(incremental.similar(bookId, 20)).as("similar to %d", bookId)
+                    .isEqualTo(rebuilt.similar(bookId, 20));
+        }
+        for (long userId = 1; userId <= USERS; userId++) {
+            assertThat(incremental.recommend(userId, 20)).as("for user %d", userId)
+                    .isEqualTo(rebuilt.recommend(userId, 20));
+        }
+    }
+
+    @Test
+    void similar_ranksByCosineAndLeavesOutOwnBooks() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(null, config(50));
+        // books 1 and 2 always go together; book 3 is in every library
+        for (long userId = 1; userId <= 4; userId++) {
+            index.added(userId, 1L, Signal.SHELF);
+            index.added(userId, 2L, Signal.SHELF);
+            index.added(userId, 3L, Signal.SHELF);
+        }
+        for (long userId = 5; userId <= 12; userId++) {
+            index.added(userId, 3L, Signal.SHELF);
+            index.added(userId, 4L, Signal.FAVOURITE);
+        }
+
+        assertThat(index.similar(1L, 10)).containsExactly(2L, 3L);
+        assertThat(index.similar(3L, 10)).containsExactly(4L, 1L, 2L);
+
+        index.added(20L, 1L, Signal.SHELF);
+        assertThat(index.recommend(20L, 10)).containsExactly(2L, 3L);
+
+        // a favourite keeps the book in the library after it leaves the shelf
+        index.added(20L, 1L, Signal.FAVOURITE);
+        index.removed(20L, 1L, Signal.SHELF);
+        assertThat(index.recommend(20L, 10)).containsExactly(2L, 3L);
+        index.removed(20L, 1L, Signal.FAVOURITE);
+        assertThat(index.recommend(20L, 10)).isEmpty();
+    }
+
+    @Test
+    void rowsArePrunedToTheConfiguredNeighbours() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(null, config(5));
+        for (long userId = 1; userId <= 3; userId++) {
+            for (long bookId = 1; bookId <= 40; bookId++) {
+                index.added(userId, bookId, Signal.SHELF);
+            }
+        }
+        assertThat(index.similar(1L, 50)).hasSizeLessThanOrEqualTo(10);
+
+        Map<Long, IntIntHashMap> libraries = new HashMap<>();
+        for (long userId = 1; userId <= 3; userId++) {
+            IntIntHashMap library = new IntIntHashMap();
+            for (int bookId = 1; bookId <= 40; bookId++) {
+                library.put(bookId, 1);
+            }
+            libraries.put(userId, library);
+        }
+        index.rebuild(libraries);
+        assertThat(index.similar(1L, 50)).hasSize(5);
+        assertThat(index.similar(1L, 50)).isEqualTo(List.of(2L, 3L, 4L, 5L, 6L));
+    }
+
+    private static RecommendationConfig config(int neighbours) {
+        RecommendationConfig config = new RecommendationConfig();
+        config.setNeighbours(neighbours);
+        config.setMinCoOccurrence(1);
+        config.setRebuildParallelism(4);
+        return config;
+    }
+
+    private static int flag(Signal signal) {
+        return signal == Signal.SHELF ? 1 : 2;
+    }
+}
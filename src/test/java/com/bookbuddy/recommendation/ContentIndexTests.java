@@ -0,0 +1,108 @@
+package com.bookbuddy.recommendation;
+
+import com.bookbuddy.config.RecommendationConfig;
+import com.bookbuddy.recommendation.ContentVectorizer.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ContentIndexTests {
+
+    @Test
+    void scalarAndVectorApiScorers_agree() {
+        VectorScorer scalar = new ScalarVectorScorer();
+        VectorScorer simd = VectorScorer.select(true);
+        // surefire runs with --add-modules jdk.incubator.vector
+        assertThat(simd).isInstanceOf(SimdVectorScorer.class);
+
+        Random random = new Random(5);
+        // odd lengths and offsets exercise the tail loops
+        for (int length : new int[] {1, 7, 64, 255, 256, 301}) {
+            float[] a = new float[length + 3];
+            float[] b = new float[length + 5];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextFloat() - 0.5f;
+            }
+            for (int i = 0; i < b.length; i++) {
+                b[i] = random.nextFloat() - 0.5f;
+            }
+            double expected = 0;
+            for (int i = 0; i < length; i++) {
+                expected += (double) a[3 + i] * b[5 + i];
+            }
+            assertThat((double) scalar.dot(a, 3, b, 5, length)).isCloseTo(expected, within(1e-4));
+            assertThat((double) simd.dot(a, 3, b, 5, length)).isCloseTo(expected, within(1e-4));
+        }
+    }
+
+    @Test
+    void similar_ranksSharedCategoriesAuthorsAndWords() {
+        ContentIndex index = new ContentIndex(null, config());
+        Map<Long, Document> books = new HashMap<>();
+        books.put(1L, new Document("Ann Author", "A dragon hoards gold beneath the mountain", List.of(10)));
+        books.put(2L, new Document("Ann Author", "The dragon wakes and the mountain burns", List.of(10)));
+        books.put(3L, new Document("Other Writer", "A dragon in a quiet village", List.of(10)));
+        books.put(4L, new Document("Other Writer", "Quarterly tax law for small businesses", List.of(20)));
+        books.put(5L, new Document(null, null, List.of()));
+        index.rebuild(books);
+
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.similar(1L, 10)).containsExactly(2L, 3L);
+        // only the author is shared; hashed terms may still collide a little with other books
+        assertThat(index.similar(4L, 10)).startsWith(3L);
+        // a book without text has a zero vector and matches nothing
+        assertThat(index.similar(5L, 10)).isEmpty();
+        assertThat(index.similar(99L, 10)).isEmpty();
+        assertThat(index.similar(1L, 1)).containsExactly(2L);
+    }
+
+    @Test
+    void rebuild_spanningSeveralPages_indexesEveryBook() {
+        ContentIndex index = new ContentIndex(null, config());
+        Map<Long, Document> books = new HashMap<>();
+        for (long id = 1; id <= 2_500; id++) {
+            books.put(id, new Document("Writer " + id, "Filler text number " + id, List.of((int) (id % 50))));
+        }
+        // the only pair sharing these words sits on the first and the last page
+        books.put(7L, new Document("Ann Author", "Lighthouse keepers and shipwrecks", List.of(99)));
+        books.put(2_490L, new Document("Ann Author", "Shipwrecks seen from the lighthouse", List.of(99)));
+        index.rebuild(books);
+
+        assertThat(index.size()).isEqualTo(2_500);
+        assertThat(index.similar(7L, 1)).containsExactly(2_490L);
+    }
+
+    @Test
+    void put_addsUpdatesAndDropsBooks() {
+        ContentIndex index = new ContentIndex(null, config());
+        Map<Long, Document> books = new HashMap<>();
+        books.put(1L, new Document("Ann Author", "Sailing ships and storms at sea", List.of(1)));
+        books.put(2L, new Document("Bo Baker", "Bread, butter and sourdough baking", List.of(2)));
+        index.rebuild(books);
+        assertThat(index.similar(1L, 10)).isEmpty();
+
+        index.put(Map.of(3L, new Document("Cy Captain", "Storms wreck the ships at sea", List.of(1))), List.of(3L));
+        assertThat(index.similar(1L, 10)).containsExactly(3L);
+
+        index.put(Map.of(3L, new Document("Cy Captain", "Sourdough baking with butter", List.of(2))), List.of(3L));
+        assertThat(index.similar(1L, 10)).isEmpty();
+        assertThat(index.similar(2L, 10)).containsExactly(3L);
+
+        // a book that can no longer be loaded leaves the index
+        index.put(Map.of(), List.of(3L));
+        assertThat(index.similar(2L, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private static RecommendationConfig config() {
+        RecommendationConfig config = new RecommendationConfig();
+        config.getContent().setDimensions(128);
+        return config;
+    }
+}
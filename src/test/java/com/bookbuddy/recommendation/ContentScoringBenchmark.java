@@ -0,0 +1,89 @@
+package com.bookbuddy.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full-catalog "more like this" scan at one million books: the same off-heap
+ * {@link VectorStore} scored with the scalar kernel and with the Vector API kernel.
+ * Reports the median scan time after warm-up. Run with {@code mvn test -Pbenchmark}.
+ */
+public class ContentScoringBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final int DIMENSIONS = 128;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 9;
+
+    @Test
+    void reportScanTimeAtOneMillionBooks() {
+        VectorStore store = new VectorStore(DIMENSIONS);
+        Random random = new Random(1);
+        float[] vector = new float[DIMENSIONS];
+        for (int book = 0; book < BOOKS; book++) {
+            fillNormalized(vector, random);
+            store.add(vector);
+        }
+        float[] query = new float[DIMENSIONS];
+        store.get(42, query);
+
+        VectorScorer scalar = new ScalarVectorScorer();
+        VectorScorer simd = VectorScorer.select(true);
+        double scalarMillis = medianScanMillis(store, query, scalar);
+        double simdMillis = medianScanMillis(store, query, simd);
+
+        System.out.printf("%nMore-like-this scan over %,d books x %d dimensions (off-heap, %,d MB)%n",
+                BOOKS, DIMENSIONS, (long) BOOKS * DIMENSIONS * Float.BYTES >> 20);
+        System.out.printf("  %-24s: %8.1f ms/scan (%,.0f books/ms)%n", scalar.name(), scalarMillis, BOOKS / scalarMillis);
+        System.out.printf("  %-24s: %8.1f ms/scan (%,.0f books/ms, %.1fx)%n",
+                simd.name(), simdMillis, BOOKS / simdMillis, scalarMillis / simdMillis);
+
+        // both kernels find the query's own row as the best match
+        assertThat(bestRow(store, query, scalar)).isEqualTo(42);
+        assertThat(bestRow(store, query, simd)).isEqualTo(42);
+    }
+
+    private static double medianScanMillis(VectorStore store, float[] query, VectorScorer scorer) {
+        double[] sink = {0};
+        for (int i = 0; i < WARMUP; i++) {
+            store.scan(query, scorer, (row, score) -> sink[0] += score);
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            store.scan(query, scorer, (row, score) -> sink[0] += score);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        assertThat(sink[0]).isFinite();
+        return nanos[RUNS / 2] / 1e6;
+    }
+
+    private static int bestRow(VectorStore store, float[] query, VectorScorer scorer) {
+        int[] best = {-1};
+        float[] bestScore = {Float.NEGATIVE_INFINITY};
+        store.scan(query, scorer, (row, score) -> {
+            if (score > bestScore[0]) {
+                bestScore[0] = score;
+                best[0] = row;
+            }
+        });
+        return best[0];
+    }
+
+    private static void fillNormalized(float[] vector, Random random) {
+        double norm = 0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookbuddy.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntIntHashMapTests {
+
+    @Test
+    void randomOperations_matchHashMap() {
+        Random random = new Random(7);
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // a small key range, so removals hit long probe runs; 0 is a key like any other
+            int key = random.nextInt(2_000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i + 1);
+                    expected.put(key, i + 1);
+                }
+                case 1 -> {
+                    map.remove(key);
+                    expected.remove(key);
+                }
+                default -> {
+                    int delta = random.nextBoolean() ? 1 : -1;
+                    map.addTo(key, delta);
+                    int value = expected.getOrDefault(key, 0) + delta;
+                    if (value == 0) {
+                        expected.remove(key);
+                    } else {
+                        expected.put(key, value);
+                    }
+                }
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Integer, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        for (int key = -100; key < 1_900; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+        }
+    }
+
+    @Test
+    void retainTop_keepsHighestValuesAndSmallerKeysOnTies() {
+        IntIntHashMap map = new IntIntHashMap();
+        for (int key = 0; key < 100; key++) {
+            map.put(key, key % 10);
+        }
+
+        map.retainTop(15);
+
+        Map<Integer, Integer> kept = new HashMap<>();
+        map.forEach(kept::put);
+        assertThat(kept).hasSize(15);
+        // the ten 9s, then the five smallest keys among the 8s
+        assertThat(kept.values()).containsOnly(9, 8);
+        assertThat(kept.keySet()).contains(8, 18, 28, 38, 48).doesNotContain(58, 68, 78, 88, 98);
+    }
+}
@@ -0,0 +1,178 @@
+package com.bookbuddy.repository;
+
+import com.bookbuddy.model.UserBook;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each repository query, captures the SQL Hibernate sends, and checks the H2 plan
+ * (EXPLAIN) for full table scans. Not covered here:
+ * searchBooks, searchBookCards and findCardsByAuthor ('%term%' patterns cannot use a
+ * b-tree index), and findAllCards (the whole catalog).
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.bookbuddy.repository.QueryIndexUsageTests$CapturingInspector"
+})
+@Transactional
+public class QueryIndexUsageTests {
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+
+    @BeforeEach
+    void clearCapturedStatements() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void bookLookupsUseIndexes() throws Exception {
+        assertIndexed(() -> bookRepository.findById(1L));
+        assertIndexed(() -> bookRepository.findByIsbn("9780261102217"));
+        assertIndexed(() -> bookRepository.findByGoogleBooksId("GB_HOBBIT"));
+        assertIndexed(() -> bookRepository.findByGoogleBooksIdIn(List.of("GB_HOBBIT", "GB_1984")));
+        assertIndexed(() -> bookRepository.findByIsbnIn(List.of("9780261102217", "9780451524935")));
+        assertIndexed(() -> bookRepository.findByOpenLibraryId("OL1M"));
+        assertIndexed(() -> bookRepository.findCardsByIdIn(List.of(1L, 2L)));
+        assertIndexed(() -> bookRepository.findCategoriesByBookIdIn(List.of(1L, 2L)));
+        assertIndexed(() -> bookRepository.findVersionStampById(1L));
+        assertIndexed(() -> bookRepository.findByIdForRatingUpdate(1L));
+        assertIndexed(() -> bookRepository.findCardsByCategoryId(1, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void advancedSearchUsesIndexes() throws Exception {
+        PageRequest newest = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "publishedYear", "id"));
+        assertIndexed(() -> bookRepository.findIds(Specification.allOf(
+                BookSpecifications.language("en"), BookSpecifications.publishedBetween(1900, 1950)), newest));
+        assertIndexed(() -> bookRepository.findIds(BookSpecifications.publishedBetween(1900, null), newest));
+        assertIndexed(() -> bookRepository.findIds(Specification.allOf(
+                BookSpecifications.language("en"), BookSpecifications.ratingAtLeast(4.0)),
+                PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "averageRating", "id"))));
+        assertIndexed(() -> bookRepository.findIds(BookSpecifications.pageCountBetween(200, 400),
+                PageRequest.of(1, 10, Sort.by("pageCount", "id"))));
+        assertIndexed(() -> bookRepository.findIds(BookSpecifications.ratingAtLeast(4.5),
+                PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "averageRating", "id"))));
+    }
+
+    @Test
+    void userLookupsUseIndexes() throws Exception {
+        assertIndexed(() -> userRepository.findByUsername("reader"));
+        assertIndexed(() -> userRepository.findByEmail("reader@example.com"));
+        assertIndexed(() -> userRepository.existsByUsername("reader"));
+        assertIndexed(() -> userRepository.existsByEmail("reader@example.com"));
+    }
+
+    @Test
+    void shelfQueriesUseIndexes() throws Exception {
+        assertIndexed(() -> userBookRepository.findByUserIdAndBookId(1L, 1L));
+        assertIndexed(() -> userBookRepository.existsByUserIdAndBookId(1L, 1L));
+        assertIndexed(() -> userBookRepository.findByUserId(1L));
+        assertIndexed(() -> userBookRepository.findByUserIdAndShelf(1L, UserBook.ShelfType.READ));
+        assertIndexed(() -> userBookRepository.findByUserIdAndShelf(1L, UserBook.ShelfType.READ, PageRequest.of(1, 10)));
+        assertIndexed(() -> userBookRepository.findRecentlyUpdatedByUserId(1L, PageRequest.of(1, 10)));
+        assertIndexed(() -> userBookRepository.findCurrentlyReadingByUserId(1L));
+        assertIndexed(() -> userBookRepository.findVersionStampByUserIdAndShelf(1L, UserBook.ShelfType.READ));
+        assertIndexed(() -> userBookRepository.findVersionStampByUserId(1L));
+    }
+
+    @Test
+    void reviewQueriesUseIndexes() throws Exception {
+        assertIndexed(() -> reviewRepository.findByUserIdAndBookId(1L, 1L));
+        assertIndexed(() -> reviewRepository.existsByUserIdAndBookId(1L, 1L));
+        assertIndexed(() -> reviewRepository.findByBookId(1L));
+        assertIndexed(() -> reviewRepository.findByBookId(1L, PageRequest.of(1, 10)));
+        assertIndexed(() -> reviewRepository.findByUserId(1L));
+        assertIndexed(() -> reviewRepository.findByUserId(1L, PageRequest.of(1, 10)));
+        assertIndexed(() -> reviewRepository.calculateAverageRatingForBook(1L));
+        assertIndexed(() -> reviewRepository.countReviewsForBook(1L));
+        assertIndexed(() -> reviewRepository.countByRatingForBook(1L));
+        assertIndexed(() -> reviewRepository.findVersionStampByBookId(1L));
+        assertIndexed(() -> reviewRepository.findVersionStampByUserId(1L));
+    }
+
+    @Test
+    void favouriteQueriesUseIndexes() throws Exception {
+        assertIndexed(() -> favouriteRepository.findByUserIdAndBookId(1L, 1L));
+        assertIndexed(() -> favouriteRepository.existsByUserIdAndBookId(1L, 1L));
+        assertIndexed(() -> favouriteRepository.findByUserId(1L));
+        assertIndexed(() -> favouriteRepository.findByUserId(1L, PageRequest.of(1, 10)));
+    }
+
+    @Test
+    void substringSearchIsStillAScan() throws Exception {
+        // Guards the check itself: a plan H2 cannot serve from an index must be reported
+        bookRepository.searchBooks("hobbit", PageRequest.of(0, 10));
+        assertThat(explain(CapturingInspector.STATEMENTS.get(0))).contains("tableScan");
+    }
+
+    private void assertIndexed(Runnable query) throws Exception {
+        CapturingInspector.STATEMENTS.clear();
+        query.run();
+        List<String> statements = List.copyOf(CapturingInspector.STATEMENTS);
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertThat(plan).as("plan for %s", sql).doesNotContain("tableScan");
+        }
+    }
+
+    private String explain(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
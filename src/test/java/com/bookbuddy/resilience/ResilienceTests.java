@@ -0,0 +1,71 @@
+package com.bookbuddy.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResilienceTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void circuitBreaker_opensAfterThresholdAndProbesWhenHalfOpen() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(10), clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.recordFailure();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        // after the open window a single probe is admitted
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        // a failed probe re-opens the circuit
+        breaker.recordFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.recordSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void circuitBreaker_releasedProbeCanBeRetried() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(1), clock::get);
+        breaker.tryAcquirePermission();
+        breaker.recordFailure();
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.releasePermission();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void tokenBucket_allowsBurstThenRefillsAtQuotaRate() {
+        // 86400 per day = one permit per second
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(86_400, Duration.ofDays(1), 2, clock::get);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        clock.addAndGet(Duration.ofMillis(1500).toNanos());
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        // never accumulates beyond capacity
+        clock.addAndGet(Duration.ofHours(1).toNanos());
+        assertThat(limiter.availablePermits()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation and statements per catalog list page: managed Book entities copied into
+ * DTOs (the previous getAllBooks) vs. card projections with one grouped categories
+ * query (BookService.getAllBooks). Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public class BookListAllocationBenchmark {
+
+    private static final int BOOKS = 1_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reportAllocationPerListPage() {
+        seedCatalog();
+        int pages = (int) Math.ceil((double) bookRepository.count() / PAGE_SIZE);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        IntFunction<Page<?>> entities = page -> tx.execute(status ->
+                bookRepository.findAll(PageRequest.of(page, PAGE_SIZE)).map(bookService::mapToDTO));
+        IntFunction<Page<?>> cards = page -> bookService.getAllBooks(PageRequest.of(page, PAGE_SIZE));
+
+        Result entityResult = measure(entities, pages);
+        Result cardResult = measure(cards, pages);
+
+        System.out.printf("%nCatalog list page (%d books per page, %d pages)%n", PAGE_SIZE, pages);
+        report("entities + convertToDTO", entityResult);
+        report("card projection", cardResult);
+
+        assertThat(cardResult.bytesPerPage()).isLessThan(entityResult.bytesPerPage());
+        assertThat(cardResult.statementsPerPage()).isLessThan(entityResult.statementsPerPage());
+    }
+
+    private void seedCatalog() {
+        String description = "A long description that list pages never show. ".repeat(30);
+        for (int offset = 0; offset < BOOKS; offset += PAGE_SIZE) {
+            List<BookDTO> batch = new ArrayList<>(PAGE_SIZE);
+            for (int i = offset; i < offset + PAGE_SIZE; i++) {
+                batch.add(BookDTO.builder()
+                        .title("List Benchmark Book " + i)
+                        .author("List Benchmark Author " + (i % 40))
+                        .isbn("LIST-" + i)
+                        .googleBooksId("LIST_" + i)
+                        .description(description)
+                        .publisher("Publisher " + (i % 7))
+                        .pageCount(200 + i % 300)
+                        .coverImageUrl("https://covers.example.com/" + i + ".jpg")
+                        .categories(List.of("Fiction", "Benchmark", "Shelf " + (i % 12)))
+                        .build());
+            }
+            bookService.saveExternalBooks(batch);
+        }
+    }
+
+    private Result measure(IntFunction<Page<?>> loadPage, int pages) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Object sink = null;
+        for (int round = 0; round < WARMUP; round++) {
+            for (int page = 0; page < pages; page++) {
+                sink = loadPage.apply(page);
+            }
+        }
+        stats.clear();
+        long before = threads.getThreadAllocatedBytes(thread);
+        long started = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int page = 0; page < pages; page++) {
+                sink = loadPage.apply(page);
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertThat(sink).isNotNull();
+        long loads = (long) ROUNDS * pages;
+        return new Result(allocated / loads, elapsed / loads,
+                (double) stats.getPrepareStatementCount() / loads, stats.getEntityLoadCount() / loads);
+    }
+
+    private static void report(String label, Result result) {
+        System.out.printf("  %s%n", label);
+        System.out.printf("    alloc/page          : %,d B%n", result.bytesPerPage());
+        System.out.printf("    time/page           : %,d us%n", result.nanosPerPage() / 1_000);
+        System.out.printf("    statements/page     : %.1f%n", result.statementsPerPage());
+        System.out.printf("    managed entities    : %,d per page%n", result.entitiesPerPage());
+    }
+
+    private record Result(long bytesPerPage, long nanosPerPage, double statementsPerPage, long entitiesPerPage) {}
+}
@@ -0,0 +1,98 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.BookDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap held by the category names of cached books. The book_categories element collection
+ * read every row into its own String; with CategoryDictionary all books share one String
+ * per category. Counts the distinct String instances behind a set of loaded BookDTOs and
+ * compares them with one instance per row. Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class CategoryMemoryBenchmark {
+
+    private static final int BOOKS = 1_000;
+    private static final int BATCH = 100;
+    private static final List<String> GENRES = List.of(
+            "Fiction", "Science Fiction", "Fantasy", "Mystery", "Biography & Autobiography",
+            "History", "Juvenile Fiction", "Young Adult Fiction", "Business & Economics",
+            "Self-Help", "Computers", "Poetry");
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    void reportCategoryBytesPerCachedBook() {
+        List<Long> ids = seedCatalog();
+        List<BookDTO> cached = new ArrayList<>(ids.size());
+        long started = System.nanoTime();
+        for (int offset = 0; offset < ids.size(); offset += BATCH) {
+            cached.addAll(bookService.getBooksByIds(ids.subList(offset, Math.min(offset + BATCH, ids.size()))));
+        }
+        long loadNanos = System.nanoTime() - started;
+
+        Set<String> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        long references = 0;
+        long perRowBytes = 0;
+        for (BookDTO book : cached) {
+            for (String category : book.getCategories()) {
+                references++;
+                perRowBytes += stringBytes(category);
+                distinct.add(category);
+            }
+        }
+        long sharedBytes = distinct.stream().mapToLong(CategoryMemoryBenchmark::stringBytes).sum()
+                + references * 4; // a compressed reference per category slot
+
+        System.out.printf("%nCategory names held by %,d cached books (%,d category slots)%n", cached.size(), references);
+        System.out.printf("  one String per row       : %,d instances, %,d B (%.1f B/book)%n",
+                references, perRowBytes + references * 4, (double) (perRowBytes + references * 4) / cached.size());
+        System.out.printf("  CategoryDictionary       : %,d instances, %,d B (%.1f B/book)%n",
+                distinct.size(), sharedBytes, (double) sharedBytes / cached.size());
+        System.out.printf("  load time                : %,d us per %d books%n", loadNanos / 1_000 / (ids.size() / BATCH), BATCH);
+
+        assertThat(distinct.size()).isLessThanOrEqualTo(GENRES.size());
+        assertThat(sharedBytes).isLessThan(perRowBytes);
+    }
+
+    private List<Long> seedCatalog() {
+        List<Long> ids = new ArrayList<>(BOOKS);
+        for (int offset = 0; offset < BOOKS; offset += BATCH) {
+            List<BookDTO> batch = new ArrayList<>(BATCH);
+            for (int i = offset; i < offset + BATCH; i++) {
+                batch.add(BookDTO.builder()
+                        .title("Category Benchmark Book " + i)
+                        .author("Category Benchmark Author " + (i % 40))
+                        .isbn("CAT-" + i)
+                        .googleBooksId("CAT_" + i)
+                        // fresh instances, as read from a dump or an API response
+                        .categories(List.of(new String(GENRES.get(i % GENRES.size())),
+                                new String(GENRES.get((i / 3) % GENRES.size())),
+                                new String(GENRES.get((i / 7) % GENRES.size()))))
+                        .build());
+            }
+            ids.addAll(bookService.saveExternalBooks(batch).bookIds());
+        }
+        return ids;
+    }
+
+    // String object (compressed oops) plus its Latin-1 byte[], both 8-byte aligned
+    private static long stringBytes(String value) {
+        return 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
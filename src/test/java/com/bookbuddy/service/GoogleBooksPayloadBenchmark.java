@@ -0,0 +1,138 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.BookDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes transferred and allocation per 40-result search, full response + object tree vs.
+ * partial response + streaming parser. Run with {@code mvn test -Pbenchmark}.
+ */
+public class GoogleBooksPayloadBenchmark {
+
+    private static final int RESULTS = 40;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GoogleBooksVolumeParser parser = new GoogleBooksVolumeParser(objectMapper.getFactory());
+
+    @Test
+    void reportBytesAndAllocationPerSearch() throws Exception {
+        byte[] full = objectMapper.writeValueAsBytes(response(true));
+        byte[] partial = objectMapper.writeValueAsBytes(response(false));
+
+        long treeAlloc = allocationPerOp(() -> objectMapper.readTree(full));
+        long streamFullAlloc = allocationPerOp(() -> parse(full));
+        long streamPartialAlloc = allocationPerOp(() -> parse(partial));
+
+        System.out.printf("%nGoogle Books search payload (%d results)%n", RESULTS);
+        System.out.printf("  bytes, full response         : %,d%n", full.length);
+        System.out.printf("  bytes, fields= partial       : %,d (%.0f%% smaller)%n",
+                partial.length, 100.0 * (full.length - partial.length) / full.length);
+        System.out.printf("  alloc/search, full + tree    : %,d B%n", treeAlloc);
+        System.out.printf("  alloc/search, full + stream  : %,d B%n", streamFullAlloc);
+        System.out.printf("  alloc/search, partial+stream : %,d B%n", streamPartialAlloc);
+
+        assertThat(partial.length).isLessThan(full.length);
+        assertThat(streamPartialAlloc).isLessThan(treeAlloc);
+    }
+
+    private List<BookDTO> parse(byte[] body) throws Exception {
+        List<BookDTO> books = new ArrayList<>(RESULTS);
+        parser.parseSearchResponse(body, books::add);
+        return books;
+    }
+
+    private static long allocationPerOp(ThrowingSupplier op) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = op.get();
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = op.get();
+        }
+        long after = threads.getThreadAllocatedBytes(thread);
+        assertThat(sink).isNotNull();
+        return (after - before) / ITERATIONS;
+    }
+
+    // Shape of a real volumes response; without the extras it matches SEARCH_FIELDS
+    private ObjectNode response(boolean full) {
+        ObjectNode root = objectMapper.createObjectNode();
+        if (full) {
+            root.put("kind", "books#volumes");
+            root.put("totalItems", 1843);
+        }
+        ArrayNode items = root.putArray("items");
+        for (int i = 0; i < RESULTS; i++) {
+            ObjectNode item = items.addObject();
+            if (full) {
+                item.put("kind", "books#volume");
+                item.put("etag", "etag" + i);
+                item.put("selfLink", "https://www.googleapis.com/books/v1/volumes/vol" + i);
+            }
+            item.put("id", "vol" + i);
+            ObjectNode info = item.putObject("volumeInfo");
+            info.put("title", "Benchmark Title " + i);
+            info.putArray("authors").add("Author " + i).add("Co Author " + i);
+            info.put("publisher", "Publisher " + i);
+            info.put("publishedDate", "20" + (10 + i % 10) + "-01-01");
+            info.put("description", "Lorem ipsum dolor sit amet. ".repeat(60));
+            ArrayNode ids = info.putArray("industryIdentifiers");
+            ids.addObject().put("type", "ISBN_13").put("identifier", "97800000000" + i);
+            ids.addObject().put("type", "ISBN_10").put("identifier", "00000000" + i);
+            info.put("pageCount", 200 + i);
+            info.putArray("categories").add("Fiction");
+            info.put("averageRating", 4.0);
+            info.put("ratingsCount", 10 + i);
+            ObjectNode images = info.putObject("imageLinks");
+            images.put("smallThumbnail", "http://books.google.com/books/content?id=vol" + i + "&zoom=5");
+            images.put("thumbnail", "http://books.google.com/books/content?id=vol" + i + "&zoom=1");
+            info.put("language", "en");
+            if (full) {
+                info.put("subtitle", "A subtitle that nobody reads " + i);
+                info.putObject("readingModes").put("text", true).put("image", false);
+                info.put("printType", "BOOK");
+                info.put("maturityRating", "NOT_MATURE");
+                info.put("allowAnonLogging", true);
+                info.put("contentVersion", "1.2.3.0.preview.3");
+                info.putObject("panelizationSummary").put("containsEpubBubbles", false).put("containsImageBubbles", false);
+                info.put("previewLink", "http://books.google.com/books?id=vol" + i + "&printsec=frontcover&dq=q&hl=&cd=1&source=gbs_api");
+                info.put("infoLink", "http://books.google.com/books?id=vol" + i + "&dq=q&hl=&source=gbs_api");
+                info.put("canonicalVolumeLink", "https://books.google.com/books/about/Title.html?hl=&id=vol" + i);
+                ObjectNode sale = item.putObject("saleInfo");
+                sale.put("country", "US").put("saleability", "FOR_SALE").put("isEbook", true);
+                sale.putObject("listPrice").put("amount", 9.99).put("currencyCode", "USD");
+                sale.putObject("retailPrice").put("amount", 8.99).put("currencyCode", "USD");
+                sale.put("buyLink", "https://play.google.com/store/books/details?id=vol" + i + "&rdid=book-vol" + i);
+                ObjectNode access = item.putObject("accessInfo");
+                access.put("country", "US").put("viewability", "PARTIAL").put("embeddable", true)
+                        .put("publicDomain", false).put("textToSpeechPermission", "ALLOWED");
+                access.putObject("epub").put("isAvailable", true)
+                        .put("acsTokenLink", "http://books.google.com/books/download/Title-sample-epub.acsm?id=vol" + i);
+                access.putObject("pdf").put("isAvailable", false);
+                access.put("webReaderLink", "http://play.google.com/books/reader?id=vol" + i + "&hl=&source=gbs_api");
+                item.putObject("searchInfo").put("textSnippet", "A short snippet of matching text for result " + i);
+            }
+        }
+        return root;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        Object get() throws Exception;
+    }
+}
@@ -0,0 +1,113 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.GoogleBooksResilienceConfig;
+import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.exception.ExternalServiceUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.bookbuddy.dto.BookSummaryDTO;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GoogleBooksServiceTests {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void searchBooks_assignsStableIdsAndServesCopiesOfCachedDTOs() throws Exception {
+        String json = new String(fixture("google-books/search-response.json"), StandardCharsets.UTF_8);
+        GoogleBooksService service = service(HttpStatus.OK, json);
+
+        List<BookDTO> first = service.searchBooks("google", 10);
+        List<BookDTO> second = service.searchBooks("google", 10);
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(second).isEqualTo(first);
+        assertThat(second.get(0)).isNotSameAs(first.get(0));
+        // an edit to a returned DTO does not reach the cache
+        second.get(0).setTitle("edited");
+        assertThat(service.searchBooks("google", 10).get(0).getTitle()).isEqualTo(first.get(0).getTitle());
+
+        BookDTO book = first.get(0);
+        assertThat(book.getId()).isEqualTo(GoogleBooksService.externalIdFor("zyTCAlFPjgYC"));
+        assertThat(book.getId()).isNegative().isGreaterThanOrEqualTo(-(1L << 53));
+        assertThat(service.resolveExternalId(book.getId())).isEqualTo("zyTCAlFPjgYC");
+        // a missing thumbnail falls back to the default cover
+        assertThat(first).allSatisfy(b -> assertThat(b.getCoverImageUrl()).isNotBlank());
+    }
+
+    @Test
+    void searchBooks_cachedDTOsSurviveConversionToSummaries() throws Exception {
+        String json = new String(fixture("google-books/search-response.json"), StandardCharsets.UTF_8);
+        GoogleBooksService service = service(HttpStatus.OK, json);
+        BookService bookService = Mockito.mock(BookService.class, Mockito.CALLS_REAL_METHODS);
+
+        List<BookDTO> cached = service.searchBooks("google", 10);
+        List<String> before = cached.stream().map(BookDTO::toString).toList();
+        // what every caller does with the shared DTOs, followed by a careless edit
+        for (BookDTO book : cached) {
+            BookSummaryDTO summary = bookService.toSummary(book);
+            summary.setId(42L);
+            summary.setCoverImageUrl("edited");
+            if (summary.getCategories() != null) {
+                assertThatThrownBy(() -> summary.getCategories().add("edited"))
+                        .isInstanceOf(UnsupportedOperationException.class);
+            }
+        }
+
+        assertThat(service.searchBooks("google", 10)).map(BookDTO::toString).isEqualTo(before);
+    }
+
+    @Test
+    void searchBooks_opensCircuitAfterRepeatedServerErrors() {
+        GoogleBooksService service = service(HttpStatus.SERVICE_UNAVAILABLE, "{}");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.searchBooks("down" + i, 5)).isEmpty();
+        }
+        assertThatThrownBy(() -> service.searchBooks("down", 5))
+                .isInstanceOf(ExternalServiceUnavailableException.class);
+        assertThat(upstreamCalls.get()).isEqualTo(5);
+    }
+
+    @Test
+    void searchBooksOrFail_throwsWhereSearchBooksReturnsEmpty() {
+        GoogleBooksService service = service(HttpStatus.INTERNAL_SERVER_ERROR, "{}");
+
+        assertThat(service.searchBooks("broken", 0, 5)).isEmpty();
+        assertThatThrownBy(() -> service.searchBooksOrFail("broken", 0, 5))
+                .isInstanceOf(ExternalServiceUnavailableException.class)
+                .hasMessage("Google Books search failed");
+    }
+
+    private GoogleBooksService service(HttpStatus status, String body) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.just(ClientResponse.create(status)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build());
+        });
+        return new GoogleBooksService(builder, "http://books.test", "", new GoogleBooksResilienceConfig(),
+                new ObjectMapper(), null, null);
+    }
+
+    private static byte[] fixture(String path) throws Exception {
+        try (InputStream in = GoogleBooksServiceTests.class.getClassLoader().getResourceAsStream(path)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.BookDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GoogleBooksVolumeParserTests {
+
+    private final GoogleBooksVolumeParser parser = new GoogleBooksVolumeParser(new JsonFactory());
+
+    @Test
+    void parseSearchResponse_mapsUsedFieldsAndSkipsTheRest() throws Exception {
+        List<BookDTO> books = new ArrayList<>();
+        parser.parseSearchResponse(fixture("google-books/search-response.json"), books::add);
+
+        // the item without volumeInfo is dropped
+        assertThat(books).hasSize(2);
+
+        BookDTO first = books.get(0);
+        assertThat(first.getGoogleBooksId()).isEqualTo("zyTCAlFPjgYC");
+        assertThat(first.getTitle()).isEqualTo("The Google Story");
+        assertThat(first.getAuthor()).isEqualTo("David A. Vise, Mark Malseed");
+        // first ISBN in document order wins
+        assertThat(first.getIsbn()).isEqualTo("055380457X");
+        assertThat(first.getPageCount()).isEqualTo(207);
+        assertThat(first.getCategories()).containsExactly("Browsers (Computer programs)");
+        assertThat(first.getAverageRating()).isEqualTo(3.5);
+        assertThat(first.getRatingsCount()).isEqualTo(136);
+        assertThat(first.getCoverImageUrl()).endsWith("zoom=1");
+        assertThat(first.getLanguage()).isEqualTo("en");
+
+        BookDTO minimal = books.get(1);
+        assertThat(minimal.getTitle()).isEqualTo("Untitled");
+        assertThat(minimal.getAuthor()).isEqualTo("Unknown Author");
+        assertThat(minimal.getCoverImageUrl()).isEqualTo("http://example.com/small.jpg");
+        assertThat(minimal.getAverageRating()).isEqualTo(0.0);
+        assertThat(minimal.getRatingsCount()).isEqualTo(0);
+    }
+
+    @Test
+    void parseSearchResponse_skipsValuesOfUnexpectedShape() throws Exception {
+        String json = """
+                {"items": [
+                  null, "stray", 7, ["nested", {"id": "inArray"}],
+                  {"id": "first", "volumeInfo": {"title": "First"}},
+                  {"id": {"odd": ["x"]}, "volumeInfo": {
+                    "title": {"text": "not a string"},
+                    "publisher": ["P"],
+                    "pageCount": [12],
+                    "averageRating": {"value": 4},
+                    "language": "fr",
+                    "industryIdentifiers": ["bad", {"type": "ISBN_13", "identifier": {"v": 1}},
+                                            {"type": "ISBN_10", "identifier": "0123456789"}],
+                    "imageLinks": ["http://example.com/not-an-object.jpg"],
+                    "authors": ["A", {"name": "B"}, "C"]
+                  }},
+                  {"id": "last", "volumeInfo": {"title": "Last"}}
+                ], "totalItems": 3}
+                """;
+        List<BookDTO> books = new ArrayList<>();
+        parser.parseSearchResponse(json.getBytes(StandardCharsets.UTF_8), books::add);
+
+        // the odd elements do not end the items array
+        assertThat(books).extracting(BookDTO::getTitle).containsExactly("First", "Untitled", "Last");
+        BookDTO odd = books.get(1);
+        assertThat(odd.getGoogleBooksId()).isNull();
+        assertThat(odd.getPublisher()).isNull();
+        assertThat(odd.getPageCount()).isNull();
+        assertThat(odd.getAverageRating()).isEqualTo(0.0);
+        // fields after a skipped container are still read
+        assertThat(odd.getLanguage()).isEqualTo("fr");
+        // the ISBN_13 has no usable identifier, so the next ISBN counts
+        assertThat(odd.getIsbn()).isEqualTo("0123456789");
+        assertThat(odd.getCoverImageUrl()).isNull();
+        assertThat(odd.getAuthor()).isEqualTo("A, C");
+    }
+
+    @Test
+    void parseVolume_readsSingleVolumeResponse() throws Exception {
+        String json = "{\"id\":\"abc\",\"volumeInfo\":{\"title\":\"Solo\",\"authors\":[\"A\"]},\"accessInfo\":{}}";
+        BookDTO dto = parser.parseVolume(json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(dto).isNotNull();
+        assertThat(dto.getGoogleBooksId()).isEqualTo("abc");
+        assertThat(dto.getTitle()).isEqualTo("Solo");
+        assertThat(parser.parseVolume("{\"id\":\"x\"}".getBytes(StandardCharsets.UTF_8))).isNull();
+    }
+
+    private static byte[] fixture(String path) throws Exception {
+        try (InputStream in = GoogleBooksVolumeParserTests.class.getClassLoader().getResourceAsStream(path)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.ImportJobConfig;
+import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.dto.ImportJobDTO;
+import com.bookbuddy.exception.ExternalServiceUnavailableException;
+import com.bookbuddy.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ImportJobServiceTests {
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submitTopImport_pagesGoogleBooksAndPersistsInBatches() throws Exception {
+        BookService bookService = mock(BookService.class);
+        GoogleBooksService googleBooksService = mock(GoogleBooksService.class);
+        when(googleBooksService.searchBooksOrFail("q", 0, 40)).thenReturn(books(0, 40));
+        when(googleBooksService.searchBooksOrFail("q", 40, 20)).thenReturn(books(40, 20));
+        when(bookService.saveExternalBooks(anyList())).thenAnswer(inv -> {
+            List<BookDTO> batch = inv.getArgument(0);
+            List<Long> ids = batch.stream().map(b -> -b.getId()).toList();
+            return new BookService.ExternalImportResult(ids, batch.size(), 0);
+        });
+
+        ImportJobConfig config = new ImportJobConfig();
+        config.setBatchSize(25);
+        executor.initialize();
+        ImportJobService service = new ImportJobService(bookService, googleBooksService, executor, config);
+
+        ImportJobDTO submitted = service.submitTopImport("q", 60);
+        ImportJobDTO job = submitted;
+        for (int i = 0; i < 100 && job.getFinishedAt() == null; i++) {
+            Thread.sleep(20);
+            job = service.getJob(submitted.getId());
+        }
+
+        assertThat(job.getStatus()).isEqualTo(ImportJobDTO.Status.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(60);
+        assertThat(job.getBookIds()).hasSize(60).startsWith(1L, 2L);
+        // 60 results in batches of 25 -> three transactions
+        verify(bookService, times(3)).saveExternalBooks(anyList());
+        verify(googleBooksService).searchBooksOrFail(eq("q"), eq(40), eq(20));
+    }
+
+    @Test
+    void submitTopImport_advancesByPageSizeWhenItemsAreDropped() throws Exception {
+        BookService bookService = mock(BookService.class);
+        GoogleBooksService googleBooksService = mock(GoogleBooksService.class);
+        // Two of the first 40 volumes could not be parsed
+        when(googleBooksService.searchBooksOrFail("q", 0, 40)).thenReturn(books(0, 38));
+        when(googleBooksService.searchBooksOrFail("q", 40, 22)).thenReturn(books(40, 22));
+        when(bookService.saveExternalBooks(anyList())).thenAnswer(inv -> {
+            List<BookDTO> batch = inv.getArgument(0);
+            return new BookService.ExternalImportResult(batch.stream().map(b -> -b.getId()).toList(), batch.size(), 0);
+        });
+
+        executor.initialize();
+        ImportJobService service = new ImportJobService(bookService, googleBooksService, executor, new ImportJobConfig());
+
+        ImportJobDTO submitted = service.submitTopImport("q", 60);
+        ImportJobDTO job = submitted;
+        for (int i = 0; i < 100 && job.getFinishedAt() == null; i++) {
+            Thread.sleep(20);
+            job = service.getJob(submitted.getId());
+        }
+
+        assertThat(job.getStatus()).isEqualTo(ImportJobDTO.Status.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(60);
+        verify(googleBooksService).searchBooksOrFail(eq("q"), eq(40), eq(22));
+    }
+
+    @Test
+    void submitTopImport_failsTheJobWhenGoogleBooksFails() throws Exception {
+        BookService bookService = mock(BookService.class);
+        GoogleBooksService googleBooksService = mock(GoogleBooksService.class);
+        when(googleBooksService.searchBooksOrFail("q", 0, 40)).thenReturn(books(0, 40));
+        when(googleBooksService.searchBooksOrFail("q", 40, 20))
+                .thenThrow(new ExternalServiceUnavailableException("Google Books search failed"));
+
+        executor.initialize();
+        ImportJobService service = new ImportJobService(bookService, googleBooksService, executor, new ImportJobConfig());
+
+        ImportJobDTO submitted = service.submitTopImport("q", 60);
+        ImportJobDTO job = submitted;
+        for (int i = 0; i < 100 && job.getFinishedAt() == null; i++) {
+            Thread.sleep(20);
+            job = service.getJob(submitted.getId());
+        }
+
+        assertThat(job.getStatus()).isEqualTo(ImportJobDTO.Status.FAILED);
+        assertThat(job.getError()).isEqualTo("Google Books search failed");
+        verify(bookService, never()).saveExternalBooks(anyList());
+    }
+
+    @Test
+    void getJob_keepsRunningJobsPastRetentionAndExpiresFinishedOnes() throws Exception {
+        BookService bookService = mock(BookService.class);
+        GoogleBooksService googleBooksService = mock(GoogleBooksService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(googleBooksService.searchBooksOrFail("slow", 0, 5)).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        ImportJobConfig config = new ImportJobConfig();
+        config.setRetention(Duration.ofMillis(100));
+        executor.initialize();
+        ImportJobService service = new ImportJobService(bookService, googleBooksService, executor, config);
+
+        ImportJobDTO submitted = service.submitTopImport("slow", 5);
+        Thread.sleep(300);
+        assertThat(service.getJob(submitted.getId()).getStatus()).isEqualTo(ImportJobDTO.Status.RUNNING);
+
+        release.countDown();
+        ImportJobDTO job = submitted;
+        for (int i = 0; i < 100 && job.getFinishedAt() == null; i++) {
+            Thread.sleep(10);
+            job = service.getJob(submitted.getId());
+        }
+        assertThat(job.getStatus()).isEqualTo(ImportJobDTO.Status.COMPLETED);
+
+        Thread.sleep(300);
+        assertThatThrownBy(() -> service.getJob(submitted.getId())).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static List<BookDTO> books(int from, int count) {
+        return new ArrayList<>(IntStream.range(from, from + count)
+                .mapToObj(i -> BookDTO.builder().id(-(i + 1L)).googleBooksId("g" + i).build())
+                .toList());
+    }
+}
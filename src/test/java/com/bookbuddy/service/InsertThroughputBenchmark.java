@@ -0,0 +1,119 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.BookDTO;
+import com.bookbuddy.model.Book;
+import com.bookbuddy.model.User;
+import com.bookbuddy.model.UserBook;
+import com.bookbuddy.repository.BookRepository;
+import com.bookbuddy.repository.UserBookRepository;
+import com.bookbuddy.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput for the bulk write paths with pooled sequence ids and JDBC batching:
+ * book imports (BookService.saveExternalBooks) and bulk shelf adds (UserBook saveAll).
+ * Prepared statements per row show whether Hibernate actually batched the inserts.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public class InsertThroughputBenchmark {
+
+    private static final int BOOKS = 5_000;
+    private static final int IMPORT_BATCH = 50;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reportInsertThroughput() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // Book imports, in the batch size used by import jobs
+        stats.clear();
+        long started = System.nanoTime();
+        int imported = 0;
+        for (int offset = 0; offset < BOOKS; offset += IMPORT_BATCH) {
+            List<BookDTO> batch = new ArrayList<>(IMPORT_BATCH);
+            for (int i = offset; i < offset + IMPORT_BATCH; i++) {
+                batch.add(BookDTO.builder()
+                        .title("Benchmark Book " + i)
+                        .author("Benchmark Author")
+                        .isbn("BENCH-" + i)
+                        .googleBooksId("BENCH_" + i)
+                        .categories(List.of("Benchmark", "Fiction"))
+                        .build());
+            }
+            imported += bookService.saveExternalBooks(batch).imported();
+        }
+        report("book import (saveExternalBooks)", imported, System.nanoTime() - started, stats);
+        assertThat(imported).isEqualTo(BOOKS);
+
+        // Bulk shelf add: every imported book onto one user's want-to-read shelf
+        User reader = userRepository.save(User.builder()
+                .username("bench-reader")
+                .email("bench-reader@example.com")
+                .password("x")
+                .role(User.Role.USER)
+                .build());
+        stats.clear();
+        started = System.nanoTime();
+        Integer added = tx.execute(status -> {
+            List<Book> books = bookRepository.findByGoogleBooksIdIn(
+                    java.util.stream.IntStream.range(0, BOOKS).mapToObj(i -> "BENCH_" + i).toList());
+            List<UserBook> entries = new ArrayList<>(books.size());
+            for (Book book : books) {
+                entries.add(UserBook.builder()
+                        .user(reader)
+                        .book(book)
+                        .shelf(UserBook.ShelfType.WANT_TO_READ)
+                        .build());
+            }
+            return userBookRepository.saveAll(entries).size();
+        });
+        report("shelf bulk add (UserBook saveAll)", added, System.nanoTime() - started, stats);
+        assertThat(added).isEqualTo(BOOKS);
+    }
+
+    private static void report(String label, int rows, long nanos, Statistics stats) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%n%s%n", label);
+        System.out.printf("  rows                  : %,d%n", rows);
+        System.out.printf("  elapsed               : %,.0f ms%n", seconds * 1000);
+        System.out.printf("  throughput            : %,.0f rows/s%n", rows / seconds);
+        System.out.printf("  prepared statements   : %,d (%.2f per row)%n",
+                stats.getPrepareStatementCount(), (double) stats.getPrepareStatementCount() / rows);
+        System.out.printf("  entity inserts        : %,d%n", stats.getEntityInsertCount());
+    }
+}
@@ -0,0 +1,107 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.config.ProgressConfig;
+import com.bookbuddy.service.ProgressWriteBuffer.Pending;
+import com.bookbuddy.trending.TrendingIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProgressWriteBufferTests {
+
+    @Test
+    void coalescedReports_matchApplyingThemOneByOne() {
+        Random random = new Random(3);
+        for (Integer pageCount : new Integer[] {null, 0, 300}) {
+            for (int run = 0; run < 5_000; run++) {
+                Integer page = null;
+                Double percentage = null;
+                boolean finished = false;
+                Pending folded = null;
+
+                int reports = 1 + random.nextInt(6);
+                for (int i = 0; i < reports; i++) {
+                    Integer reportPage = random.nextInt(3) == 0 ? null : random.nextInt(320);
+                    Double reportPercentage = random.nextInt(3) > 0 ? null : (double) random.nextInt(101);
+
+                    // UserBookService.updateReadingProgress, one report at a time
+                    if (reportPage != null) {
+                        page = reportPage;
+                        if (pageCount != null && pageCount > 0) {
+                            percentage = Math.min(reportPage * 100.0 / pageCount, 100.0);
+                        }
+                    }
+                    if (reportPercentage != null) {
+                        percentage = reportPercentage;
+                    }
+                    finished |= percentage != null && percentage >= 100.0;
+
+                    Pending report = Pending.of(reportPage, reportPercentage);
+                    folded = folded == null ? report : folded.then(report);
+                }
+
+                assertThat(folded.page()).isEqualTo(page);
+                assertThat(folded.percentage(pageCount)).isEqualTo(percentage);
+                assertThat(folded.finished(pageCount)).isEqualTo(finished);
+            }
+        }
+    }
+
+    @Test
+    void foldingIsAssociative() {
+        // a failed flush merges its entry back under newer reports: (a.b).c must equal a.(b.c)
+        Pending a = Pending.of(120, null);
+        Pending b = Pending.of(null, 100.0);
+        Pending c = Pending.of(80, null);
+        assertThat(a.then(b).then(c)).isEqualTo(a.then(b.then(c)));
+        assertThat(a.then(b).then(c).percentage(300)).isCloseTo(26.67, within(0.01));
+        assertThat(a.then(b).then(c).finished(300)).isTrue();
+    }
+
+    @Test
+    void singleBookFlush_waitsOnlyForTheBatchHoldingThatBook() throws Exception {
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenAnswer(invocation -> {
+            SqlParameterSource[] params = invocation.getArgument(1);
+            if (params[0].getValue("bookId").equals(1L)) {
+                writing.countDown();
+                release.await();
+            }
+            return new int[params.length];
+        });
+        ProgressWriteBuffer buffer = new ProgressWriteBuffer(jdbcTemplate, mock(PlatformTransactionManager.class),
+                mock(ReadingEventLog.class), mock(ShelfCountService.class), mock(TrendingIndex.class),
+                new ProgressConfig(), new SimpleMeterRegistry());
+
+        buffer.add(1L, 1L, 10, null);
+        CompletableFuture<Void> scheduled = CompletableFuture.runAsync(buffer::flush);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        buffer.add(1L, 2L, 20, null);
+        CompletableFuture<Void> otherBook = CompletableFuture.runAsync(() -> buffer.flush(1L, 2L));
+        CompletableFuture<Void> sameBook = CompletableFuture.runAsync(() -> buffer.flush(1L, 1L));
+        otherBook.get(5, TimeUnit.SECONDS);
+        assertThat(sameBook).isNotDone();
+
+        release.countDown();
+        sameBook.get(5, TimeUnit.SECONDS);
+        scheduled.get(5, TimeUnit.SECONDS);
+        assertThat(buffer.pendingCount()).isZero();
+    }
+}
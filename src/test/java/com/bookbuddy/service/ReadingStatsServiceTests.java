@@ -0,0 +1,58 @@
+package com.bookbuddy.service;
+
+import com.bookbuddy.dto.ReadingStatsDTO;
+import com.bookbuddy.dto.ReadingStatsDTO.DailyPages;
+import com.bookbuddy.service.ReadingStatsService.DayRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ReadingStatsServiceTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 3);
+
+    @Test
+    void streaksFinishedBooksAndPagesPerDay_comeFromTheDailyRollups() {
+        List<DayRow> rows = List.of(
+                new DayRow(LocalDate.of(2024, 12, 20), 40, 0, 0, 0),
+                new DayRow(LocalDate.of(2024, 12, 21), 35, 1, 4 * 86_400, 1),
+                new DayRow(LocalDate.of(2024, 12, 22), 20, 0, 0, 0),
+                new DayRow(LocalDate.of(2024, 12, 30), 10, 1, 0, 0),
+                new DayRow(LocalDate.of(2025, 1, 1), 50, 0, 0, 0),
+                new DayRow(LocalDate.of(2025, 1, 2), 25, 1, 2 * 86_400, 1));
+
+        ReadingStatsDTO stats = ReadingStatsService.summarize(rows, TODAY, 3);
+        assertThat(stats.getTotalPagesRead()).isEqualTo(180);
+        assertThat(stats.getActiveDays()).isEqualTo(6);
+        assertThat(stats.getAveragePagesPerActiveDay()).isCloseTo(30.0, within(1e-9));
+        // the run ending yesterday is still current; the longest run was three days in December
+        assertThat(stats.getCurrentStreak()).isEqualTo(2);
+        assertThat(stats.getLongestStreak()).isEqualTo(3);
+        assertThat(stats.getBooksFinished()).isEqualTo(3);
+        assertThat(stats.getBooksFinishedByYear()).isEqualTo(Map.of(2024, 2, 2025, 1));
+        // the book moved straight to READ has no start, so it is left out of the average
+        assertThat(stats.getAverageDaysToFinish()).isCloseTo(3.0, within(1e-9));
+        assertThat(stats.getPagesPerDay()).containsExactly(
+                new DailyPages(LocalDate.of(2025, 1, 1), 50),
+                new DailyPages(LocalDate.of(2025, 1, 2), 25),
+                new DailyPages(TODAY, 0));
+
+        // two days without reading break the streak
+        assertThat(ReadingStatsService.summarize(rows, TODAY.plusDays(1), 3).getCurrentStreak()).isZero();
+    }
+
+    @Test
+    void newUser_hasEmptyStats() {
+        ReadingStatsDTO stats = ReadingStatsService.summarize(List.of(), TODAY, 7);
+        assertThat(stats.getTotalPagesRead()).isZero();
+        assertThat(stats.getCurrentStreak()).isZero();
+        assertThat(stats.getAverageDaysToFinish()).isNull();
+        assertThat(stats.getBooksFinishedByYear()).isEmpty();
+        assertThat(stats.getPagesPerDay()).hasSize(7).allMatch(day -> day.getPagesRead() == 0);
+    }
+}
@@ -0,0 +1,139 @@
+package com.bookbuddy.trending;
+
+import com.bookbuddy.config.TrendingConfig;
+import com.bookbuddy.facet.BookFacetIndex;
+import com.bookbuddy.trending.TrendingIndex.Activity;
+import com.bookbuddy.trending.TrendingIndex.Ranked;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TrendingIndexTests {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final long NOW = System.currentTimeMillis();
+
+    @Test
+    void scoresHalveEveryHalfLife() {
+        TrendingIndex index = index(10);
+        // four shelf adds three half-lives ago are worth half of one shelf add now
+        for (int i = 0; i < 4; i++) {
+            index.add(1L, Activity.SHELF_ADD, NOW - 3 * 24 * HOUR);
+        }
+        index.add(2L, Activity.SHELF_ADD, NOW);
+        index.add(3L, Activity.FAVOURITE, NOW - 24 * HOUR);
+        index.refresh(NOW);
+
+        List<Ranked> trending = index.trending(null, 10);
+        assertThat(trending).extracting(Ranked::bookId).containsExactly(2L, 3L, 1L);
+        assertThat(trending.get(0).score()).isCloseTo(3.0, within(1e-9));
+        assertThat(trending.get(1).score()).isCloseTo(2.5, within(1e-9));
+        assertThat(trending.get(2).score()).isCloseTo(1.5, within(1e-9));
+
+        // a day later every score has halved and the order is unchanged
+        index.refresh(NOW + 24 * HOUR);
+        List<Ranked> dayLater = index.trending(null, 10);
+        assertThat(dayLater).extracting(Ranked::bookId).containsExactly(2L, 3L, 1L);
+        assertThat(dayLater.get(0).score()).isCloseTo(1.5, within(1e-9));
+        assertThat(dayLater.get(1).score()).isCloseTo(1.25, within(1e-9));
+        assertThat(dayLater.get(2).score()).isCloseTo(0.75, within(1e-9));
+    }
+
+    @Test
+    void listsKeepTheTopKAndDropFadedCounters() {
+        TrendingIndex index = index(5);
+        for (long book = 1; book <= 20; book++) {
+            for (int i = 0; i < book; i++) {
+                index.add(book, Activity.PROGRESS, NOW);
+            }
+        }
+        index.add(99L, Activity.REVIEW, NOW - 30 * 24 * HOUR);
+        index.refresh(NOW);
+
+        assertThat(index.trending(null, 50)).extracting(Ranked::bookId).containsExactly(20L, 19L, 18L, 17L, 16L);
+        assertThat(index.trending(null, 2)).extracting(Ranked::bookId).containsExactly(20L, 19L);
+
+        // equal scores keep the smaller id
+        TrendingIndex ties = index(2);
+        for (long book = 5; book >= 1; book--) {
+            ties.add(book, Activity.PROGRESS, NOW);
+        }
+        ties.refresh(NOW);
+        assertThat(ties.trending(null, 5)).extracting(Ranked::bookId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void concurrentWritersLoseNoUpdates() throws Exception {
+        TrendingIndex index = index(10);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        index.add(7L, Activity.PROGRESS, NOW);
+                        index.add(8L + (i % 3), Activity.PROGRESS, NOW);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        index.refresh(NOW);
+        List<Ranked> trending = index.trending(null, 10);
+        assertThat(trending.get(0).bookId()).isEqualTo(7L);
+        assertThat(trending.get(0).score()).isCloseTo(80_000.0, within(1e-6));
+        assertThat(trending.stream().mapToDouble(Ranked::score).sum()).isCloseTo(160_000.0, within(1e-6));
+    }
+
+    @Test
+    void rebasingTheLandmarkKeepsScores() {
+        TrendingIndex index = index(10);
+        // 100 half-lives on, e^(λ(t - L)) would be 2^100: the refresh moves the landmark first
+        long later = NOW + 100 * 24 * HOUR;
+        index.add(1L, Activity.FAVOURITE, later - 24 * HOUR);
+        index.add(2L, Activity.SHELF_ADD, later);
+        index.refresh(later);
+        index.add(2L, Activity.SHELF_ADD, later);
+
+        index.refresh(later);
+        assertThat(index.trending(null, 10)).extracting(Ranked::bookId).containsExactly(2L, 1L);
+        assertThat(index.trending(null, 10).get(0).score()).isCloseTo(6.0, within(1e-9));
+        assertThat(index.trending(null, 10).get(1).score()).isCloseTo(2.5, within(1e-9));
+    }
+
+    @Test
+    void progressCountsOncePerReaderAndBook() {
+        TrendingIndex index = index(10);
+        // one reader reporting every page adds no more than one report
+        for (int i = 0; i < 50; i++) {
+            index.recordedProgress(7L, 1L);
+        }
+        index.recordedProgress(8L, 1L);
+        index.recordedProgress(7L, 2L);
+        index.refresh(System.currentTimeMillis());
+
+        List<Ranked> trending = index.trending(null, 10);
+        assertThat(trending).extracting(Ranked::bookId).containsExactly(1L, 2L);
+        assertThat(trending.get(0).score()).isCloseTo(2.0, within(1e-6));
+        assertThat(trending.get(1).score()).isCloseTo(1.0, within(1e-6));
+    }
+
+    private static TrendingIndex index(int topK) {
+        TrendingConfig config = new TrendingConfig();
+        config.setTopK(topK);
+        config.setHalfLife(Duration.ofHours(24));
+        return new TrendingIndex(null, new BookFacetIndex(null), config);
+    }
+}